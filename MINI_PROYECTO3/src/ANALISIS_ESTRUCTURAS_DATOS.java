@@ -5,164 +5,202 @@
  * en las nuevas funcionalidades del proyecto Dragon Quest VIII.
  * 
  * ============================================================================
- * 1. INVENTARIO - HashMap<String, Integer>
+ * 1. INVENTARIO - short[] por id de ítem + máscara de bits
  * ============================================================================
  * 
- * ESTRUCTURA ELEGIDA: HashMap<String, Integer>
- *   - Clave: nombre del ítem (String)
- *   - Valor: cantidad en inventario (Integer)
+ * ESTRUCTURA ELEGIDA: short[] cantidades + long ocupados
+ *   - Índice: id denso del ítem en el catálogo (Item.getId())
+ *   - Valor: cantidad en inventario (short, máximo 99)
+ *   - Bit i de ocupados: el ítem i está en el inventario
  * 
  * COMPLEJIDAD:
  *   - Inserción: O(1)
- *   - Búsqueda: O(1)
+ *   - Búsqueda: O(1) (acceso directo al array)
  *   - Eliminación: O(1)
+ *   - Espacios ocupados: O(1) (Long.bitCount)
  * 
  * JUSTIFICACIÓN:
- *   ✓ Los inventarios requieren búsquedas frecuentes por nombre de ítem
+ *   ✓ Los inventarios requieren búsquedas frecuentes por ítem
  *   ✓ Necesita permitir múltiples cantidades del mismo ítem
- *   ✓ O(1) en operaciones críticas (usar ítem, añadir ítem)
- *   ✓ No requiere ordenamiento
- *   ✓ Máximo 5 ítems diferentes por héroe (pequeño tamaño)
+ *   ✓ Sin hash de String ni Integer: las operaciones no reservan memoria
+ *   ✓ Recorrer los ítems salta de bit en bit (máximo 5 ítems por héroe)
  * 
  * ALTERNATIVAS RECHAZADAS:
+ *   ✗ HashMap<String, Integer>: hash y boxing en cada operación
  *   ✗ ArrayList: O(n) en búsqueda, ineficiente
  *   ✗ TreeMap: O(log n), ordenamiento innecesario
- *   ✗ LinkedList: O(n) en búsqueda, optimizado para inserción en extremos
  *   ✗ HashSet: No permite duplicados, necesitamos contar cantidad
  * 
  * CASOS DE USO:
- *   - inv.agregarItem("Poción", 3) → O(1)
- *   - inv.usarItem("Poción", 1) → O(1)
- *   - inv.obtenerCantidad("Poción") → O(1)
- *   - Iteración: inv.obtenerItems() → O(n) donde n=5 máximo
+ *   - inv.agregarItem(id, 3) / inv.agregarItem("Poción", 3) → O(1)
+ *   - inv.usarItem(id, 1) → O(1)
+ *   - inv.obtenerCantidad(id) → O(1)
+ *   - Iteración: bits de inv.obtenerOcupados() → O(n) donde n=5 máximo
+ *   - Vistas: inv.obtenerInstantanea() → O(1) si la versión no cambió
+ *     (instantánea inmutable reconstruida solo tras una modificación)
+ *   - Catálogo (id → Item, nombre → Item): CatalogoItems inmutable leído de
+ *     items.csv, O(1) por id y por nombre; GestorObjetos lo recarga en
+ *     caliente sustituyendo un AtomicReference (lectores sin locks ni copias)
+ *     con compareAndSet, solo si el catálogo nuevo conserva nombre y tipo
+ *     de cada id existente (los inventarios indexan por id)
  * 
  * ============================================================================
- * 2. HISTORIAL DE BATALLAS - LinkedList<RegistroBatalla>
+ * 2. HISTORIAL DE BATALLAS - ArrayList<RegistroBatalla>
  * ============================================================================
  * 
- * ESTRUCTURA ELEGIDA: LinkedList<RegistroBatalla>
+ * ESTRUCTURA ELEGIDA: ArrayList<RegistroBatalla>
  * 
  * COMPLEJIDAD:
- *   - Inserción al final (addLast): O(1)
- *   - Acceso aleatorio: O(n)
+ *   - Inserción al final (add): O(1) amortizado
+ *   - Acceso por índice: O(1)
  *   - Obtener último: O(1)
  *   - Iteración: O(n)
  * 
  * JUSTIFICACIÓN:
  *   ✓ Los historiales requieren inserción FRECUENTE al final (O(1))
- *   ✓ Acceso secuencial eficiente (ver historial completo)
- *   ✓ Fácil acceso a la última batalla (getLast)
- *   ✓ Sin necesidad de acceso aleatorio
- *   ✓ Mejor rendimiento que ArrayList para inserción final
+ *   ✓ Acceso secuencial eficiente y compacto (exportar historial completo)
+ *   ✓ Acceso por índice O(1) para la paginación por cursor
+ *   ✓ Acceso a la última batalla en O(1)
  * 
  * ALTERNATIVAS RECHAZADAS:
- *   ✗ ArrayList: O(n) inserción al final (crecimiento dinámico)
+ *   ✗ LinkedList: un nodo por batalla y acceso por índice O(n)
  *   ✗ Stack: No permite acceso secuencial al historial
  *   ✗ Queue: Pensado para consumo, no para registro
  *   ✗ TreeSet: Ordenamiento innecesario, O(log n)
  * 
  * CASOS DE USO:
- *   - historial.registrarBatalla(...) → O(1) [addLast]
- *   - historial.obtenerUltimaBatalla() → O(1) [getLast]
- *   - historial.obtenerHistorial() → O(n) iteración
- *   - estadísticas de victorias/derrotas → O(n)
+ *   - historial.registrarBatalla(...) → O(1) amortizado [add]
+ *   - historial.obtenerUltimaBatalla() → O(1) [get(size-1)]
+ *   - historial.obtenerHistorial() → O(1) vista de solo lectura
+ *   - historial.obtenerPagina(cursor, n) → O(n) por página
+ *   - exportar (CSV/JSONL/binario) → ExportadorHistorial, memoria constante
+ *   - estadísticas (victorias, promedio, mín/máx, varianza) → O(1)
+ *     [acumuladores actualizados en cada registro, varianza de Welford]
+ *   - persistencia opcional → AlmacenColumnarBatallas (una columna mapeada
+ *     en memoria por atributo; agregados recorren solo su columna)
+ *   - tasa de victorias por ventana de tiempo → IndiceTemporalBatallas
+ *     (TreeMap de cubetas por hora con solo totales; los bordes se leen de
+ *     la columna de fechas del almacén): O(log c + cubetas + bordes)
+ *   - batallas por héroe / por grupo → IndiceHeroesBatallas (listas
+ *     invertidas con deltas varint; grupos por intersección de listas)
+ *   - registro desde varios hilos → RegistradorConcurrente (buffers por
+ *     hilo, LongAdder y una Instantanea inmutable publicada con CAS; los
+ *     lotes se copian al almacén con agregarLote, un lock por lote)
  * 
  * ============================================================================
- * 3. SISTEMA DE TURNOS (GREMIO) - Queue<SolicitudAtencion>
+ * 3. SISTEMA DE TURNOS (GREMIO) - Colas por clase de servicio + PriorityQueue
  * ============================================================================
  * 
- * ESTRUCTURA ELEGIDA: Queue (implementado con LinkedList)
- *   - FIFO: First In, First Out
- *   - offer(): añadir al final
- *   - poll(): extraer del inicio
+ * ESTRUCTURA ELEGIDA: una ArrayDeque por ClaseServicio (URGENCIA, MISION,
+ * COMERCIO, CONSULTA) + PriorityQueue de las clases no vacías
+ *   - Plazo de una solicitud: llegada + espera máxima de su clase
+ *   - La PriorityQueue ordena las clases por el plazo de su primera solicitud
  * 
- * COMPLEJIDAD:
- *   - Inserción (offer): O(1)
- *   - Extracción (poll): O(1)
- *   - Observación (peek): O(1)
+ * COMPLEJIDAD (k = número de clases):
+ *   - Solicitar: O(1), u O(log k) si la clase estaba vacía
+ *   - Atender: O(log k)
+ *   - Próximo: O(1)
+ *   - Estadísticas de espera por clase: O(1)
  * 
  * JUSTIFICACIÓN:
- *   ✓ Turnos son por naturaleza FIFO (primer llegado, primero atendido)
- *   ✓ Semántica clara: "enqueue" aventurero, "dequeue" para atender
- *   ✓ Operaciones O(1) en casos de uso más frecuentes
- *   ✓ Garantiza orden justo y transparente
- *   ✓ Imposible saltarse turnos por accidente
+ *   ✓ Dentro de una clase sigue siendo FIFO (misma espera máxima para todos)
+ *   ✓ Las urgencias tienen plazos cortos y pasan delante
+ *   ✓ Envejecimiento: una consulta que supera su espera máxima adelanta a las
+ *     urgencias que llegan después, así que ninguna clase se queda sin turno
+ *   ✓ Los plazos no cambian tras encolar: no hay que recalcular prioridades
+ *   ✓ Espera media y máxima por clase para vigilar la atención
  * 
  * ALTERNATIVAS RECHAZADAS:
+ *   ✗ Una única Queue FIFO: el tipo de servicio no influye en el turno
+ *   ✗ PriorityQueue de solicitudes: O(log n) y sin FIFO entre iguales
+ *   ✗ Prioridad estricta por clase: las consultas podrían no atenderse nunca
  *   ✗ Stack: LIFO, incorrecto (último sería primero)
- *   ✗ LinkedList: Menos clara semánticamente, requiere más cuidado
- *   ✗ PriorityQueue: Innecesaria, el turno es temporal, no por prioridad
- *   ✗ ArrayList: O(n) para dequeue (eliminar del inicio)
  * 
  * CASOS DE USO:
- *   - gremio.solicitarAtencion("Angelo", "Reparación") → O(1)
- *   - gremio.atenderSiguiente() → O(1)
+ *   - gremio.solicitarAtencion("Angelo", "Reparación") → COMERCIO, O(1)
+ *   - gremio.atenderSiguiente() → O(log k)
  *   - gremio.obtenerProximo() → O(1)
- *   - gremio.obtenerNumeroEnCola() → O(1)
+ *   - gremio.obtenerEsperaMedia(ClaseServicio.CONSULTA) → O(1)
  * 
  * ============================================================================
- * 4. REGISTRO DE AVENTUREROS - HashSet<String>
+ * 4. REGISTRO DE AVENTUREROS - Trie comprimido sobre bytes UTF-8
  * ============================================================================
  * 
- * ESTRUCTURA ELEGIDA: HashSet<String>
+ * ESTRUCTURA ELEGIDA: trie radix en arrays paralelos
+ *   - byte[] etiquetas: fragmentos de nombre de todas las aristas
+ *   - long[] etiqueta: posición | longitud | terminal de cada nodo
+ *   - int[] primerHijo, int[] hermano: hijos ordenados por primer byte
  * 
- * COMPLEJIDAD:
- *   - Inserción (add): O(1)
- *   - Búsqueda (contains): O(1)
- *   - Eliminación (remove): O(1)
- *   - Iteración: O(n)
+ * COMPLEJIDAD (L = longitud del nombre en bytes):
+ *   - Inserción: O(L)
+ *   - Búsqueda: O(L)
+ *   - Eliminación: O(L)
+ *   - Enumerar por prefijo: O(L + tamaño del subárbol)
+ *   - Nombres a distancia <= k: O(nodos visitados · L), podando las ramas
+ *     cuya fila de Levenshtein ya supera k
  * 
  * JUSTIFICACIÓN:
  *   ✓ Garantiza unicidad (no hay aventureros duplicados)
- *   ✓ Búsquedas rápidas: "¿está registrado Angelo?" → O(1)
- *   ✓ No requiere ordenamiento
- *   ✓ Perfecto para verificaciones de membresía
+ *   ✓ Los prefijos comunes se guardan una vez y no hay un objeto por
+ *     nodo: ~35 bytes por nombre frente a ~100 del HashSet con su String
+ *   ✓ Autocompletar por prefijo en orden alfabético
+ *   ✓ Búsqueda aproximada sin recorrer todo el registro: los prefijos
+ *     comunes comparten filas de Levenshtein (autómata simulado sobre el trie)
  *   ✓ Imposible registrar el mismo aventurero dos veces
  * 
  * ALTERNATIVAS RECHAZADAS:
- *   ✗ ArrayList: Permitiría duplicados, búsqueda O(n)
- *   ✗ TreeSet: Ordenamiento innecesario O(log n)
- *   ✗ HashMap: Overkill si solo necesitamos nombres
- *   ✗ LinkedHashSet: Mantenimiento de orden innecesario
+ *   ✗ HashSet: solo búsqueda exacta, ~50-80 bytes de sobrecarga por nombre
+ *   ✗ TreeSet: prefijos posibles, pero aún más memoria por entrada
+ *   ✗ Trie con objeto y array de 256 hijos por nodo: memoria desmedida
+ *   ✗ FST mínimo: más compacto, pero no admite altas y bajas
+ *   ✗ BK-tree para la búsqueda aproximada: un segundo índice que mantener
+ *     en cada alta y baja, y sin compartir cálculo entre prefijos comunes
  * 
  * CASOS DE USO:
- *   - registro.registrar("Angelo") → O(1)
- *   - registro.estaRegistrado("Jessica") → O(1)
+ *   - registro.registrar("Angelo") → O(L)
+ *   - registro.estaRegistrado("Jessica") → O(L)
+ *   - registro.buscarPorPrefijo("Jes", 10) → autocompletar
+ *   - registro.buscarSimilares("Jesica", 1) → ["Jessica"] (errores de tecleo)
  *   - registro.obtenerTotal() → O(1)
- *   - mostrar todos → O(n)
+ *   - mostrar todos → O(n), en orden alfabético
+ *   - registro más grande que el heap → RegistroAventurerosDisco: tabla
+ *     ordenada mapeada en memoria + FiltroBloom guardado en la tabla (los
+ *     negativos casi nunca leen disco; abrir no recalcula hashes) + buffer
+ *     de altas/bajas que se fusiona periódicamente
  * 
  * ============================================================================
- * 5. SISTEMA UNDO/REDO - Stack<Accion> (dos stacks)
+ * 5. SISTEMA UNDO/REDO - Árbol de acciones (deltas por nodo, acotado)
  * ============================================================================
  * 
- * ESTRUCTURA ELEGIDA: Dos Stack<Accion>
- *   - pilaUndo: acciones realizadas
- *   - pilaRedo: acciones deshacidas
+ * ESTRUCTURA ELEGIDA: Árbol de SistemaUndoRedo.Nodo
+ *   - Cada nodo guarda la Accion (lista de cambios) respecto a su padre
+ *   - actual: estado en el que está la batalla
+ *   - hijoPreferido: rama por la que baja "Rehacer"
+ *   - Límite configurable de acciones y de memoria estimada (bytes)
  * 
  * COMPLEJIDAD:
- *   - push: O(1)
- *   - pop: O(1)
- *   - peek: O(1)
+ *   - registrar acción: O(1) (nuevo hijo del nodo actual)
+ *   - deshacer / rehacer: O(cambios de la acción)
+ *   - ir a cualquier nodo: O(profundidad) vía ancestro común
+ *   - poda al superar límites: O(n log n) solo cuando hay presión
  * 
  * JUSTIFICACIÓN:
- *   ✓ Stack es la estructura clásica para undo/redo
- *   ✓ LIFO es semánticamente correcto:
- *     - Deshacer la ÚLTIMA acción realizada
- *     - Rehacer la ÚLTIMA acción deshecha
- *   ✓ O(1) en todas las operaciones críticas
- *   ✓ Fácil de visualizar el comportamiento
+ *   ✓ Conserva las líneas alternativas: actuar tras deshacer crea una rama
+ *     en lugar de borrar el redo
+ *   ✓ Cada rama cuesta solo los cambios que produjo (deltas, no estados)
+ *   ✓ La poda elimina primero las ramas frías (menos usadas recientemente)
+ *     y después las acciones más antiguas de la línea activa
  * 
  * ALTERNATIVAS RECHAZADAS:
+ *   ✗ Dos pilas (ArrayDeque/Stack): una acción nueva descarta el redo
+ *   ✗ Estado completo por nodo: memoria O(personajes) por acción
  *   ✗ Queue: FIFO es incorrecto, desharíamos la primera acción
- *   ✗ LinkedList: Menos clara, requiere más cuidado
- *   ✗ ArrayList: Acceso rápido pero semántica confusa
- *   ✗ Deque: Innecesariamente flexible
  * 
  * CASOS DE USO:
- *   - Acción ataque realizada → push a pilaUndo
- *   - Usuario pulsa "Deshacer" → pop pilaUndo, push pilaRedo
- *   - Usuario pulsa "Rehacer" → pop pilaRedo, push pilaUndo
- *   - Realizar nueva acción → pop pilaUndo, limpia pilaRedo
+ *   - Acción ataque realizada → nuevo hijo del nodo actual
+ *   - Usuario pulsa "Deshacer" → revertir cambios y subir al padre
+ *   - Usuario pulsa "Rehacer" → aplicar cambios del hijo preferido
+ *   - Realizar nueva acción tras deshacer → nueva rama (la anterior se conserva)
  * 
  * ============================================================================
  * RESUMEN: Tabla comparativa de selecciones
@@ -170,11 +208,11 @@
  * 
  * Funcionalidad          | Estructura   | Por qué
  * ─────────────────────────────────────────────────────────────────────────
- * Inventario (búsqueda)  | HashMap      | O(1) en búsquedas frecuentes
- * Historial (inserción)  | LinkedList   | O(1) en inserción al final
- * Turnos (FIFO)          | Queue        | Semántica FIFO nativa
- * Aventureros (unicidad) | HashSet      | Garantiza no-duplicados O(1)
- * Undo/Redo (LIFO)       | Stack        | Semántica LIFO nativa
+ * Inventario (búsqueda)  | short[]+bits | O(1) por id, sin boxing
+ * Historial (inserción)  | ArrayList    | O(1) al final, páginas por índice
+ * Turnos (por clase)     | Deque + PQ   | FIFO por clase, plazos y envejecimiento
+ * Aventureros (unicidad) | Trie radix   | O(L), prefijos, poca memoria
+ * Undo/Redo (ramas)      | Árbol deltas | Ramas acotadas por memoria
  * 
  * ============================================================================
  * CONCLUSIÓN
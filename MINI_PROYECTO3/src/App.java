@@ -74,6 +74,12 @@ public class App {
         } else if (opcion == 2) {
             vista = new VistaGUI();
         }
+
+        // El modelo no imprime: si el catálogo de ítems tuvo problemas, lo muestra la vista
+        String avisoCatalogo = GestorObjetos.obtenerAvisoCarga();
+        if (avisoCatalogo != null) {
+            vista.mostrarMensaje(avisoCatalogo);
+        }
         
         
         // Creación del equipo de héroes con diferentes tipos y atributos
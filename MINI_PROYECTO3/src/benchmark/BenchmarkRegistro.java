@@ -0,0 +1,117 @@
+package benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import modelo.RegistroAventureros;
+import modelo.RegistroAventurerosConcurrente;
+
+/**
+ * Benchmark de registro de aventureros desde varios hilos.
+ *
+ * Compara RegistroAventureros protegido con un único lock (synchronized)
+ * frente a RegistroAventurerosConcurrente. Cada hilo registra su tramo de
+ * nombres más un tramo compartido con todos los demás hilos, de modo que
+ * también mide los registros duplicados que compiten entre sí.
+ *
+ * Uso: java benchmark.BenchmarkRegistro [nombresPorHilo] [rondas]
+ *
+ * Además del tiempo comprueba que cada nombre se registró exactamente una
+ * vez (suma de los true devueltos == total del registro).
+ */
+public class BenchmarkRegistro {
+
+    private interface Registro {
+        boolean registrar(String nombre);
+        long total();
+    }
+
+    private static final class RegistroBloqueado implements Registro {
+        private final RegistroAventureros registro = new RegistroAventureros();
+
+        @Override
+        public synchronized boolean registrar(String nombre) {
+            return registro.registrar(nombre);
+        }
+
+        @Override
+        public synchronized long total() {
+            return registro.obtenerTotal();
+        }
+    }
+
+    private static final class RegistroSinBloqueo implements Registro {
+        private final RegistroAventurerosConcurrente registro = new RegistroAventurerosConcurrente();
+
+        @Override
+        public boolean registrar(String nombre) {
+            return registro.registrar(nombre);
+        }
+
+        @Override
+        public long total() {
+            return registro.obtenerTotal();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int nombresPorHilo = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rondas = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int maxHilos = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%-8s %-12s %12s %14s %10s%n", "Hilos", "Registro", "ms", "registros/s", "únicos");
+        for (int hilos = 1; hilos <= maxHilos; hilos *= 2) {
+            for (int ronda = 0; ronda < rondas; ronda++) {
+                boolean medir = ronda == rondas - 1;   // Las anteriores calientan el JIT
+                ejecutar("synchronized", new RegistroBloqueado(), hilos, nombresPorHilo, medir);
+                ejecutar("concurrente", new RegistroSinBloqueo(), hilos, nombresPorHilo, medir);
+            }
+        }
+    }
+
+    private static void ejecutar(String etiqueta, Registro registro, int hilos, int nombresPorHilo,
+                                 boolean imprimir) throws InterruptedException {
+        int compartidos = nombresPorHilo / 4;
+        CountDownLatch salida = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(hilos);
+        AtomicLong ganados = new AtomicLong();
+
+        for (int h = 0; h < hilos; h++) {
+            final int hilo = h;
+            Thread t = new Thread(() -> {
+                try {
+                    salida.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long propios = 0;
+                for (int i = 0; i < nombresPorHilo; i++) {
+                    // Los primeros "compartidos" nombres son iguales en todos los hilos
+                    String nombre = i < compartidos ? "Comun_" + i : "Heroe_" + hilo + "_" + i;
+                    if (registro.registrar(nombre)) propios++;
+                }
+                ganados.addAndGet(propios);
+                fin.countDown();
+            });
+            t.start();
+        }
+
+        long inicio = System.nanoTime();
+        salida.countDown();
+        fin.await();
+        long nanos = System.nanoTime() - inicio;
+
+        long esperados = compartidos + (long) hilos * (nombresPorHilo - compartidos);
+        if (ganados.get() != registro.total() || registro.total() != esperados) {
+            throw new IllegalStateException(etiqueta + ": registros duplicados o perdidos ("
+                + ganados.get() + " ganados, " + registro.total() + " en el registro, "
+                + esperados + " esperados)");
+        }
+        if (imprimir) {
+            long operaciones = (long) hilos * nombresPorHilo;
+            System.out.printf("%-8d %-12s %12.1f %14.0f %10d%n", hilos, etiqueta, nanos / 1e6,
+                operaciones / (nanos / 1e9), registro.total());
+        }
+    }
+}
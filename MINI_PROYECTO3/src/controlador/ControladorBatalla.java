@@ -23,8 +23,13 @@ public class ControladorBatalla{
     private Heroe[] heroes;
     private Enemigo[] enemigos;
     private VistaJuego vista;
-    // Sistema de undo/redo basado en dos pilas (undo y redo)
+    // Sistema de undo/redo basado en un árbol de acciones
     private final SistemaUndoRedo undoRedo = new SistemaUndoRedo();
+    // Batallas terminadas y distribuciones de turnos, daño y golpes para derrotar
+    private final HistorialBatallas historial = new HistorialBatallas();
+    private final EstadisticasCombate estadisticas = new EstadisticasCombate();
+    // Traza comprimida de hp/mp por ronda de la batalla en curso
+    private TrazaBatalla.Grabador grabadorTraza;
     /**
      * Constructor del controlador de batalla.
      * 
@@ -38,6 +43,17 @@ public class ControladorBatalla{
         this.enemigos = enemigos;
         this.vista = vista;
         this.batalla = batalla;
+        conectarRegistroCambios();
+    }
+
+    /**
+     * Conecta todos los personajes al sistema de undo/redo para que
+     * informen cada cambio de estado que produzcan sus acciones.
+     */
+    private void conectarRegistroCambios() {
+        undoRedo.setEntidades(batalla.getEntidades());
+        for (Heroe h : heroes) h.setRegistroCambios(undoRedo);
+        for (Enemigo e : enemigos) e.setRegistroCambios(undoRedo);
     }
 
 
@@ -107,6 +123,12 @@ public class ControladorBatalla{
         vista.mostrarEnemigos(enemigos);
         vista.mostrarMensaje("El orden de ataque es: " + ordenAtaque());
 
+        // Versión inicial del estado para poder volver a cualquier ronda
+        undoRedo.capturarTurno(heroes, enemigos);
+        if (batalla.getTurnoActual() == 0) batalla.iniciar();
+        grabadorTraza = new TrazaBatalla.Grabador(heroes, enemigos);
+        grabadorTraza.capturarTurno();
+
         // Bucle principal: continúa mientras ambos equipos tengan miembros vivos
         while (hayHeroesVivos() && hayEnemigosVivos()) {
 
@@ -117,6 +139,7 @@ public class ControladorBatalla{
 
                     // Verificar victoria después de cada acción del héroe
                     if (!hayEnemigosVivos()) {
+                        finalizarBatalla(true);
                         vista.mostrarVictoria();
                         return;
                     }
@@ -130,11 +153,54 @@ public class ControladorBatalla{
 
                     // Verificar derrota después de cada acción del enemigo
                     if (!hayHeroesVivos()) {
+                        finalizarBatalla(false);
                         vista.mostrarDerrota();
                         return;
                     }
                 }
             }
+
+            // Guardar la versión del estado al terminar la ronda
+            undoRedo.capturarTurno(heroes, enemigos);
+            grabadorTraza.capturarTurno();
+            batalla.siguienteTurno();
+        }
+    }
+
+    /**
+     * Registra el resultado de la batalla en el historial y en las estadísticas.
+     * 
+     * @param victoriaHeroes true si ganaron los héroes
+     */
+    private void finalizarBatalla(boolean victoriaHeroes) {
+        batalla.finalizar();
+        String[] nombres = new String[heroes.length];
+        for (int i = 0; i < heroes.length; i++) nombres[i] = heroes[i].getNombre();
+
+        // Muestra final con el estado en que terminó la batalla
+        grabadorTraza.capturarTurno();
+        historial.registrarBatalla(victoriaHeroes, batalla.getTurnoActual(), nombres, grabadorTraza.finalizar());
+        estadisticas.registrarFinBatalla(batalla.getTurnoActual());
+        vista.mostrarMensaje(estadisticas.toString());
+
+        if (victoriaHeroes) repartirBotin();
+    }
+
+    /**
+     * Sortea el botín de cada enemigo derrotado y lo entrega a los héroes.
+     */
+    private void repartirBotin() {
+        for (Enemigo enemigo : enemigos) {
+            int id = enemigo.getTablaBotin().sortear();
+            Item item = GestorObjetos.obtenerItem(id);
+            if (item == null) continue;   // Sin botín (o ítem retirado del catálogo)
+
+            Heroe receptor = TablaBotin.entregar(id, heroes);
+            if (receptor != null) {
+                vista.mostrarMensaje(enemigo.getNombre() + " soltó " + item.getNombre() + " → " + receptor.getNombre());
+            } else {
+                vista.mostrarMensaje(enemigo.getNombre() + " soltó " + item.getNombre() + ", pero no hay sitio en los inventarios");
+            }
         }
     }
 
@@ -166,6 +232,10 @@ public class ControladorBatalla{
             // Actualizar referencias a los equipos cargados
             this.heroes = batalla.getEquipoHeroes();
             this.enemigos = batalla.getEquipoEnemigos();
+
+            // El estado cargado no corresponde al historial de acciones anterior
+            undoRedo.limpiar();
+            conectarRegistroCambios();
             
             // Actualizar la vista con los datos cargados
             vista.mostrarHeroes(this.heroes);
@@ -211,10 +281,6 @@ public class ControladorBatalla{
         switch (accion) {
             case 1: // Atacar
             try {
-                // Capturar estado previo del héroe y del objetivo para permitir undo
-                int hpPrev = heroe.getHp();
-                int mpPrev = heroe.getMp();
-
                 // Seleccionar objetivo
                 int idx = vista.seleccionarEnemigo(enemigos);
                 if (idx < 0 || idx >= enemigos.length) {
@@ -222,25 +288,13 @@ public class ControladorBatalla{
                 }
 
                 Enemigo objetivo = enemigos[idx];
-                // Capturar HP/MP del objetivo ANTES de atacar
-                int hpObjetivoPrev = objetivo.getHp();
-                int mpObjetivoPrev = objetivo.getMp();
-                
-                heroe.atacar(objetivo);
 
-                // Registrar acción en la pila de undo/redo con info del objetivo
-                undoRedo.registrarAccion(
-                    new SistemaUndoRedo.Accion(
-                        "Atacó a " + objetivo.getNombre(),
-                        heroe.getNombre(),
-                        hpPrev,
-                        mpPrev,
-                        SistemaUndoRedo.Accion.TipoAccion.ATAQUE,
-                        objetivo.getNombre(),
-                        hpObjetivoPrev,
-                        mpObjetivoPrev
-                    )
-                );
+                // Agrupar los cambios que produzca el ataque en una acción deshacible
+                undoRedo.iniciarAccion(heroe, SistemaUndoRedo.Accion.TipoAccion.ATAQUE);
+                int hpAntes = objetivo.getHp();
+                heroe.atacar(objetivo);
+                estadisticas.registrarGolpe(objetivo, hpAntes);
+                undoRedo.confirmarAccion("Atacó a " + objetivo.getNombre());
 
                 vista.mostrarMensaje(heroe.getNombre() + " ataco a " + objetivo.getNombre());
                 vista.actualizarBarras();
@@ -254,10 +308,6 @@ public class ControladorBatalla{
 
             case 2: // Habilidad
                 try {
-                    // Capturar estado previo del héroe y del objetivo para permitir undo
-                    int hpPrev = heroe.getHp();
-                    int mpPrev = heroe.getMp();
-
                     // Seleccionar objetivo para la habilidad
                     int idx = vista.seleccionarEnemigo(enemigos);
                     if (idx < 0 || idx >= enemigos.length) {
@@ -265,10 +315,7 @@ public class ControladorBatalla{
                     }
 
                     Enemigo objetivo = enemigos[idx];
-                    // Capturar HP/MP del objetivo ANTES de usar habilidad
-                    int hpObjetivoPrev = objetivo.getHp();
-                    int mpObjetivoPrev = objetivo.getMp();
-                    
+
                     // Verificar que tenga MP suficiente para habilidad (ejemplo: 20 MP)
                     if (heroe.getMp() < 20) {
                         vista.mostrarMensaje("No tienes MP suficiente para usar habilidad.");
@@ -278,6 +325,9 @@ public class ControladorBatalla{
                     // Ejecutar habilidad según tipo de héroe
                     boolean exito = false;
                     String descripcionHabilidad = "";
+
+                    // Agrupar los cambios que produzca la habilidad en una acción deshacible
+                    undoRedo.iniciarAccion(heroe, SistemaUndoRedo.Accion.TipoAccion.HECHIZO);
                     
                     switch (heroe.getTipo()) {
                         case MAGO:
@@ -296,23 +346,12 @@ public class ControladorBatalla{
                     }
 
                     if (exito) {
-                        // Registrar acción en la pila de undo/redo con info del objetivo
-                        undoRedo.registrarAccion(
-                            new SistemaUndoRedo.Accion(
-                                descripcionHabilidad,
-                                heroe.getNombre(),
-                                hpPrev,
-                                mpPrev,
-                                SistemaUndoRedo.Accion.TipoAccion.HECHIZO,
-                                objetivo.getNombre(),
-                                hpObjetivoPrev,
-                                mpObjetivoPrev
-                            )
-                        );
+                        undoRedo.confirmarAccion(descripcionHabilidad);
 
                         vista.mostrarMensaje(heroe.getNombre() + " usó habilidad: " + descripcionHabilidad);
                         vista.actualizarBarras();
                     } else {
+                        undoRedo.cancelarAccion();
                         vista.mostrarMensaje("No se pudo ejecutar la habilidad.");
                     }
 
@@ -334,6 +373,8 @@ public class ControladorBatalla{
             case 4: // Cargar partida
                 try {
                     batalla.cargarpartida("save.txt");
+                    undoRedo.limpiar();
+                    conectarRegistroCambios();
                     vista.actualizarBarras();
                     vista.mostrarMensaje("Partida cargada correctamente");
 
@@ -344,10 +385,6 @@ public class ControladorBatalla{
 
             case 5: // Usar Item
                 try {
-                    // Capturar estado previo del héroe
-                    int hpPrev = heroe.getHp();
-                    int mpPrev = heroe.getMp();
-
                     // Mostrar inventario y permitir seleccionar item
                     vista.mostrarInventario(heroe);
                     String nombreItemSeleccionado = vista.seleccionarItem(heroe);
@@ -364,43 +401,37 @@ public class ControladorBatalla{
                         break;
                     }
 
-                    // Verificar que el héroe tiene el item
-                    if (!heroe.getInventario().contiene(nombreItemSeleccionado)) {
+                    // Verificar que el héroe tiene el item (por id: sin volver a buscar el nombre)
+                    int idItem = item.getId();
+                    Inventario inventario = heroe.getInventario();
+                    if (!inventario.contiene(idItem)) {
                         vista.mostrarMensaje("Error: No tienes este item");
                         break;
                     }
 
-                    // Capturar cantidad anterior del item para undo/redo
-                    int cantidadAnterior = heroe.getInventario().obtenerCantidad(nombreItemSeleccionado);
+                    // Capturar cantidad anterior del item para la descripción
+                    int cantidadAnterior = inventario.obtenerCantidad(idItem);
+
+                    // Agrupar el efecto y el consumo del item en una acción deshacible
+                    undoRedo.iniciarAccion(heroe, SistemaUndoRedo.Accion.TipoAccion.OBJETO);
 
                     // Aplicar efecto del item
                     boolean efectoAplicado = aplicarEfectoItem(heroe, item);
 
                     if (efectoAplicado) {
-                        // Consumir el item del inventario
-                        heroe.getInventario().usarItem(nombreItemSeleccionado, 1);
-
-                        // Registrar en undo/redo con información del item
-                        undoRedo.registrarAccion(
-                            new SistemaUndoRedo.Accion(
-                                "Usó " + nombreItemSeleccionado + " (x" + cantidadAnterior + ")",
-                                heroe.getNombre(),
-                                hpPrev,
-                                mpPrev,
-                                SistemaUndoRedo.Accion.TipoAccion.OBJETO,
-                                nombreItemSeleccionado, // Nombre del item como "objetivo"
-                                cantidadAnterior,      // Cantidad anterior del item
-                                cantidadAnterior - 1   // Cantidad después de usar
-                            )
-                        );
+                        // Consumir el item del inventario (el equipo ya lo consumió al colocarse)
+                        if (Equipo.Ranura.de(item.getTipo()) == null) inventario.usarItem(idItem, 1);
+                        undoRedo.confirmarAccion("Usó " + nombreItemSeleccionado + " (x" + cantidadAnterior + ")");
 
                         vista.mostrarMensaje(heroe.getNombre() + " usó " + nombreItemSeleccionado);
                         vista.actualizarBarras();
                     } else {
+                        undoRedo.cancelarAccion();
                         vista.mostrarMensaje("No se pudo usar el item");
                     }
 
                 } catch (Exception e) {
+                    undoRedo.cancelarAccion();
                     vista.mostrarMensaje("Error al usar item: " + e.getMessage());
                 }
                 break;
@@ -420,7 +451,9 @@ public class ControladorBatalla{
      */
     private void turnoEnemigo(Enemigo enemigo) {
         Heroe objetivo = primerHeroeVivo();
+        int hpAntes = objetivo.getHp();
         enemigo.atacar(objetivo);
+        estadisticas.registrarGolpe(objetivo, hpAntes);
         vista.mostrarMensaje(enemigo.getNombre() + " atacó a " + objetivo.getNombre());
     }
 
@@ -469,120 +502,50 @@ public class ControladorBatalla{
     /**METODOS UNDO REDO */
 
     /**
-     * Busca un héroe por nombre.
-     * @param nombre Nombre del héroe a buscar
-     * @return El héroe si existe, null en caso contrario
+     * Deshace la última acción del jugador.
+     * El sistema de undo/redo revierte los cambios registrados por la acción.
      */
-    private Heroe buscarHeroe(String nombre) {
-        for (Heroe h : heroes) {
-            if (h.getNombre().equals(nombre)) {
-                return h;
-            }
+    public void deshacer(){
+        SistemaUndoRedo.Accion acc = undoRedo.deshacer();
+        if (acc != null) {
+            vista.actualizarBarras();
+            vista.mostrarMensaje("⟲ Accion deshecha: " + acc.getDescripcion());
+        } else {
+            vista.mostrarMensaje("No hay acciones para deshacer");
         }
-        return null;
     }
 
     /**
-     * Busca un enemigo por nombre.
-     * @param nombre Nombre del enemigo a buscar
-     * @return El enemigo si existe, null en caso contrario
+     * Rehace la última acción deshecha.
+     * El sistema de undo/redo vuelve a aplicar los cambios registrados por la acción.
      */
-    private Enemigo buscarEnemigo(String nombre) {
-        for (Enemigo e : enemigos) {
-            if (e.getNombre().equals(nombre)) {
-                return e;
-            }
-        }
-        return null;
-    }
-
-    public void deshacer(){
-        if (undoRedo.puedeDeshacer()){
-            SistemaUndoRedo.Accion acc = undoRedo.deshacer();
-            
-            if (acc != null) {
-                // Restaurar HP/MP del actor (el que realizó la acción)
-                Personaje actor = buscarHeroe(acc.getPersonajeName());
-                if (actor == null) {
-                    actor = buscarEnemigo(acc.getPersonajeName());
-                }
-                
-                if (actor != null) {
-                    actor.setHp(acc.getHpAnterior());
-                    actor.setMp(acc.getMpAnterior());
-                }
-                
-                // Restaurar HP/MP del objetivo (el que fue afectado)
-                if (acc.getObjetivoName() != null && !acc.getObjetivoName().isEmpty()) {
-                    // Si es una acción de uso de item, restaurar el item al inventario
-                    if (acc.getTipo() == SistemaUndoRedo.Accion.TipoAccion.OBJETO) {
-                        Heroe heroActor = buscarHeroe(acc.getPersonajeName());
-                        if (heroActor != null) {
-                            // Restaurar la cantidad anterior del item
-                            heroActor.getInventario().agregarItem(acc.getObjetivoName(), 1);
-                        }
-                    } else {
-                        // Caso normal: restaurar HP/MP del objetivo (enemigo/aliado)
-                        Personaje objetivo = buscarHeroe(acc.getObjetivoName());
-                        if (objetivo == null) {
-                            objetivo = buscarEnemigo(acc.getObjetivoName());
-                        }
-                        
-                        if (objetivo != null) {
-                            objetivo.setHp(acc.getHpAnteriorObjetivo());
-                            objetivo.setMp(acc.getMpAnteriorObjetivo());
-                        }
-                    }
-                }
-                
-                vista.actualizarBarras();
-                vista.mostrarMensaje("⟲ Accion deshecha: " + acc.getDescripcion());
-            }
+    public void rehacer(){
+        SistemaUndoRedo.Accion acc = undoRedo.rehacer();
+        if (acc != null) {
+            vista.actualizarBarras();
+            vista.mostrarMensaje("⟳ Accion rehecha: " + acc.getDescripcion());
         } else {
-            vista.mostrarMensaje("No hay acciones para deshacer");
+            vista.mostrarMensaje("No hay acciones para rehacer");
         }
     }
 
-    public void rehacer(){
-        if (undoRedo.puedeRehacer()){
-            SistemaUndoRedo.Accion acc = undoRedo.rehacer();
-            
-            if (acc != null) {
-                // Restaurar HP/MP del actor (el que realizó la acción)
-                Personaje actor = buscarHeroe(acc.getPersonajeName());
-                if (actor == null) {
-                    actor = buscarEnemigo(acc.getPersonajeName());
-                }
-                
-                if (actor != null) {
-                    actor.setHp(acc.getHpAnterior());
-                    actor.setMp(acc.getMpAnterior());
-                }
-                
-                // Restaurar HP/MP del objetivo (el que fue afectado)
-                if (acc.getObjetivoName() != null && !acc.getObjetivoName().isEmpty()) {
-                    Personaje objetivo = buscarHeroe(acc.getObjetivoName());
-                    if (objetivo == null) {
-                        objetivo = buscarEnemigo(acc.getObjetivoName());
-                    }
-                    
-                    if (objetivo != null) {
-                        objetivo.setHp(acc.getHpAnteriorObjetivo());
-                        objetivo.setMp(acc.getMpAnteriorObjetivo());
-                    }
-                }
-                
-                vista.actualizarBarras();
-                vista.mostrarMensaje("⟳ Accion rehecha: " + acc.getDescripcion());
-            }
+    /**
+     * Vuelve al estado capturado al final de una ronda anterior.
+     * 
+     * @param turno Ronda a la que se quiere volver (0 = inicio de la batalla)
+     */
+    public void viajarATurno(int turno){
+        if (undoRedo.viajarATurno(turno)) {
+            vista.actualizarBarras();
+            vista.mostrarMensaje("⟲ Estado restaurado a la ronda " + turno);
         } else {
-            vista.mostrarMensaje("No hay acciones para rehacer");
+            vista.mostrarMensaje("No existe la ronda " + turno);
         }
     }
 
     /**
      * Verifica si hay acciones disponibles para deshacer.
-     * @return true si la pila de undo no está vacía
+     * @return true si hay acciones que deshacer
      */
     public boolean puedeDeshacer() {
         return undoRedo.puedeDeshacer();
@@ -590,7 +553,7 @@ public class ControladorBatalla{
 
     /**
      * Verifica si hay acciones disponibles para rehacer.
-     * @return true si la pila de redo no está vacía
+     * @return true si hay acciones que rehacer
      */
     public boolean puedeRehacer() {
         return undoRedo.puedeRehacer();
@@ -599,6 +562,8 @@ public class ControladorBatalla{
     /**
      * Aplica el efecto de un item al héroe.
      * Según el tipo de item, restaura HP, MP, o aplica buffs.
+     * Los ítems de equipo salen aquí del inventario; el resto los consume
+     * quien llama si el efecto se aplicó.
      * 
      * @param heroe Héroe que usa el item
      * @param item Item a aplicar
@@ -640,7 +605,9 @@ public class ControladorBatalla{
                         return false;
                     }
                     Enemigo objetivo = enemigos[idx];
-                    objetivo.setHp(Math.max(0, objetivo.getHp() - valor));
+                    int hpAntes = objetivo.getHp();
+                    objetivo.setHp(Math.max(0, hpAntes - valor));
+                    estadisticas.registrarGolpe(objetivo, hpAntes);
                     vista.mostrarMensaje("  ✓ " + heroe.getNombre() + " lanzó bomba a " + objetivo.getNombre() + " (" + valor + " daño)");
                     return true;
                 } catch (Exception e) {
@@ -651,8 +618,19 @@ public class ControladorBatalla{
             case ESPADA:
             case ESCUDO:
             case ARMADURA:
-                // Buffs de ataque/defensa (futuro: cuando se implemente sistema de buffs)
-                vista.mostrarMensaje("  ✓ " + heroe.getNombre() + " equipó " + item.getNombre());
+                // Equipar: el ítem sale del inventario antes de que vuelva el que
+                // había, así el hueco que deja (si era la última unidad) sirve al anterior
+                if (!heroe.getInventario().usarItem(item.getId(), 1)) return false;
+                Item anterior = heroe.equipar(item);
+                vista.mostrarMensaje("  ✓ " + heroe.getNombre() + " equipó " + item.getNombre()
+                    + " (ATK " + heroe.getAtaque() + ", DEF " + heroe.getDefensa() + ")");
+                if (anterior != null) {
+                    if (heroe.getInventario().agregarItem(anterior.getId(), 1)) {
+                        vista.mostrarMensaje("  " + anterior.getNombre() + " vuelve al inventario");
+                    } else {
+                        vista.mostrarMensaje("  " + anterior.getNombre() + " se descartó (inventario lleno)");
+                    }
+                }
                 return true;
 
             case HIELO:
@@ -663,7 +641,9 @@ public class ControladorBatalla{
                         return false;
                     }
                     Enemigo objetivo = enemigos[idx];
-                    objetivo.setHp(Math.max(0, objetivo.getHp() - valor));
+                    int hpAntes = objetivo.getHp();
+                    objetivo.setHp(Math.max(0, hpAntes - valor));
+                    estadisticas.registrarGolpe(objetivo, hpAntes);
                     vista.mostrarMensaje("  ✓ " + heroe.getNombre() + " lanzó bola de hielo a " + objetivo.getNombre() + " (" + valor + " daño)");
                     return true;
                 } catch (Exception e) {
@@ -676,6 +656,24 @@ public class ControladorBatalla{
         }
     }
 
+    /**
+     * Obtiene el historial de batallas terminadas.
+     * 
+     * @return Historial de batallas
+     */
+    public HistorialBatallas obtenerHistorial() {
+        return historial;
+    }
+
+    /**
+     * Obtiene las distribuciones de turnos, daño por golpe y golpes para derrotar.
+     * 
+     * @return Estadísticas de combate
+     */
+    public EstadisticasCombate obtenerEstadisticas() {
+        return estadisticas;
+    }
+
     /**
      * Inicializa la vista con este controlador y comienza la batalla.
      */
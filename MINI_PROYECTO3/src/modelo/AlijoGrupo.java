@@ -0,0 +1,222 @@
+package modelo;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Alijo compartido por todo el grupo: ítems que cualquier héroe (o cualquier
+ * sesión, si el juego se aloja en un servidor) puede depositar o retirar.
+ *
+ * ESTRUCTURA DE DATOS: AtomicIntegerArray indexado por id de ítem + franjas de locks
+ *   - cantidades[id]: unidades del ítem en el alijo
+ *   - franjas[id % NUMERO_FRANJAS]: lock que protege las escrituras de ese id
+ *
+ * JUSTIFICACIÓN:
+ * - Las lecturas (obtenerCantidad) no toman ningún lock
+ * - Dos operaciones sobre ítems de franjas distintas no compiten entre sí;
+ *   con 16 franjas y 64 ids cada lock cubre solo 4 ítems
+ * - Una transferencia de varios ítems toma las franjas implicadas en orden
+ *   ascendente (máscara de bits, sin reservar memoria): comprueba todo y
+ *   luego aplica todo, así que se aplica completa o no se aplica, y el orden
+ *   fijo impide interbloqueos
+ * - Si interviene el inventario de un héroe se toma primero su monitor y
+ *   después las franjas, siempre en ese orden
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - Un único lock para todo el alijo: todos los intercambios se serializan
+ * - Solo CAS por id: un intercambio de varios ítems dejaría ver estados
+ *   intermedios y habría que deshacer a mano los ítems ya aplicados
+ * - ConcurrentHashMap<String, Integer>: hash del nombre y boxing en cada operación
+ *
+ * Los métodos de Inventario se sincronizan sobre el propio inventario y el
+ * alijo mantiene ese monitor durante toda la transferencia: ningún otro
+ * cambio del inventario (combate, botín, equipo) se cuela entre la
+ * comprobación y la aplicación.
+ *
+ * Las transferencias cambian el inventario con establecerCantidad y no se
+ * informan al sistema de deshacer/rehacer del héroe: ese registro no es
+ * seguro entre hilos y pertenece a la sesión que controla al héroe, y
+ * deshacer un movimiento del alijo compartido crearía o perdería ítems del
+ * resto del grupo.
+ */
+public class AlijoGrupo {
+
+    public static final int NUMERO_FRANJAS = 16;
+    public static final int MAX_CANTIDAD_POR_ITEM = 9999;
+
+    private final AtomicIntegerArray cantidades = new AtomicIntegerArray(GestorObjetos.MAX_ITEMS_CATALOGO);
+    private final ReentrantLock[] franjas = new ReentrantLock[NUMERO_FRANJAS];
+
+    /**
+     * Constructor que inicializa un alijo vacío.
+     */
+    public AlijoGrupo() {
+        for (int i = 0; i < franjas.length; i++) franjas[i] = new ReentrantLock();
+    }
+
+    /**
+     * Deposita unidades de un ítem en el alijo.
+     *
+     * @param id Id de catálogo
+     * @param cantidad Unidades a depositar
+     * @return true si cabían (no se supera MAX_CANTIDAD_POR_ITEM)
+     */
+    public boolean depositar(int id, int cantidad) {
+        if (!idValido(id) || cantidad <= 0) return false;
+        ReentrantLock franja = franjas[id % NUMERO_FRANJAS];
+        franja.lock();
+        try {
+            int actual = cantidades.get(id);
+            if (actual + cantidad > MAX_CANTIDAD_POR_ITEM) return false;
+            cantidades.set(id, actual + cantidad);
+            return true;
+        } finally {
+            franja.unlock();
+        }
+    }
+
+    /**
+     * Retira unidades de un ítem del alijo.
+     *
+     * @param id Id de catálogo
+     * @param cantidad Unidades a retirar
+     * @return true si había suficientes
+     */
+    public boolean retirar(int id, int cantidad) {
+        if (!idValido(id) || cantidad <= 0) return false;
+        ReentrantLock franja = franjas[id % NUMERO_FRANJAS];
+        franja.lock();
+        try {
+            int actual = cantidades.get(id);
+            if (actual < cantidad) return false;
+            cantidades.set(id, actual - cantidad);
+            return true;
+        } finally {
+            franja.unlock();
+        }
+    }
+
+    /**
+     * Mueve varios ítems del inventario de un héroe al alijo.
+     * Se mueven todos o ninguno.
+     *
+     * @param heroe Héroe que deposita
+     * @param ids Ids de catálogo (sin repetir)
+     * @param unidades Unidades de cada id
+     * @return true si se movieron todos
+     */
+    public boolean depositarDesde(Heroe heroe, int[] ids, int[] unidades) {
+        int mascara = mascaraFranjas(ids, unidades);
+        Inventario inventario = heroe.getInventario();
+        synchronized (inventario) {
+            bloquear(mascara);
+            try {
+                for (int i = 0; i < ids.length; i++) {
+                    if (inventario.obtenerCantidad(ids[i]) < unidades[i]) return false;
+                    if (cantidades.get(ids[i]) + unidades[i] > MAX_CANTIDAD_POR_ITEM) return false;
+                }
+                for (int i = 0; i < ids.length; i++) {
+                    inventario.establecerCantidad(ids[i], inventario.obtenerCantidad(ids[i]) - unidades[i]);
+                    cantidades.addAndGet(ids[i], unidades[i]);
+                }
+                return true;
+            } finally {
+                desbloquear(mascara);
+            }
+        }
+    }
+
+    /**
+     * Mueve varios ítems del alijo al inventario de un héroe.
+     * Se mueven todos o ninguno, respetando los límites del inventario
+     * (5 ítems distintos y 99 unidades por ítem).
+     *
+     * @param heroe Héroe que retira
+     * @param ids Ids de catálogo (sin repetir)
+     * @param unidades Unidades de cada id
+     * @return true si se movieron todos
+     */
+    public boolean retirarHacia(Heroe heroe, int[] ids, int[] unidades) {
+        int mascara = mascaraFranjas(ids, unidades);
+        Inventario inventario = heroe.getInventario();
+        synchronized (inventario) {
+            bloquear(mascara);
+            try {
+                for (int i = 0; i < ids.length; i++) {
+                    if (cantidades.get(ids[i]) < unidades[i]) return false;
+                }
+                if (!inventario.admite(ids, unidades)) return false;
+                for (int i = 0; i < ids.length; i++) {
+                    cantidades.addAndGet(ids[i], -unidades[i]);
+                    // admite() ya comprobó los límites del inventario
+                    inventario.establecerCantidad(ids[i], inventario.obtenerCantidad(ids[i]) + unidades[i]);
+                }
+                return true;
+            } finally {
+                desbloquear(mascara);
+            }
+        }
+    }
+
+    /**
+     * Calcula qué franjas toca una transferencia y valida los argumentos.
+     *
+     * @return Bit f = la transferencia usa la franja f
+     */
+    private static int mascaraFranjas(int[] ids, int[] unidades) {
+        if (ids.length != unidades.length) {
+            throw new IllegalArgumentException("Se necesita una cantidad por ítem");
+        }
+        long vistos = 0;
+        int mascara = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (!idValido(ids[i]) || unidades[i] <= 0) {
+                throw new IllegalArgumentException("Ítem o cantidad no válidos: " + ids[i] + " x" + unidades[i]);
+            }
+            long bit = 1L << ids[i];
+            if ((vistos & bit) != 0) throw new IllegalArgumentException("Ítem repetido: " + ids[i]);
+            vistos |= bit;
+            mascara |= 1 << (ids[i] % NUMERO_FRANJAS);
+        }
+        return mascara;
+    }
+
+    // Toma las franjas en orden ascendente (orden global: sin interbloqueos)
+    private void bloquear(int mascara) {
+        for (int m = mascara; m != 0; m &= m - 1) {
+            franjas[Integer.numberOfTrailingZeros(m)].lock();
+        }
+    }
+
+    private void desbloquear(int mascara) {
+        for (int m = mascara; m != 0; m &= m - 1) {
+            franjas[Integer.numberOfTrailingZeros(m)].unlock();
+        }
+    }
+
+    private static boolean idValido(int id) {
+        return id >= 0 && id < GestorObjetos.MAX_ITEMS_CATALOGO;
+    }
+
+    /**
+     * Obtiene las unidades de un ítem en el alijo (sin bloquear).
+     *
+     * @param id Id de catálogo
+     * @return Unidades disponibles
+     */
+    public int obtenerCantidad(int id) {
+        return idValido(id) ? cantidades.get(id) : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("=== ALIJO DEL GRUPO ===\n");
+        for (int id = 0; id < cantidades.length(); id++) {
+            int cantidad = cantidades.get(id);
+            if (cantidad == 0) continue;
+            Item item = GestorObjetos.obtenerItem(id);
+            sb.append(item == null ? "#" + id : item.getNombre()).append(" x").append(cantidad).append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,388 @@
+package modelo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Almacén persistente de batallas en formato columnar y memoria mapeada.
+ *
+ * ESTRUCTURA DE DATOS: una columna (archivo mapeado) por atributo
+ *   - resultados.bin: 1 bit por batalla (victoria de los héroes)
+ *   - turnos.bin:     int por batalla
+ *   - fechas.bin:     long por batalla (milisegundos epoch)
+ *   - heroes.bin:     ids de DiccionarioNombres de todas las batallas, seguidos
+ *   - offsets.bin:    long por batalla con el final de sus héroes en heroes.bin
+ *   - meta.bin:       número de batallas y de héroes confirmados
+ *   - nombres.txt:    diccionario de nombres de héroes
+ *
+ * JUSTIFICACIÓN:
+ * - Un RegistroBatalla en el heap cuesta cientos de bytes (LocalDateTime,
+ *   String[]); en columnas una batalla ocupa ~29 bytes con 4 héroes
+ * - Un agregado (victorias, suma de turnos) recorre solo su columna de forma
+ *   secuencial, al ritmo de la memoria y sin crear objetos
+ * - Los archivos mapeados los gestiona el sistema operativo: sobreviven al
+ *   reinicio y no cuentan para el heap de Java
+ * - Cada columna se mapea en segmentos de tamaño fijo para superar el límite
+ *   de 2 GB de un MappedByteBuffer
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - Serializar la LinkedList: hay que reescribirla entera y cargarla al heap
+ * - Un archivo por filas (CSV): leer una columna obliga a parsear todas
+ * - Base de datos embebida: dependencia externa para un registro de solo anexar
+ *
+ * El almacén es de solo anexar. El contador de meta.bin se actualiza después
+ * de escribir las columnas, por lo que una escritura interrumpida no deja
+ * batallas a medias visibles.
+ *
+ * Solo agregar() y agregarLote() toman el lock del almacén. Las lecturas y los recorridos
+ * leen una vez el número de batallas confirmadas (volatile) y recorren las
+ * columnas sin lock, a la vez que se siguen añadiendo batallas.
+ */
+public class AlmacenColumnarBatallas implements Closeable {
+
+    /**
+     * Archivo mapeado en memoria por segmentos de tamaño fijo.
+     * Las posiciones son en bytes; los valores nunca cruzan un segmento
+     * porque el tamaño del segmento es múltiplo de 8.
+     *
+     * Solo el escritor (agregar, bajo el lock del almacén) añade segmentos.
+     * Se publican copiando el array en un campo volatile, así que los
+     * lectores acceden sin lock a cualquier posición ya confirmada.
+     */
+    private static final class Columna implements Closeable {
+        private static final int BITS_SEGMENTO = 24;             // 16 MB
+
+        private final FileChannel canal;
+        private final int bitsSegmento;
+        private final int mascara;
+        private volatile MappedByteBuffer[] segmentos = new MappedByteBuffer[0];
+
+        Columna(Path archivo) throws IOException {
+            this(archivo, BITS_SEGMENTO);
+        }
+
+        /**
+         * @param bitsSegmento log2 del tamaño de segmento (como mínimo 3)
+         */
+        Columna(Path archivo, int bitsSegmento) throws IOException {
+            this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.bitsSegmento = bitsSegmento;
+            this.mascara = (1 << bitsSegmento) - 1;
+        }
+
+        // Mapea (y extiende el archivo si hace falta) el segmento de una posición
+        private MappedByteBuffer segmento(long posicion) {
+            int indice = (int) (posicion >>> bitsSegmento);
+            MappedByteBuffer[] actuales = segmentos;
+            if (indice < actuales.length) return actuales[indice];
+            synchronized (this) {
+                MappedByteBuffer[] nuevos = Arrays.copyOf(segmentos, Math.max(indice + 1, segmentos.length));
+                try {
+                    for (int i = segmentos.length; i <= indice; i++) {
+                        nuevos[i] = canal.map(FileChannel.MapMode.READ_WRITE, (long) i << bitsSegmento, 1L << bitsSegmento);
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException("No se pudo mapear la columna", e);
+                }
+                segmentos = nuevos;
+                return nuevos[indice];
+            }
+        }
+
+        byte getByte(long posicion) { return segmento(posicion).get((int) (posicion & mascara)); }
+        int getInt(long posicion) { return segmento(posicion).getInt((int) (posicion & mascara)); }
+        long getLong(long posicion) { return segmento(posicion).getLong((int) (posicion & mascara)); }
+
+        void putByte(long posicion, byte valor) { segmento(posicion).put((int) (posicion & mascara), valor); }
+        void putInt(long posicion, int valor) { segmento(posicion).putInt((int) (posicion & mascara), valor); }
+        void putLong(long posicion, long valor) { segmento(posicion).putLong((int) (posicion & mascara), valor); }
+
+        /**
+         * Suma los int de un rango de posiciones segmento a segmento.
+         */
+        long sumarInts(long desde, long hasta) {
+            long total = 0;
+            while (desde < hasta) {
+                MappedByteBuffer seg = segmento(desde);
+                int inicio = (int) (desde & mascara);
+                int fin = (int) Math.min(inicio + (hasta - desde), (long) mascara + 1);
+                for (int p = inicio; p < fin; p += 4) total += seg.getInt(p);
+                desde += fin - inicio;
+            }
+            return total;
+        }
+
+        /**
+         * Cuenta los bits a 1 de un rango de bytes, de 8 en 8 bytes.
+         */
+        long contarBits(long desde, long hasta) {
+            long total = 0;
+            while (desde < hasta) {
+                MappedByteBuffer seg = segmento(desde);
+                int inicio = (int) (desde & mascara);
+                int fin = (int) Math.min(inicio + (hasta - desde), (long) mascara + 1);
+                int p = inicio;
+                for (; p + 8 <= fin; p += 8) total += Long.bitCount(seg.getLong(p));
+                for (; p < fin; p++) total += Integer.bitCount(seg.get(p) & 0xFF);
+                desde += fin - inicio;
+            }
+            return total;
+        }
+
+        void sincronizar() {
+            for (MappedByteBuffer s : segmentos) s.force();
+        }
+
+        @Override
+        public void close() throws IOException {
+            sincronizar();
+            segmentos = new MappedByteBuffer[0];
+            canal.close();
+        }
+    }
+
+    private final Columna resultados;
+    private final Columna turnos;
+    private final Columna fechas;
+    private final Columna heroes;
+    private final Columna offsets;
+    private final Columna meta;
+    private final DiccionarioNombres diccionario;
+
+    // Batallas confirmadas. Se escribe después de las columnas y los lectores
+    // lo leen antes que ellas: todo índice menor ya está completo
+    private volatile long numeroBatallas;
+    private long numeroHeroes;       // Ids de héroes confirmados en heroes.bin (solo escritor)
+
+    /**
+     * Abre (o crea) un almacén en un directorio.
+     *
+     * @param directorio Directorio donde viven los archivos de las columnas
+     * @throws IOException Si ocurre un error al abrir o mapear los archivos
+     */
+    public AlmacenColumnarBatallas(Path directorio) throws IOException {
+        Files.createDirectories(directorio);
+        this.resultados = new Columna(directorio.resolve("resultados.bin"));
+        this.turnos = new Columna(directorio.resolve("turnos.bin"));
+        this.fechas = new Columna(directorio.resolve("fechas.bin"));
+        this.heroes = new Columna(directorio.resolve("heroes.bin"));
+        this.offsets = new Columna(directorio.resolve("offsets.bin"));
+        this.meta = new Columna(directorio.resolve("meta.bin"), 4);     // 16 bytes: dos long
+        this.diccionario = new DiccionarioNombres(directorio.resolve("nombres.txt"));
+
+        this.numeroBatallas = meta.getLong(0);
+        this.numeroHeroes = meta.getLong(8);
+    }
+
+    /**
+     * Añade una batalla al final del almacén.
+     *
+     * @param victoriaHeroes true si ganaron los héroes
+     * @param turnosUsados Número de turnos que duró la batalla
+     * @param epochMillis Fecha de la batalla en milisegundos epoch
+     * @param nombresHeroes Nombres de los héroes participantes
+     * @return Índice de la batalla en el almacén
+     */
+    public synchronized long agregar(boolean victoriaHeroes, int turnosUsados, long epochMillis,
+                                     String[] nombresHeroes) {
+        long i = numeroBatallas;
+        long h = escribir(i, numeroHeroes, victoriaHeroes, turnosUsados, epochMillis, nombresHeroes);
+        confirmar(i + 1, h);
+        return i;
+    }
+
+    /**
+     * Añade un lote de batallas al final del almacén con una sola toma del
+     * lock y una sola confirmación en meta.bin. Los valores se copian de los
+     * arrays a las columnas sin crear objetos por batalla.
+     *
+     * @param victorias Resultado de cada batalla
+     * @param turnosUsados Turnos de cada batalla
+     * @param epochMillis Fecha de cada batalla en milisegundos epoch
+     * @param nombresHeroes Héroes de cada batalla
+     * @param n Número de batallas del lote (las n primeras posiciones)
+     * @return Índice de la primera batalla del lote en el almacén
+     */
+    public synchronized long agregarLote(boolean[] victorias, int[] turnosUsados, long[] epochMillis,
+                                         String[][] nombresHeroes, int n) {
+        long primera = numeroBatallas;
+        long h = numeroHeroes;
+        for (int k = 0; k < n; k++) {
+            h = escribir(primera + k, h, victorias[k], turnosUsados[k], epochMillis[k], nombresHeroes[k]);
+        }
+        confirmar(primera + n, h);
+        return primera;
+    }
+
+    // Escribe una batalla en las columnas sin confirmarla; devuelve el nuevo final de heroes.bin
+    private long escribir(long i, long h, boolean victoriaHeroes, int turnosUsados, long epochMillis,
+                          String[] nombresHeroes) {
+        // Bit de resultado (el byte puede compartirse con batallas anteriores)
+        byte b = resultados.getByte(i >>> 3);
+        int bit = 1 << (int) (i & 7);
+        resultados.putByte(i >>> 3, (byte) (victoriaHeroes ? (b | bit) : (b & ~bit)));
+
+        turnos.putInt(i * 4, turnosUsados);
+        fechas.putLong(i * 8, epochMillis);
+
+        for (String nombre : nombresHeroes) {
+            heroes.putInt(h * 4, diccionario.obtenerId(nombre));
+            h++;
+        }
+        offsets.putLong(i * 8, h);
+        return h;
+    }
+
+    // Confirmar: a partir de aquí las batallas son visibles tras un reinicio
+    private void confirmar(long batallas, long heroesEscritos) {
+        numeroHeroes = heroesEscritos;
+        numeroBatallas = batallas;
+        meta.putLong(8, numeroHeroes);
+        meta.putLong(0, numeroBatallas);
+    }
+
+    /**
+     * Obtiene el número de batallas guardadas.
+     *
+     * @return Cantidad de batallas
+     */
+    public long tamaño() {
+        return numeroBatallas;
+    }
+
+    public boolean esVictoria(long indice) {
+        comprobarIndice(indice);
+        return (resultados.getByte(indice >>> 3) & (1 << (int) (indice & 7))) != 0;
+    }
+
+    public int obtenerTurnos(long indice) {
+        comprobarIndice(indice);
+        return turnos.getInt(indice * 4);
+    }
+
+    public long obtenerFecha(long indice) {
+        comprobarIndice(indice);
+        return fechas.getLong(indice * 8);
+    }
+
+    /**
+     * Obtiene los ids (del diccionario) de los héroes de una batalla.
+     *
+     * @param indice Índice de la batalla
+     * @return Ids de los héroes participantes
+     */
+    public int[] obtenerIdsHeroes(long indice) {
+        comprobarIndice(indice);
+        long inicio = indice == 0 ? 0 : offsets.getLong((indice - 1) * 8);
+        long fin = offsets.getLong(indice * 8);
+        int[] ids = new int[(int) (fin - inicio)];
+        for (int k = 0; k < ids.length; k++) {
+            ids[k] = heroes.getInt((inicio + k) * 4);
+        }
+        return ids;
+    }
+
+    /**
+     * Obtiene los nombres de los héroes de una batalla.
+     *
+     * @param indice Índice de la batalla
+     * @return Nombres de los héroes participantes
+     */
+    public String[] obtenerNombresHeroes(long indice) {
+        int[] ids = obtenerIdsHeroes(indice);
+        String[] nombres = new String[ids.length];
+        for (int k = 0; k < ids.length; k++) {
+            nombres[k] = diccionario.obtenerNombre(ids[k]);
+        }
+        return nombres;
+    }
+
+    /**
+     * Cuenta las victorias en un rango de batallas recorriendo solo la
+     * columna de resultados (8 batallas por byte con bitCount).
+     *
+     * @param desde Índice inicial (incluido)
+     * @param hasta Índice final (excluido)
+     * @return Victorias de los héroes en el rango
+     */
+    public long contarVictorias(long desde, long hasta) {
+        desde = Math.max(0, desde);
+        hasta = Math.min(hasta, numeroBatallas);    // Una lectura del volatile
+        long total = 0;
+        long i = desde;
+        // Bits sueltos hasta alinear con un byte
+        while (i < hasta && (i & 7) != 0) {
+            if ((resultados.getByte(i >>> 3) & (1 << (int) (i & 7))) != 0) total++;
+            i++;
+        }
+        // Bytes completos
+        if (i + 8 <= hasta) {
+            long bytes = (hasta - i) >>> 3;
+            total += resultados.contarBits(i >>> 3, (i >>> 3) + bytes);
+            i += bytes << 3;
+        }
+        // Bits sueltos del final
+        while (i < hasta) {
+            if ((resultados.getByte(i >>> 3) & (1 << (int) (i & 7))) != 0) total++;
+            i++;
+        }
+        return total;
+    }
+
+    /**
+     * Suma los turnos de un rango de batallas recorriendo solo la columna de turnos.
+     *
+     * @param desde Índice inicial (incluido)
+     * @param hasta Índice final (excluido)
+     * @return Suma de turnos en el rango
+     */
+    public long sumarTurnos(long desde, long hasta) {
+        desde = Math.max(0, desde);
+        hasta = Math.min(hasta, numeroBatallas);
+        return desde < hasta ? turnos.sumarInts(desde * 4, hasta * 4) : 0;
+    }
+
+    /**
+     * Obtiene el diccionario de nombres de héroes del almacén.
+     *
+     * @return Diccionario persistente de nombres
+     */
+    public DiccionarioNombres obtenerDiccionario() {
+        return diccionario;
+    }
+
+    /**
+     * Fuerza la escritura a disco de todas las columnas.
+     */
+    public synchronized void sincronizar() {
+        resultados.sincronizar();
+        turnos.sincronizar();
+        fechas.sincronizar();
+        heroes.sincronizar();
+        offsets.sincronizar();
+        meta.sincronizar();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        resultados.close();
+        turnos.close();
+        fechas.close();
+        heroes.close();
+        offsets.close();
+        meta.close();
+    }
+
+    private void comprobarIndice(long indice) {
+        if (indice < 0 || indice >= numeroBatallas) {
+            throw new IndexOutOfBoundsException("Batalla fuera de rango: " + indice);
+        }
+    }
+}
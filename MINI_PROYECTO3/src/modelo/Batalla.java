@@ -24,6 +24,9 @@ public class Batalla {
     private final Heroe[] heroes; 
     private final Enemigo[] enemigos;
 
+    // Personajes de esta batalla indexados por id (héroes y después enemigos)
+    private final EntidadesBatalla entidades = new EntidadesBatalla();
+
     // Control del flujo de la batalla
     private int turnoActual;
     private boolean batallaTerminada;
@@ -39,6 +42,8 @@ public class Batalla {
         this.enemigos = enemigos;
         this.turnoActual = 0;
         this.batallaTerminada = false;
+        for (Heroe h : heroes) entidades.registrar(h);
+        for (Enemigo e : enemigos) entidades.registrar(e);
     }
 
     /**
@@ -46,8 +51,10 @@ public class Batalla {
      * 
      * Formato del archivo:
      * - Primera línea: "TURNO,<número>"
-     * - Líneas de héroes: "HEROE,nombre,hp,mp,ataque,defensa,velocidad,tipo"
-     * - Líneas de enemigos: "ENEMIGO,nombre,hp,mp,ataque,defensa,velocidad,tipo"
+     * - Líneas de héroes: "HEROE,nombre,hp,mp,ataque,defensa,velocidad,tipo,id,equipo"
+     *   donde equipo son los ids de catálogo por ranura separados por ';'
+     *   (arma;escudo;armadura, -1 si la ranura está vacía)
+     * - Líneas de enemigos: "ENEMIGO,nombre,hp,mp,ataque,defensa,velocidad,tipo,id"
      * 
      * Usa BufferedWriter con FileWriter como intermediario para escribir
      * línea por línea el estado de cada personaje.
@@ -72,10 +79,12 @@ public class Batalla {
                 h.getNombre() + "," +
                 h.getHp() + "," +
                 h.getMp() + "," +
-                h.getAtaque() + "," +
-                h.getDefensa() + "," +
+                h.getAtaqueBase() + "," +
+                h.getDefensaBase() + "," +
                 h.getVelocidad() + "," +
-                h.getTipo()
+                h.getTipo() + "," +
+                h.getId() + "," +
+                equipoATexto(h.idsEquipo())
             );
             writer.newLine();
         }
@@ -87,10 +96,11 @@ public class Batalla {
                 e.getNombre() + "," +
                 e.getHp() + "," +
                 e.getMp() + "," +
-                e.getAtaque() + "," +
-                e.getDefensa() + "," +
+                e.getAtaqueBase() + "," +
+                e.getDefensaBase() + "," +
                 e.getVelocidad() + "," +
-                e.getTipo()
+                e.getTipo() + "," +
+                e.getId()
             );
             writer.newLine();
         }
@@ -103,8 +113,17 @@ public class Batalla {
      * 
      * Lee línea por línea el archivo y reconstruye el estado de la batalla:
      * - Restaura el turno actual
-     * - Recrea todos los héroes con sus atributos guardados
-     * - Recrea todos los enemigos con sus atributos guardados
+     * - Restaura cada héroe/enemigo con sus atributos guardados
+     * 
+     * Si la línea incluye el id del personaje y ese id corresponde, en esta
+     * batalla, al personaje de la misma posición y del mismo tipo, se
+     * restaura sobre el mismo objeto (conservando su id, por lo que vistas e
+     * historial siguen siendo válidos). Los ids solo se buscan entre los
+     * personajes de esta batalla.
+     * En otro caso (partidas antiguas sin id) se recrea el personaje y ocupa
+     * el id del que sustituye.
+     * El equipo guardado de cada héroe se vuelve a colocar y sus bonos se
+     * recalculan; las partidas antiguas sin equipo conservan el actual.
      * 
      * Usa BufferedReader con FileReader como intermediario.
      * Procesa cada línea dividiéndola por comas y usando switch para
@@ -136,31 +155,57 @@ public class Batalla {
                     break;
 
                 case "HEROE":
-                    // Reconstruir cada héroe con sus datos guardados
                     // valueOf convierte un texto en valor del enum correspondiente
-                    heroes[iHeroe] = new Heroe(
+                    Tipo_Heroe tipoHeroe = Tipo_Heroe.valueOf(datos[7]);
+                    Personaje existenteH = datos.length > 8 ? entidades.obtener(Integer.parseInt(datos[8])) : null;
+
+                    if (existenteH == heroes[iHeroe] && heroes[iHeroe].getTipo() == tipoHeroe) {
+                        // Restaurar sobre el mismo héroe (mismo id)
+                        restaurar(existenteH, datos);
+                        if (datos.length > 9) existenteH.restaurarEquipo(textoAEquipo(datos[9]));
+                        iHeroe++;
+                        break;
+                    }
+
+                    // Reconstruir el héroe con sus datos guardados
+                    Heroe nuevoHeroe = new Heroe(
                         datos[1],                          // nombre
-                        Tipo_Heroe.valueOf(datos[7]),      // tipo
+                        tipoHeroe,                         // tipo
                         Integer.parseInt(datos[2]),        // hp
                         Integer.parseInt(datos[3]),        // mp
                         Integer.parseInt(datos[4]),        // ataque
                         Integer.parseInt(datos[5]),        // defensa
                         Integer.parseInt(datos[6])         // velocidad
                     );
+                    if (datos.length > 9) nuevoHeroe.restaurarEquipo(textoAEquipo(datos[9]));
+                    entidades.reemplazar(heroes[iHeroe].getId(), nuevoHeroe);
+                    heroes[iHeroe] = nuevoHeroe;
                     iHeroe++;
                     break;
 
                 case "ENEMIGO":
-                    // Reconstruir cada enemigo con sus datos guardados
-                    enemigos[iEnemigo] = new Enemigo(
+                    Tipo_Enemigo tipoEnemigo = Tipo_Enemigo.valueOf(datos[7]);
+                    Personaje existenteE = datos.length > 8 ? entidades.obtener(Integer.parseInt(datos[8])) : null;
+
+                    if (existenteE == enemigos[iEnemigo] && enemigos[iEnemigo].getTipo() == tipoEnemigo) {
+                        // Restaurar sobre el mismo enemigo (mismo id)
+                        restaurar(existenteE, datos);
+                        iEnemigo++;
+                        break;
+                    }
+
+                    // Reconstruir el enemigo con sus datos guardados
+                    Enemigo nuevoEnemigo = new Enemigo(
                         datos[1],                          // nombre
                         Integer.parseInt(datos[2]),        // HP
                         Integer.parseInt(datos[3]),        // MP
                         Integer.parseInt(datos[4]),        // ataque
                         Integer.parseInt(datos[5]),        // defensa
                         Integer.parseInt(datos[6]),        // velocidad
-                        Tipo_Enemigo.valueOf(datos[7])     // tipo
+                        tipoEnemigo                        // tipo
                     );
+                    entidades.reemplazar(enemigos[iEnemigo].getId(), nuevoEnemigo);
+                    enemigos[iEnemigo] = nuevoEnemigo;
                     iEnemigo++;
                     break;
             }
@@ -169,10 +214,44 @@ public class Batalla {
         br.close();
     }
 
+    /**
+     * Restaura los atributos guardados en una línea sobre un personaje existente.
+     * 
+     * @param personaje Personaje a restaurar
+     * @param datos Campos de la línea (nombre, hp, mp, ataque, defensa, velocidad...)
+     */
+    private void restaurar(Personaje personaje, String[] datos) {
+        personaje.restaurarEstado(
+            Integer.parseInt(datos[2]),        // hp
+            Integer.parseInt(datos[3]),        // mp
+            Integer.parseInt(datos[4]),        // ataque
+            Integer.parseInt(datos[5]),        // defensa
+            Integer.parseInt(datos[6])         // velocidad
+        );
+    }
+
+    // Ids del equipo por ranura como "arma;escudo;armadura"
+    private static String equipoATexto(int[] ids) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) sb.append(';');
+            sb.append(ids[i]);
+        }
+        return sb.toString();
+    }
+
+    private static int[] textoAEquipo(String texto) {
+        String[] partes = texto.split(";");
+        int[] ids = new int[partes.length];
+        for (int i = 0; i < partes.length; i++) ids[i] = Integer.parseInt(partes[i]);
+        return ids;
+    }
+
     // ==================== GETTERS Y SETTERS ====================
     
     public Heroe[] getEquipoHeroes() { return heroes; }
     public Enemigo[] getEquipoEnemigos() { return enemigos; }
+    public EntidadesBatalla getEntidades() { return entidades; }
     public boolean isBatallaTerminada() { return batallaTerminada; }
     public int getTurnoActual() { return turnoActual; }
 
@@ -0,0 +1,171 @@
+package modelo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Instantánea inmutable del catálogo de ítems.
+ *
+ * ESTRUCTURA DE DATOS: Item[] indexado por id + HashMap<String, Item> por nombre
+ *
+ * JUSTIFICACIÓN:
+ * - Búsqueda por id O(1) (acceso directo al array) y por nombre O(1) (hash)
+ * - Al ser inmutable, GestorObjetos puede sustituirla entera con una sola
+ *   escritura atómica: los lectores nunca ven un catálogo a medio cargar,
+ *   no necesitan locks y pueden devolver vistas sin copiarlas
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - HashMap estático modificado en caliente: lectores concurrentes verían
+ *   estados intermedios y habría que copiarlo en cada consulta
+ * - ConcurrentHashMap: seguro, pero una recarga no sería atómica (se verían
+ *   ítems nuevos mezclados con antiguos)
+ *
+ * FORMATO DEL ARCHIVO (CSV, UTF-8, '#' para comentarios):
+ *   id,nombre,tipo,valor,efecto
+ * El efecto es el último campo y puede contener comas.
+ */
+public final class CatalogoItems {
+
+    private final Item[] porId;                  // null en ids sin ítem
+    private final Map<String, Item> porNombre;   // vista inmutable
+    private final List<Item> items;              // vista inmutable, en orden de id
+
+    private CatalogoItems(Item[] porId) {
+        this.porId = porId;
+        Map<String, Item> nombres = new HashMap<>();
+        List<Item> lista = new ArrayList<>();
+        for (Item item : porId) {
+            if (item != null) {
+                nombres.put(item.getNombre(), item);
+                lista.add(item);
+            }
+        }
+        this.porNombre = Collections.unmodifiableMap(nombres);
+        this.items = Collections.unmodifiableList(lista);
+    }
+
+    /**
+     * Lee un catálogo en formato CSV.
+     *
+     * @param lector Origen del CSV (no se cierra)
+     * @return Catálogo leído
+     * @throws IOException Si ocurre un error de lectura
+     * @throws IllegalArgumentException Si alguna línea no es válida (id
+     *         repetido o fuera de rango, tipo desconocido, valor no numérico)
+     */
+    public static CatalogoItems leer(BufferedReader lector) throws IOException {
+        Item[] porId = new Item[GestorObjetos.MAX_ITEMS_CATALOGO];
+        Map<String, Integer> nombres = new HashMap<>();
+        String linea;
+        int numeroLinea = 0;
+
+        while ((linea = lector.readLine()) != null) {
+            numeroLinea++;
+            linea = linea.trim();
+            if (linea.isEmpty() || linea.startsWith("#")) continue;
+
+            String[] datos = linea.split(",", 5);
+            if (datos.length < 5) {
+                throw new IllegalArgumentException("Línea " + numeroLinea + ": se esperaban 5 campos");
+            }
+            try {
+                int id = Integer.parseInt(datos[0].trim());
+                String nombre = datos[1].trim();
+                TipoItem tipo = TipoItem.valueOf(datos[2].trim());
+                int valor = Integer.parseInt(datos[3].trim());
+                String efecto = datos[4].trim();
+
+                if (id < 0 || id >= porId.length) {
+                    throw new IllegalArgumentException("id fuera de rango: " + id);
+                }
+                if (porId[id] != null) {
+                    throw new IllegalArgumentException("id repetido: " + id);
+                }
+                if (nombres.containsKey(nombre)) {
+                    throw new IllegalArgumentException("nombre repetido: " + nombre);
+                }
+                porId[id] = new Item(id, nombre, tipo, efecto, valor);
+                nombres.put(nombre, id);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Línea " + numeroLinea + ": " + e.getMessage(), e);
+            }
+        }
+        return new CatalogoItems(porId);
+    }
+
+    /**
+     * Crea un catálogo a partir de una lista de ítems (con ids ya asignados).
+     *
+     * @param items Ítems del catálogo
+     * @return Catálogo con esos ítems
+     */
+    public static CatalogoItems de(Item... items) {
+        Item[] porId = new Item[GestorObjetos.MAX_ITEMS_CATALOGO];
+        for (Item item : items) porId[item.getId()] = item;
+        return new CatalogoItems(porId);
+    }
+
+    /**
+     * Obtiene un ítem por id.
+     *
+     * @param id Id de catálogo
+     * @return Item, o null si no existe
+     */
+    public Item obtener(int id) {
+        return id >= 0 && id < porId.length ? porId[id] : null;
+    }
+
+    /**
+     * Obtiene un ítem por nombre.
+     *
+     * @param nombre Nombre del ítem
+     * @return Item, o null si no existe
+     */
+    public Item obtener(String nombre) {
+        return porNombre.get(nombre);
+    }
+
+    /**
+     * Obtiene el id de un ítem a partir de su nombre.
+     *
+     * @param nombre Nombre del ítem
+     * @return Id del ítem, o -1 si no existe
+     */
+    public int obtenerId(String nombre) {
+        Item item = porNombre.get(nombre);
+        return item == null ? -1 : item.getId();
+    }
+
+    /**
+     * Obtiene los ítems por nombre (vista inmutable, sin copia).
+     *
+     * @return Mapa nombre → ítem
+     */
+    public Map<String, Item> porNombre() {
+        return porNombre;
+    }
+
+    /**
+     * Obtiene los ítems en orden de id (vista inmutable, sin copia).
+     *
+     * @return Lista de ítems
+     */
+    public List<Item> items() {
+        return items;
+    }
+
+    public int tamaño() {
+        return items.size();
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogoItems" + Arrays.toString(items.toArray());
+    }
+}
@@ -0,0 +1,127 @@
+package modelo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Diccionario que asigna a cada nombre un id entero denso (0, 1, 2...).
+ *
+ * ESTRUCTURA DE DATOS: HashMap<String, Integer> + ArrayList<String>
+ *
+ * JUSTIFICACIÓN:
+ * - Los nombres de héroes se repiten en miles de batallas: guardar un int
+ *   por aparición en lugar de un String ahorra memoria y disco
+ * - HashMap da el id de un nombre en O(1) y ArrayList el nombre de un id en O(1)
+ * - Los ids densos permiten usar arrays indexados por héroe en los índices
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - String.intern(): no da un id entero ni sobrevive a un reinicio
+ * - Solo HashMap: la búsqueda inversa (id → nombre) sería O(n)
+ *
+ * Si se indica un archivo, cada nombre nuevo se añade como una línea al
+ * final, de modo que los ids se conservan entre ejecuciones.
+ */
+public class DiccionarioNombres {
+
+    private final HashMap<String, Integer> ids;
+    private final ArrayList<String> nombres;
+    private final Path archivo;      // null si el diccionario es solo en memoria
+
+    /**
+     * Constructor de un diccionario solo en memoria.
+     */
+    public DiccionarioNombres() {
+        this.ids = new HashMap<>();
+        this.nombres = new ArrayList<>();
+        this.archivo = null;
+    }
+
+    /**
+     * Constructor de un diccionario persistente.
+     * Carga los nombres ya guardados en el archivo (si existe).
+     *
+     * @param archivo Archivo de texto con un nombre por línea
+     * @throws IOException Si ocurre un error al leer el archivo
+     */
+    public DiccionarioNombres(Path archivo) throws IOException {
+        this.ids = new HashMap<>();
+        this.nombres = new ArrayList<>();
+        this.archivo = archivo;
+        if (Files.exists(archivo)) {
+            for (String nombre : Files.readAllLines(archivo, StandardCharsets.UTF_8)) {
+                ids.put(nombre, nombres.size());
+                nombres.add(nombre);
+            }
+        }
+    }
+
+    /**
+     * Obtiene el id de un nombre, asignándole uno nuevo si no existía.
+     *
+     * @param nombre Nombre a buscar
+     * @return Id denso del nombre
+     */
+    public synchronized int obtenerId(String nombre) {
+        Integer id = ids.get(nombre);
+        if (id != null) return id;
+
+        int nuevo = nombres.size();
+        if (archivo != null) {
+            try {
+                Files.write(archivo, Collections.singletonList(nombre), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo guardar el nombre: " + nombre, e);
+            }
+        }
+        ids.put(nombre, nuevo);
+        nombres.add(nombre);
+        return nuevo;
+    }
+
+    /**
+     * Busca el id de un nombre sin crearlo.
+     *
+     * @param nombre Nombre a buscar
+     * @return Id del nombre, o -1 si no está en el diccionario
+     */
+    public synchronized int buscarId(String nombre) {
+        Integer id = ids.get(nombre);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Obtiene el nombre asociado a un id.
+     *
+     * @param id Id denso
+     * @return Nombre correspondiente
+     */
+    public synchronized String obtenerNombre(int id) {
+        return nombres.get(id);
+    }
+
+    /**
+     * Obtiene el número de nombres distintos.
+     *
+     * @return Tamaño del diccionario
+     */
+    public synchronized int tamaño() {
+        return nombres.size();
+    }
+
+    /**
+     * Obtiene todos los nombres en orden de id.
+     *
+     * @return Lista inmutable de nombres
+     */
+    public synchronized List<String> obtenerNombres() {
+        return Collections.unmodifiableList(new ArrayList<>(nombres));
+    }
+}
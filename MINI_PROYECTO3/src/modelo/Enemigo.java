@@ -43,6 +43,15 @@ public class Enemigo extends Personaje implements Agresivo, Jefe {
         return tipo;
     }
 
+    /**
+     * Obtiene la tabla con el botín que suelta este enemigo al ser derrotado.
+     * 
+     * @return Tabla de botín de su tipo
+     */
+    public TablaBotin getTablaBotin() {
+        return TablaBotin.de(tipo);
+    }
+
     // @Override
     // public void elegirAccion() {
     //     // 
@@ -72,7 +81,7 @@ public class Enemigo extends Personaje implements Agresivo, Jefe {
     // nueva funcion que sirve para aplicar la logica del daño
     private int aplicarDañoActualizar(Personaje objetivo, @SuppressWarnings("unused") int multiplicador) {
         if (objetivo == null || !objetivo.esta_vivo()) return 0;
-        int daño = this.ataque - objetivo.getDefensa();
+        int daño = this.ataqueEfectivo - objetivo.getDefensa();
         if (daño < 1) daño = 1; // Daño mínimo de 1
         objetivo.recibir_daño(daño);
         return daño;
@@ -139,8 +148,7 @@ public class Enemigo extends Personaje implements Agresivo, Jefe {
     }
 
     public void setDaño(int daño) {
-        if (daño < 0) this.ataque = 0;
-        else this.ataque = daño;
+        setAtaque(Math.max(0, daño));
     }
 
     @Override
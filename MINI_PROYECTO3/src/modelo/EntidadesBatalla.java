@@ -0,0 +1,70 @@
+package modelo;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de los personajes de una batalla, indexada por id.
+ *
+ * ESTRUCTURA DE DATOS: Personaje[] donde el índice es el id
+ *
+ * JUSTIFICACIÓN:
+ * - Los ids son densos (0, 1, 2...) dentro de la batalla: obtener() es un
+ *   acceso a array, sin buscar por nombre (que puede repetirse)
+ * - La tabla pertenece a la batalla y no es global: cuando la batalla deja de
+ *   usarse sus personajes pueden liberarse, y un id de una partida guardada
+ *   solo se resuelve entre los personajes de la batalla que se carga
+ * - El id depende de la posición en los equipos (héroes primero y después
+ *   enemigos), así que la misma formación da los mismos ids en otra ejecución
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - Tabla estática de todos los personajes creados: nunca libera ninguno y
+ *   los ids dependen del orden de creación en cada ejecución
+ * - HashMap<Integer, Personaje>: boxing y hash para un índice que ya es denso
+ */
+public class EntidadesBatalla {
+
+    private Personaje[] entidades = new Personaje[8];
+    private int tamaño;
+
+    /**
+     * Añade un personaje a la tabla y le asigna el siguiente id.
+     *
+     * @param personaje Personaje que entra en la batalla
+     * @return Id asignado
+     */
+    public int registrar(Personaje personaje) {
+        if (tamaño == entidades.length) {
+            entidades = Arrays.copyOf(entidades, entidades.length * 2);
+        }
+        entidades[tamaño] = personaje;
+        personaje.asignarEntidad(this, tamaño);
+        return tamaño++;
+    }
+
+    /**
+     * Pone un personaje nuevo en el lugar de otro, con el mismo id
+     * (por ejemplo al recrearlo desde una partida guardada).
+     *
+     * @param id Id del personaje sustituido
+     * @param personaje Personaje que ocupa su lugar
+     */
+    void reemplazar(int id, Personaje personaje) {
+        if (id < 0 || id >= tamaño) throw new IllegalArgumentException("Id fuera de la batalla: " + id);
+        entidades[id] = personaje;
+        personaje.asignarEntidad(this, id);
+    }
+
+    /**
+     * Obtiene un personaje a partir de su id en O(1).
+     *
+     * @param id Id del personaje
+     * @return El personaje, o null si el id no pertenece a la batalla
+     */
+    public Personaje obtener(int id) {
+        return (id >= 0 && id < tamaño) ? entidades[id] : null;
+    }
+
+    public int tamaño() {
+        return tamaño;
+    }
+}
@@ -0,0 +1,120 @@
+package modelo;
+
+/**
+ * Equipo de un héroe: un ítem por ranura (arma, escudo, armadura).
+ *
+ * ESTRUCTURA DE DATOS: Item[] indexado por Ranura.ordinal() + bonos cacheados
+ *
+ * JUSTIFICACIÓN:
+ * - Hay pocas ranuras y son fijas: un array indexado por el ordinal es más
+ *   compacto y rápido que un EnumMap
+ * - Los bonos de ataque y defensa se suman una sola vez, al equipar o
+ *   desequipar (marca de sucio), y no en cada golpe
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - Sumar los ítems equipados en cada ataque: trabajo repetido en el bucle
+ *   de combate para un valor que cambia pocas veces por batalla
+ * - Modificar directamente el ataque base: desequipar o guardar la partida
+ *   obligaría a deshacer la suma a mano
+ */
+public class Equipo {
+
+    /**
+     * Ranuras de equipo.
+     */
+    public enum Ranura {
+        ARMA, ESCUDO, ARMADURA;
+
+        /**
+         * Obtiene la ranura que ocupa un tipo de ítem.
+         *
+         * @param tipo Tipo de ítem
+         * @return Ranura, o null si el tipo no es equipable
+         */
+        public static Ranura de(TipoItem tipo) {
+            switch (tipo) {
+                case ESPADA: return ARMA;
+                case ESCUDO: return ESCUDO;
+                case ARMADURA: return ARMADURA;
+                default: return null;
+            }
+        }
+    }
+
+    private final Item[] ranuras = new Item[Ranura.values().length];
+    private int bonoAtaque;
+    private int bonoDefensa;
+    private boolean sucio;
+
+    /**
+     * Coloca un ítem en su ranura (o vacía la ranura si item es null).
+     *
+     * @param ranura Ranura a modificar
+     * @param item Ítem a colocar, o null
+     * @return Ítem que ocupaba la ranura, o null
+     */
+    Item colocar(Ranura ranura, Item item) {
+        Item anterior = ranuras[ranura.ordinal()];
+        ranuras[ranura.ordinal()] = item;
+        sucio = true;
+        return anterior;
+    }
+
+    /**
+     * Obtiene el ítem equipado en una ranura.
+     *
+     * @param ranura Ranura a consultar
+     * @return Ítem equipado, o null si está vacía
+     */
+    public Item obtener(Ranura ranura) {
+        return ranuras[ranura.ordinal()];
+    }
+
+    /**
+     * Obtiene el id de catálogo del ítem equipado en una ranura.
+     *
+     * @param ranura Ranura a consultar
+     * @return Id del ítem, o -1 si está vacía
+     */
+    public int obtenerId(Ranura ranura) {
+        Item item = ranuras[ranura.ordinal()];
+        return item == null ? -1 : item.getId();
+    }
+
+    public int getBonoAtaque() {
+        recalcular();
+        return bonoAtaque;
+    }
+
+    public int getBonoDefensa() {
+        recalcular();
+        return bonoDefensa;
+    }
+
+    private void recalcular() {
+        if (!sucio) return;
+        int ataque = 0;
+        int defensa = 0;
+        for (Item item : ranuras) {
+            if (item == null) continue;
+            if (item.getTipo() == TipoItem.ESPADA) {
+                ataque += item.getValorEfecto();
+            } else {
+                defensa += item.getValorEfecto();
+            }
+        }
+        bonoAtaque = ataque;
+        bonoDefensa = defensa;
+        sucio = false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("=== EQUIPO ===\n");
+        for (Ranura ranura : Ranura.values()) {
+            Item item = ranuras[ranura.ordinal()];
+            sb.append(ranura).append(": ").append(item == null ? "-" : item.getNombre()).append("\n");
+        }
+        return sb.toString();
+    }
+}
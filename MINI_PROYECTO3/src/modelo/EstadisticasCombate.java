@@ -0,0 +1,88 @@
+package modelo;
+
+import java.util.Arrays;
+
+/**
+ * Distribuciones del combate registradas por el motor de batalla.
+ *
+ * ESTRUCTURA DE DATOS: tres HistogramaLog + int[] indexado por id de personaje
+ *   - turnosPorBatalla: rondas que dura cada batalla
+ *   - dañoPorGolpe: daño efectivo de cada golpe
+ *   - golpesParaDerrotar: golpes que recibe un personaje hasta caer
+ *   - golpesRecibidos[id]: golpes acumulados por cada personaje vivo
+ *     (id dentro de su batalla, así que el array no pasa del tamaño de la
+ *     batalla más grande)
+ *
+ * JUSTIFICACIÓN:
+ * - Los ids de Personaje son densos, así que un array sustituye a un
+ *   HashMap<Personaje, Integer>: registrar un golpe no crea objetos
+ * - Los histogramas dan p50/p90/p99 además de la media y se combinan entre
+ *   hilos o nodos con combinar()
+ */
+public class EstadisticasCombate {
+
+    private final HistogramaLog turnosPorBatalla = new HistogramaLog();
+    private final HistogramaLog dañoPorGolpe = new HistogramaLog();
+    private final HistogramaLog golpesParaDerrotar = new HistogramaLog();
+
+    private int[] golpesRecibidos = new int[16];
+
+    /**
+     * Registra un golpe sobre un personaje, ya aplicado.
+     * Si el golpe lo derrota, se registran los golpes que necesitó. Los
+     * golpes a un personaje que ya estaba derrotado no cuentan: no son daño
+     * real ni una nueva derrota.
+     *
+     * @param objetivo Personaje golpeado
+     * @param hpAntes Vida del objetivo antes del golpe
+     */
+    public void registrarGolpe(Personaje objetivo, int hpAntes) {
+        if (hpAntes <= 0) return;
+        dañoPorGolpe.registrar(Math.max(0, hpAntes - objetivo.getHp()));
+
+        int id = objetivo.getId();
+        if (id < 0) return;     // Personaje fuera de una batalla
+        if (id >= golpesRecibidos.length) {
+            golpesRecibidos = Arrays.copyOf(golpesRecibidos, Math.max(golpesRecibidos.length * 2, id + 1));
+        }
+        golpesRecibidos[id]++;
+        if (!objetivo.esta_vivo()) {
+            golpesParaDerrotar.registrar(golpesRecibidos[id]);
+            golpesRecibidos[id] = 0;
+        }
+    }
+
+    /**
+     * Registra el final de una batalla.
+     *
+     * @param turnos Rondas que duró la batalla
+     */
+    public void registrarFinBatalla(int turnos) {
+        turnosPorBatalla.registrar(turnos);
+        Arrays.fill(golpesRecibidos, 0);
+    }
+
+    /**
+     * Combina las estadísticas de otro motor (otro hilo o nodo).
+     *
+     * @param otras Estadísticas a sumar a estas
+     */
+    public void combinar(EstadisticasCombate otras) {
+        turnosPorBatalla.combinar(otras.turnosPorBatalla);
+        dañoPorGolpe.combinar(otras.dañoPorGolpe);
+        golpesParaDerrotar.combinar(otras.golpesParaDerrotar);
+    }
+
+    // Getters
+    public HistogramaLog getTurnosPorBatalla() { return turnosPorBatalla; }
+    public HistogramaLog getDañoPorGolpe() { return dañoPorGolpe; }
+    public HistogramaLog getGolpesParaDerrotar() { return golpesParaDerrotar; }
+
+    @Override
+    public String toString() {
+        return "=== ESTADÍSTICAS DE COMBATE ===\n"
+            + "Turnos por batalla:   " + turnosPorBatalla + "\n"
+            + "Daño por golpe:       " + dañoPorGolpe + "\n"
+            + "Golpes para derrotar: " + golpesParaDerrotar + "\n";
+    }
+}
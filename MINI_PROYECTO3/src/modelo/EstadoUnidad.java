@@ -0,0 +1,86 @@
+package modelo;
+
+import java.util.Arrays;
+
+/**
+ * Foto inmutable del estado de combate de un personaje en un turno.
+ * 
+ * Se usa como elemento de VectorPersistente dentro de HistoriaPersistente:
+ * si un personaje no cambia entre dos turnos, ambas versiones comparten
+ * el mismo objeto EstadoUnidad.
+ * 
+ * Incluye el equipo (id de catálogo por ranura) para que al volver a un
+ * turno el ataque y la defensa efectivos sean los de ese turno.
+ */
+public final class EstadoUnidad {
+
+    private final int id;
+    private final int hp;
+    private final int mp;
+    private final int ataque;
+    private final int defensa;
+    private final int turnosParalisis;
+    private final int turnosSueno;
+    private final boolean paralizado;
+    private final boolean durmiendo;
+    private final int defensorId;      // -1 si no está siendo defendido
+    private final int provocadorId;    // -1 si no está provocado
+    private final int[] equipo;        // Ids por Equipo.Ranura; null si no lleva equipo
+
+    /**
+     * Captura el estado actual de un personaje.
+     * 
+     * @param p Personaje a capturar
+     */
+    EstadoUnidad(Personaje p) {
+        this.id = p.id;
+        this.hp = p.hp;
+        this.mp = p.mp;
+        this.ataque = p.ataque;
+        this.defensa = p.defensa;
+        this.turnosParalisis = p.turnosParalisis;
+        this.turnosSueno = p.turnosSueno;
+        this.paralizado = p.esta_paralizado;
+        this.durmiendo = p.esta_durmiendo;
+        this.defensorId = p.defensor == null ? -1 : p.defensor.id;
+        this.provocadorId = p.provocador == null ? -1 : p.provocador.id;
+        this.equipo = p.idsEquipo();
+    }
+
+    // Getters
+    public int getId() { return id; }
+    public int getHp() { return hp; }
+    public int getMp() { return mp; }
+    public int getAtaque() { return ataque; }
+    public int getDefensa() { return defensa; }
+    public int getTurnosParalisis() { return turnosParalisis; }
+    public int getTurnosSueno() { return turnosSueno; }
+    public boolean estaParalizado() { return paralizado; }
+    public boolean estaDurmiendo() { return durmiendo; }
+    public int getDefensorId() { return defensorId; }
+    public int getProvocadorId() { return provocadorId; }
+
+    /** @return Copia de los ids del equipo por ranura, o null si no lleva equipo */
+    public int[] getEquipo() { return equipo == null ? null : equipo.clone(); }
+
+    /**
+     * Indica si el personaje sigue teniendo exactamente este estado.
+     * 
+     * @param p Personaje a comparar
+     * @return true si ningún campo capturado ha cambiado
+     */
+    boolean coincideCon(Personaje p) {
+        return id == p.id && hp == p.hp && mp == p.mp
+            && ataque == p.ataque && defensa == p.defensa
+            && turnosParalisis == p.turnosParalisis && turnosSueno == p.turnosSueno
+            && paralizado == p.esta_paralizado && durmiendo == p.esta_durmiendo
+            && defensorId == (p.defensor == null ? -1 : p.defensor.id)
+            && provocadorId == (p.provocador == null ? -1 : p.provocador.id)
+            && Arrays.equals(equipo, p.idsEquipo());
+    }
+
+    @Override
+    public String toString() {
+        return "#" + id + " HP=" + hp + " MP=" + mp + " ATK=" + ataque + " DEF=" + defensa;
+    }
+}
@@ -0,0 +1,255 @@
+package modelo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Exporta el historial de batallas por un canal sin construir un String gigante.
+ *
+ * ESTRUCTURA DE DATOS: un ByteBuffer y un StringBuilder reutilizables
+ *
+ * JUSTIFICACIÓN:
+ * - Cada batalla se codifica en el buffer y el buffer se vacía al canal
+ *   cuando se llena: la memoria usada es constante (TAMAÑO_BUFFER) sea cual
+ *   sea el tamaño del historial
+ * - WritableByteChannel admite archivos, sockets o Channels.newChannel(salida)
+ * - Con un almacén conectado se recorren sus columnas, no la lista en memoria
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - toString() del historial: todo el texto en un único StringBuilder
+ * - obtenerHistorial() + bucle: copiaba la lista entera antes de escribir
+ *
+ * FORMATOS:
+ * - CSV:    fecha,resultado,turnos,heroes (héroes separados por ';')
+ * - JSONL:  un objeto JSON por línea
+ * - BINARIO: cabecera "HBAT" + versión (int); por batalla: resultado (byte),
+ *            turnos (int), fecha epoch ms (long), nº héroes (byte con signo,
+ *            máximo 127) y cada nombre como longitud (short con signo, máximo
+ *            32767 bytes) + bytes UTF-8. Big-endian. Una batalla que no cabe
+ *            en estos límites detiene la exportación con IOException antes de
+ *            escribir ninguno de sus bytes.
+ */
+public class ExportadorHistorial {
+
+    /** Formatos de exportación disponibles. */
+    public enum Formato { CSV, JSONL, BINARIO }
+
+    public static final int TAMAÑO_BUFFER = 64 * 1024;
+    public static final int VERSION_BINARIO = 1;
+
+    /** Límites del formato binario v1 (campos con signo). */
+    public static final int MAX_HEROES_BINARIO = Byte.MAX_VALUE;
+    public static final int MAX_BYTES_NOMBRE_BINARIO = Short.MAX_VALUE;
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final ByteBuffer buffer;
+    private final StringBuilder linea;
+    private final StringBuilder campo;
+    private final CharsetEncoder codificador;
+
+    /**
+     * Constructor del exportador. Un exportador puede reutilizarse para
+     * varias exportaciones, pero no desde varios hilos a la vez.
+     */
+    public ExportadorHistorial() {
+        this.buffer = ByteBuffer.allocate(TAMAÑO_BUFFER);
+        this.linea = new StringBuilder(256);
+        this.campo = new StringBuilder(64);
+        this.codificador = StandardCharsets.UTF_8.newEncoder();
+    }
+
+    /**
+     * Exporta todas las batallas del historial.
+     *
+     * @param historial Historial a exportar
+     * @param canal Canal de destino (no se cierra)
+     * @param formato Formato de salida
+     * @return Número de batallas exportadas
+     * @throws IOException Si ocurre un error al escribir en el canal
+     */
+    public long exportar(HistorialBatallas historial, WritableByteChannel canal, Formato formato)
+            throws IOException {
+        return exportar(historial, canal, formato, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Exporta un rango de batallas (por ejemplo, a partir del cursor de una página).
+     *
+     * @param historial Historial a exportar
+     * @param canal Canal de destino (no se cierra)
+     * @param formato Formato de salida
+     * @param desde Índice de la primera batalla (incluido)
+     * @param hasta Índice final (excluido)
+     * @return Número de batallas exportadas
+     * @throws IOException Si ocurre un error al escribir en el canal, o si en
+     *         BINARIO una batalla supera los límites del formato
+     */
+    public long exportar(HistorialBatallas historial, WritableByteChannel canal, Formato formato,
+                         long desde, long hasta) throws IOException {
+        buffer.clear();
+        long fin = Math.min(hasta, historial.contarRecorribles());
+
+        switch (formato) {
+            case CSV:
+                escribirTexto(canal, "fecha,resultado,turnos,heroes\n");
+                break;
+            case BINARIO:
+                reservar(canal, 8);
+                buffer.put((byte) 'H').put((byte) 'B').put((byte) 'A').put((byte) 'T');
+                buffer.putInt(VERSION_BINARIO);
+                break;
+            default:
+                break;
+        }
+
+        long exportadas = 0;
+        for (long i = Math.max(0, desde); i < fin; i++) {
+            HistorialBatallas.RegistroBatalla r = historial.obtenerRecorrible(i);
+            switch (formato) {
+                case CSV:     escribirCsv(canal, r); break;
+                case JSONL:   escribirJson(canal, r); break;
+                case BINARIO: escribirBinario(canal, r); break;
+            }
+            exportadas++;
+        }
+
+        vaciar(canal);
+        return exportadas;
+    }
+
+    private void escribirCsv(WritableByteChannel canal, HistorialBatallas.RegistroBatalla r) throws IOException {
+        linea.setLength(0);
+        linea.append(r.getFecha().format(FORMATO_FECHA)).append(',')
+             .append(r.esVictoriaHeroes() ? "VICTORIA" : "DERROTA").append(',')
+             .append(r.getTurnosUsados()).append(',');
+        String[] nombres = r.getNombresHeroes();
+        campo.setLength(0);
+        for (int i = 0; i < nombres.length; i++) {
+            if (i > 0) campo.append(';');
+            campo.append(nombres[i]);
+        }
+        anexarCampoCsv(campo);
+        linea.append('\n');
+        escribirTexto(canal, linea);
+    }
+
+    // Entrecomilla el campo si contiene separadores o comillas (RFC 4180)
+    private void anexarCampoCsv(CharSequence valor) {
+        boolean comillas = false;
+        for (int i = 0; i < valor.length() && !comillas; i++) {
+            char c = valor.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!comillas) {
+            linea.append(valor);
+            return;
+        }
+        linea.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') linea.append('"');
+            linea.append(c);
+        }
+        linea.append('"');
+    }
+
+    private void escribirJson(WritableByteChannel canal, HistorialBatallas.RegistroBatalla r) throws IOException {
+        linea.setLength(0);
+        linea.append("{\"fecha\":\"").append(r.getFecha().format(FORMATO_FECHA))
+             .append("\",\"victoria\":").append(r.esVictoriaHeroes())
+             .append(",\"turnos\":").append(r.getTurnosUsados())
+             .append(",\"heroes\":[");
+        String[] nombres = r.getNombresHeroes();
+        for (int i = 0; i < nombres.length; i++) {
+            if (i > 0) linea.append(',');
+            anexarCadenaJson(nombres[i]);
+        }
+        linea.append("]}\n");
+        escribirTexto(canal, linea);
+    }
+
+    private void anexarCadenaJson(String s) {
+        linea.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':  linea.append("\\\""); break;
+                case '\\': linea.append("\\\\"); break;
+                case '\n': linea.append("\\n"); break;
+                case '\r': linea.append("\\r"); break;
+                case '\t': linea.append("\\t"); break;
+                default:
+                    if (c < 0x20) linea.append(String.format("\\u%04x", (int) c));
+                    else linea.append(c);
+            }
+        }
+        linea.append('"');
+    }
+
+    private void escribirBinario(WritableByteChannel canal, HistorialBatallas.RegistroBatalla r) throws IOException {
+        String[] nombres = r.getNombresHeroes();
+        if (nombres.length > MAX_HEROES_BINARIO) {
+            throw new IOException("Batalla con " + nombres.length + " héroes: el formato binario admite "
+                + MAX_HEROES_BINARIO);
+        }
+        // Validar todos los nombres antes de escribir la batalla
+        byte[][] codificados = new byte[nombres.length][];
+        for (int i = 0; i < nombres.length; i++) {
+            codificados[i] = nombres[i].getBytes(StandardCharsets.UTF_8);
+            if (codificados[i].length > MAX_BYTES_NOMBRE_BINARIO) {
+                throw new IOException("Nombre de héroe de " + codificados[i].length
+                    + " bytes: el formato binario admite " + MAX_BYTES_NOMBRE_BINARIO);
+            }
+        }
+
+        reservar(canal, 1 + 4 + 8 + 1);
+        buffer.put((byte) (r.esVictoriaHeroes() ? 1 : 0));
+        buffer.putInt(r.getTurnosUsados());
+        buffer.putLong(r.getEpochMillis());
+        buffer.put((byte) nombres.length);
+        for (byte[] bytes : codificados) {
+            reservar(canal, 2 + bytes.length);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    // Codifica texto en UTF-8 vaciando el buffer al canal cada vez que se llena
+    private void escribirTexto(WritableByteChannel canal, CharSequence texto) throws IOException {
+        CharBuffer caracteres = CharBuffer.wrap(texto);
+        codificador.reset();
+        while (true) {
+            CoderResult resultado = codificador.encode(caracteres, buffer, true);
+            if (resultado.isOverflow()) {
+                vaciar(canal);
+            } else if (resultado.isUnderflow()) {
+                break;
+            } else {
+                resultado.throwException();
+            }
+        }
+        while (codificador.flush(buffer).isOverflow()) {
+            vaciar(canal);
+        }
+    }
+
+    // Garantiza que caben n bytes en el buffer
+    private void reservar(WritableByteChannel canal, int n) throws IOException {
+        if (buffer.remaining() < n) vaciar(canal);
+    }
+
+    private void vaciar(WritableByteChannel canal) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+}
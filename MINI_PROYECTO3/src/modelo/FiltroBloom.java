@@ -0,0 +1,143 @@
+package modelo;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Filtro de Bloom: responde "seguro que no está" o "puede que esté".
+ *
+ * ESTRUCTURA DE DATOS: long[] de m bits + k posiciones por elemento
+ *   Las k posiciones salen de dos hashes de 64 bits (h1 + i·h2, técnica de
+ *   Kirsch-Mitzenmacher), así que cada operación calcula un solo hash.
+ *
+ * JUSTIFICACIÓN:
+ * - Con m = -n·ln(p) / ln(2)² bits y k = (m/n)·ln(2) funciones, la tasa de
+ *   falsos positivos es p: con p = 1% cuesta ~9,6 bits por elemento
+ * - Nunca da falsos negativos: si dice que no está, no hace falta mirar el disco
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - HashSet de todos los nombres: es justo lo que no cabe en memoria
+ * - k hashes independientes: k veces más trabajo por consulta
+ *
+ * No admite borrados (un bit puede ser compartido por varios elementos).
+ * Los bits se pueden guardar con escribir() y recuperar con el constructor
+ * que los recibe, sin volver a calcular el hash de cada elemento.
+ */
+public class FiltroBloom {
+
+    private final long[] bits;
+    private final long numeroBits;
+    private final int numeroHashes;
+
+    /**
+     * Crea un filtro dimensionado para un número de elementos y una tasa de falsos positivos.
+     *
+     * @param elementosEsperados Elementos que se añadirán (como mínimo 1)
+     * @param tasaFalsosPositivos Probabilidad de falso positivo deseada, en (0, 1)
+     */
+    public FiltroBloom(long elementosEsperados, double tasaFalsosPositivos) {
+        if (tasaFalsosPositivos <= 0 || tasaFalsosPositivos >= 1) {
+            throw new IllegalArgumentException("Tasa de falsos positivos fuera de (0, 1): " + tasaFalsosPositivos);
+        }
+        long n = Math.max(1, elementosEsperados);
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-n * Math.log(tasaFalsosPositivos) / (ln2 * ln2));
+        m = Math.max(64, (m + 63) & ~63L);
+        this.bits = new long[(int) Math.min(m >>> 6, Integer.MAX_VALUE - 8)];
+        this.numeroBits = (long) bits.length << 6;
+        this.numeroHashes = Math.max(1, (int) Math.round((double) numeroBits / n * ln2));
+    }
+
+    /**
+     * Reconstruye un filtro a partir de bits ya calculados (por ejemplo,
+     * leídos del disco junto a los datos que resume).
+     *
+     * @param bits Bits del filtro (se usan sin copiar)
+     * @param numeroHashes Posiciones por elemento con las que se calcularon
+     */
+    public FiltroBloom(long[] bits, int numeroHashes) {
+        if (bits.length == 0 || numeroHashes < 1) {
+            throw new IllegalArgumentException("Filtro de Bloom no válido");
+        }
+        this.bits = bits;
+        this.numeroBits = (long) bits.length << 6;
+        this.numeroHashes = numeroHashes;
+    }
+
+    /**
+     * Escribe el filtro: número de hashes (int), 0 (int), número de longs
+     * (long) y los bits. Ocupa 16 + estimarBytes() bytes.
+     *
+     * @param salida Destino
+     * @throws IOException Si falla la escritura
+     */
+    public void escribir(DataOutput salida) throws IOException {
+        salida.writeInt(numeroHashes);
+        salida.writeInt(0);
+        salida.writeLong(bits.length);
+        for (long palabra : bits) salida.writeLong(palabra);
+    }
+
+    /**
+     * Añade un elemento.
+     *
+     * @param clave Bytes del elemento
+     */
+    public void agregar(byte[] clave) {
+        long h = hash(clave, 0, clave.length);
+        long h1 = h;
+        long h2 = mezclar(h ^ 0x9E3779B97F4A7C15L) | 1;    // Impar: recorre todas las posiciones
+        for (int i = 0; i < numeroHashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, numeroBits);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Comprueba si un elemento puede estar en el filtro.
+     *
+     * @param clave Bytes del elemento
+     * @return false si seguro que no está; true si puede estar
+     */
+    public boolean podriaContener(byte[] clave) {
+        long h = hash(clave, 0, clave.length);
+        long h1 = h;
+        long h2 = mezclar(h ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numeroHashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, numeroBits);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    // FNV-1a de 64 bits seguido de la mezcla final de MurmurHash3
+    private static long hash(byte[] datos, int desde, int hasta) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = desde; i < hasta; i++) {
+            h ^= datos[i] & 0xFF;
+            h *= 0x100000001B3L;
+        }
+        return mezclar(h);
+    }
+
+    private static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public long getNumeroBits() { return numeroBits; }
+    public int getNumeroHashes() { return numeroHashes; }
+
+    /**
+     * Memoria ocupada por los bits del filtro.
+     *
+     * @return Bytes
+     */
+    public long estimarBytes() {
+        return bits.length * 8L;
+    }
+}
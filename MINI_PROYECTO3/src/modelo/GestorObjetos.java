@@ -1,39 +1,249 @@
 package modelo;
 
-import java.util.HashMap;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Clase auxiliar para inicializar ítems y equiparlos a los héroes.
- * Define todos los ítems disponibles en el juego.
- * 
- * Ítems disponibles (basados en Dragon Quest VIII):
- * 1. Poción - Restaura 30 HP
- * 2. Poción Fuerte - Restaura 60 HP
- * 3. Elixir - Restaura todo HP y MP
- * 4. Antídoto - Cura efectos negativos
- * 5. Bomba - Causa 40 daño a enemigos
- * 6. Espada Sagrada - Aumenta ataque en 30
- * 7. Escudo Magnífico - Aumenta defensa en 20
- * 8. Armadura Plateada - Aumenta defensa en 15
- * 9. Bola de Hielo - Hechizo hielo 25 daño
+ * Mantiene el catálogo de ítems disponibles en el juego.
+ *
+ * ESTRUCTURA DE DATOS: AtomicReference<CatalogoItems> (instantánea inmutable)
+ *
+ * JUSTIFICACIÓN:
+ * - El catálogo se lee de un archivo de datos (items.csv) en lugar de estar
+ *   escrito en el código: se pueden añadir ítems sin recompilar
+ * - Recargar construye un catálogo nuevo aparte y lo publica con una sola
+ *   escritura atómica; los lectores solo leen la referencia, sin locks ni copias
+ * - Si el archivo nuevo tiene errores se conserva el catálogo anterior.
+ *   También es un error que falte algún ítem de las tablas de botín
+ *
+ * Origen del catálogo al iniciar (el primero que exista):
+ * 1. items.csv en el directorio de trabajo (como save.txt)
+ * 2. modelo/items.csv en el classpath
+ * 3. Catálogo por defecto (los nueve ítems basados en Dragon Quest VIII):
+ *    Poción, Poción Fuerte, Elixir, Antídoto, Bomba, Espada Sagrada,
+ *    Escudo Magnífico, Armadura Plateada y Bola de Hielo
+ *
+ * Los ids son posiciones en los inventarios, el equipo y el alijo: un
+ * catálogo recargado o reemplazado solo puede añadir ítems. Si quita un id
+ * o le da otro nombre u otro tipo, se rechaza y se conserva el actual.
+ *
+ * Como el resto del modelo, no imprime nada: los errores de carga se
+ * consultan con obtenerAvisoCarga() y los de recarga llegan al Consumer que
+ * se pasa a vigilarArchivo(); la vista o App deciden cómo mostrarlos.
  */
 public class GestorObjetos {
 
-    // Mapa estático con todos los ítems del juego
-    private static final Map<String, Item> itemsDisponibles = new HashMap<>();
+    // Máximo de ítems distintos del catálogo (uno por bit de la máscara de Inventario)
+    public static final int MAX_ITEMS_CATALOGO = 64;
 
-    static {
-        // Inicializar todos los ítems disponibles
-        itemsDisponibles.put("Poción", new Item("Poción", TipoItem.POCION, "Restaura 30 HP", 30));
-        itemsDisponibles.put("Poción Fuerte", new Item("Poción Fuerte", TipoItem.POCION_FUERTE, "Restaura 60 HP", 60));
-        itemsDisponibles.put("Elixir", new Item("Elixir", TipoItem.ELIXIR, "Restaura todo HP y MP", 999));
-        itemsDisponibles.put("Antídoto", new Item("Antídoto", TipoItem.ANTIDOTO, "Cura efectos negativos", 1));
-        itemsDisponibles.put("Bomba", new Item("Bomba", TipoItem.BOMBA, "Causa 40 daño a enemigos", 40));
-        itemsDisponibles.put("Espada Sagrada", new Item("Espada Sagrada", TipoItem.ESPADA, "Aumenta ataque en 30", 30));
-        itemsDisponibles.put("Escudo Magnífico", new Item("Escudo Magnífico", TipoItem.ESCUDO, "Aumenta defensa en 20", 20));
-        itemsDisponibles.put("Armadura Plateada", new Item("Armadura Plateada", TipoItem.ARMADURA, "Aumenta defensa en 15", 15));
-        itemsDisponibles.put("Bola de Hielo", new Item("Bola de Hielo", TipoItem.HIELO, "Hechizo hielo 25 daño", 25));
+    public static final String ARCHIVO_CATALOGO = "items.csv";
+
+    // Motivo por el que se descartó algún origen al iniciar (null si ninguno).
+    // Declarado antes de catalogo: cargarInicial() lo asigna durante la inicialización
+    private static String avisoCarga;
+
+    private static final AtomicReference<CatalogoItems> catalogo =
+        new AtomicReference<>(cargarInicial());
+
+    private static volatile Thread vigilante;
+
+    private static CatalogoItems cargarInicial() {
+        Path archivo = Paths.get(ARCHIVO_CATALOGO);
+        if (Files.isRegularFile(archivo)) {
+            try {
+                return leerCatalogo(archivo);
+            } catch (IOException | IllegalArgumentException e) {
+                anotarAviso("Catálogo " + archivo + " no válido: " + e.getMessage());
+            }
+        }
+        try (InputStream recurso = GestorObjetos.class.getResourceAsStream(ARCHIVO_CATALOGO)) {
+            if (recurso != null) {
+                CatalogoItems interno = CatalogoItems.leer(new BufferedReader(
+                    new InputStreamReader(recurso, StandardCharsets.UTF_8)));
+                TablaBotin.comprobarCatalogo(interno);
+                return interno;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            anotarAviso("Catálogo interno no válido: " + e.getMessage());
+        }
+        return catalogoPorDefecto();
+    }
+
+    private static void anotarAviso(String mensaje) {
+        avisoCarga = avisoCarga == null ? mensaje : avisoCarga + "\n" + mensaje;
+    }
+
+    /**
+     * Indica si algún origen del catálogo se descartó al iniciar por no ser válido.
+     *
+     * @return Mensaje con los orígenes descartados y el motivo, o null si no hubo errores
+     */
+    public static String obtenerAvisoCarga() {
+        return avisoCarga;
+    }
+
+    private static CatalogoItems catalogoPorDefecto() {
+        return CatalogoItems.de(
+            new Item(0, "Poción", TipoItem.POCION, "Restaura 30 HP", 30),
+            new Item(1, "Poción Fuerte", TipoItem.POCION_FUERTE, "Restaura 60 HP", 60),
+            new Item(2, "Elixir", TipoItem.ELIXIR, "Restaura todo HP y MP", 999),
+            new Item(3, "Antídoto", TipoItem.ANTIDOTO, "Cura efectos negativos", 1),
+            new Item(4, "Bomba", TipoItem.BOMBA, "Causa 40 daño a enemigos", 40),
+            new Item(5, "Espada Sagrada", TipoItem.ESPADA, "Aumenta ataque en 30", 30),
+            new Item(6, "Escudo Magnífico", TipoItem.ESCUDO, "Aumenta defensa en 20", 20),
+            new Item(7, "Armadura Plateada", TipoItem.ARMADURA, "Aumenta defensa en 15", 15),
+            new Item(8, "Bola de Hielo", TipoItem.HIELO, "Hechizo hielo 25 daño", 25));
+    }
+
+    // Lee un catálogo candidato; no es válido si le falta algún ítem de botín
+    private static CatalogoItems leerCatalogo(Path archivo) throws IOException {
+        CatalogoItems leido;
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            leido = CatalogoItems.leer(lector);
+        }
+        TablaBotin.comprobarCatalogo(leido);
+        return leido;
+    }
+
+    /**
+     * Vuelve a leer el catálogo desde un archivo y lo publica.
+     * Si el archivo no es válido o no es compatible con el catálogo actual,
+     * se conserva el actual.
+     *
+     * @param archivo Archivo CSV del catálogo
+     * @return Catálogo publicado
+     * @throws IOException Si no se pudo leer el archivo
+     * @throws IllegalArgumentException Si el archivo tiene líneas no válidas,
+     *         le falta algún ítem de botín o quita o cambia algún ítem existente
+     */
+    public static CatalogoItems recargarCatalogo(Path archivo) throws IOException {
+        CatalogoItems nuevo = leerCatalogo(archivo);
+        publicar(nuevo);
+        return nuevo;
+    }
+
+    /**
+     * Publica un catálogo ya construido (por ejemplo, en pruebas o editores).
+     *
+     * @param nuevo Catálogo a publicar
+     * @return Catálogo que había antes
+     * @throws IllegalArgumentException Si le falta algún ítem de botín o
+     *         quita o cambia algún ítem existente
+     */
+    public static CatalogoItems reemplazarCatalogo(CatalogoItems nuevo) {
+        if (nuevo == null) throw new IllegalArgumentException("Catálogo nulo");
+        TablaBotin.comprobarCatalogo(nuevo);
+        return publicar(nuevo);
+    }
+
+    // Publica un catálogo compatible con el vigente en ese momento (reintenta si otro hilo publicó antes)
+    private static CatalogoItems publicar(CatalogoItems nuevo) {
+        while (true) {
+            CatalogoItems actual = catalogo.get();
+            comprobarCompatible(actual, nuevo);
+            if (catalogo.compareAndSet(actual, nuevo)) return actual;
+        }
+    }
+
+    // Cada id del catálogo actual debe seguir en el nuevo con el mismo nombre y tipo
+    private static void comprobarCompatible(CatalogoItems actual, CatalogoItems nuevo) {
+        for (Item anterior : actual.items()) {
+            Item item = nuevo.obtener(anterior.getId());
+            if (item == null) {
+                throw new IllegalArgumentException("Falta el ítem " + anterior.getId() + " ("
+                    + anterior.getNombre() + "): los ids existentes no se pueden quitar");
+            }
+            if (!item.getNombre().equals(anterior.getNombre()) || item.getTipo() != anterior.getTipo()) {
+                throw new IllegalArgumentException("El id " + anterior.getId() + " era "
+                    + anterior.getNombre() + " (" + anterior.getTipo() + ") y pasaría a ser "
+                    + item.getNombre() + " (" + item.getTipo() + "): los ids no se reutilizan");
+            }
+        }
+    }
+
+    /**
+     * Vigila un archivo de catálogo y lo recarga cada vez que se modifica.
+     * Usa un hilo daemon con WatchService; solo puede haber un vigilante activo.
+     * Si una recarga falla (archivo no válido o incompatible con el catálogo
+     * actual) se conserva el catálogo actual y el motivo se entrega a avisos
+     * (desde el hilo vigilante).
+     *
+     * @param archivo Archivo CSV a vigilar
+     * @param avisos Recibe el mensaje de cada recarga fallida
+     * @throws IOException Si no se pudo registrar el directorio
+     */
+    public static synchronized void vigilarArchivo(Path archivo, Consumer<String> avisos) throws IOException {
+        if (avisos == null) throw new IllegalArgumentException("Se necesita un destino para los avisos");
+        detenerVigilancia();
+        Path absoluto = archivo.toAbsolutePath();
+        Path directorio = absoluto.getParent();
+        Path nombre = absoluto.getFileName();
+        WatchService servicio = FileSystems.getDefault().newWatchService();
+        directorio.register(servicio,
+            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread hilo = new Thread(() -> {
+            try (WatchService s = servicio) {
+                while (!Thread.currentThread().isInterrupted()) {
+                    WatchKey clave = s.take();
+                    boolean cambiado = false;
+                    for (WatchEvent<?> evento : clave.pollEvents()) {
+                        if (nombre.equals(evento.context())) cambiado = true;
+                    }
+                    clave.reset();
+                    if (cambiado) {
+                        try {
+                            recargarCatalogo(absoluto);
+                        } catch (IOException | IllegalArgumentException e) {
+                            avisos.accept("Catálogo " + absoluto + " no recargado: " + e.getMessage());
+                        }
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Vigilancia detenida
+            } catch (IOException e) {
+                avisos.accept("Error al cerrar la vigilancia del catálogo: " + e.getMessage());
+            }
+        }, "vigilante-catalogo");
+        hilo.setDaemon(true);
+        vigilante = hilo;
+        hilo.start();
+    }
+
+    /**
+     * Detiene la vigilancia del archivo de catálogo, si la hay.
+     */
+    public static synchronized void detenerVigilancia() {
+        if (vigilante != null) {
+            vigilante.interrupt();
+            vigilante = null;
+        }
+    }
+
+    /**
+     * Obtiene la instantánea actual del catálogo.
+     * Es inmutable: se puede consultar varias veces sin ver una recarga a medias.
+     *
+     * @return Catálogo actual
+     */
+    public static CatalogoItems obtenerCatalogoActual() {
+        return catalogo.get();
     }
 
     /**
@@ -43,16 +253,36 @@ public class GestorObjetos {
      * @return Item si existe, null si no
      */
     public static Item obtenerItem(String nombre) {
-        return itemsDisponibles.get(nombre);
+        return catalogo.get().obtener(nombre);
+    }
+
+    /**
+     * Obtiene un ítem del catálogo por su id.
+     * 
+     * @param id Id de catálogo
+     * @return Item si existe, null si no
+     */
+    public static Item obtenerItem(int id) {
+        return catalogo.get().obtener(id);
+    }
+
+    /**
+     * Obtiene el id de catálogo de un ítem a partir de su nombre.
+     * 
+     * @param nombre Nombre del ítem
+     * @return Id del ítem, o -1 si no existe
+     */
+    public static int obtenerId(String nombre) {
+        return catalogo.get().obtenerId(nombre);
     }
 
     /**
      * Obtiene el mapa de todos los ítems disponibles.
      * 
-     * @return Map con todos los ítems
+     * @return Map inmutable con todos los ítems (sin copia)
      */
     public static Map<String, Item> obtenerTodosItems() {
-        return new HashMap<>(itemsDisponibles);
+        return catalogo.get().porNombre();
     }
 
     /**
@@ -98,7 +328,7 @@ public class GestorObjetos {
      */
     public static String obtenerCatalogo() {
         StringBuilder sb = new StringBuilder("=== CATÁLOGO DE ÍTEMS ===\n");
-        for (Item item : itemsDisponibles.values()) {
+        for (Item item : catalogo.get().items()) {
             sb.append(item.toString()).append("\n");
         }
         return sb.toString();
@@ -19,7 +19,8 @@ public class Heroe extends Personaje implements Sanador, Tanque, Hechicero {
     private final Tipo_Heroe tipo;  // Tipo de héroe (define sus habilidades disponibles)
     private int hpMax;              // HP máximo para cálculos de curación y barras de progreso
     private int mpMax;              // MP máximo para cálculos de magia
-    private final Inventario inventario = new Inventario(); // Inventario de objetos
+    private final Inventario inventario = new Inventario(this); // Inventario de objetos
+    private final Equipo equipo = new Equipo();                 // Arma, escudo y armadura
 
     /**
      * Constructor del héroe.
@@ -97,6 +98,99 @@ public class Heroe extends Personaje implements Sanador, Tanque, Hechicero {
         return inventario;
     }
 
+    // ==================== EQUIPO ====================
+
+    /**
+     * Equipa un ítem en la ranura que le corresponde según su tipo.
+     * Recalcula el ataque y la defensa efectivos.
+     * 
+     * @param item Ítem equipable (espada, escudo o armadura)
+     * @return Ítem que ocupaba la ranura, o null si estaba vacía
+     * @throws IllegalArgumentException Si el ítem no es equipable
+     */
+    public Item equipar(Item item) {
+        Equipo.Ranura ranura = Equipo.Ranura.de(item.getTipo());
+        if (ranura == null) {
+            throw new IllegalArgumentException(item.getNombre() + " no es equipable");
+        }
+        Item anterior = equipo.colocar(ranura, item);
+        registrarCambio(SistemaUndoRedo.Cambio.Campo.EQUIPO,
+            anterior == null ? -1 : anterior.getId(), item.getId(), ranura.ordinal());
+        actualizarBonos();
+        return anterior;
+    }
+
+    /**
+     * Vacía una ranura de equipo.
+     * 
+     * @param ranura Ranura a vaciar
+     * @return Ítem que ocupaba la ranura, o null si estaba vacía
+     */
+    public Item desequipar(Equipo.Ranura ranura) {
+        Item anterior = equipo.colocar(ranura, null);
+        if (anterior != null) {
+            registrarCambio(SistemaUndoRedo.Cambio.Campo.EQUIPO, anterior.getId(), -1, ranura.ordinal());
+            actualizarBonos();
+        }
+        return anterior;
+    }
+
+    /**
+     * Devuelve el equipo del héroe.
+     * @return Equipo con el ítem de cada ranura
+     */
+    public Equipo getEquipo() {
+        return equipo;
+    }
+
+    private void actualizarBonos() {
+        establecerBonos(equipo.getBonoAtaque(), equipo.getBonoDefensa());
+    }
+
+    @Override
+    int[] idsEquipo() {
+        Equipo.Ranura[] ranuras = Equipo.Ranura.values();
+        int[] ids = new int[ranuras.length];
+        for (int i = 0; i < ranuras.length; i++) ids[i] = equipo.obtenerId(ranuras[i]);
+        return ids;
+    }
+
+    /**
+     * Coloca en cada ranura el ítem guardado. Un id que ya no está en el
+     * catálogo, o cuyo ítem no va en esa ranura, deja la ranura vacía.
+     */
+    @Override
+    void restaurarEquipo(int[] ids) {
+        if (ids == null) return;
+        Equipo.Ranura[] ranuras = Equipo.Ranura.values();
+        for (int i = 0; i < ranuras.length; i++) {
+            Item item = i < ids.length ? GestorObjetos.obtenerItem(ids[i]) : null;
+            if (item != null && Equipo.Ranura.de(item.getTipo()) != ranuras[i]) item = null;
+            equipo.colocar(ranuras[i], item);
+        }
+        actualizarBonos();
+    }
+
+    /**
+     * Aplica un cambio registrado. Los cambios de ítems se aplican sobre el
+     * inventario y los de equipo sobre la ranura indicada.
+     * 
+     * @param cambio Cambio a aplicar
+     * @param rehacer true para aplicar el valor nuevo, false para el anterior
+     */
+    @Override
+    void aplicarCambio(SistemaUndoRedo.Cambio cambio, boolean rehacer) {
+        int valor = rehacer ? cambio.getNuevo() : cambio.getAnterior();
+        if (cambio.getCampo() == SistemaUndoRedo.Cambio.Campo.ITEM) {
+            inventario.establecerCantidad(cambio.getIndice(), valor);
+        } else if (cambio.getCampo() == SistemaUndoRedo.Cambio.Campo.EQUIPO) {
+            equipo.colocar(Equipo.Ranura.values()[cambio.getIndice()], GestorObjetos.obtenerItem(valor));
+            actualizarBonos();
+        } else {
+            super.aplicarCambio(cambio, rehacer);
+        }
+    }
+
     // ==================== HABILIDADES DE TANQUE (Guerrero/Paladín) ====================
 
     /**
@@ -112,8 +206,8 @@ public class Heroe extends Personaje implements Sanador, Tanque, Hechicero {
         if (!(tipo == Tipo_Heroe.GUERRERO || tipo == Tipo_Heroe.PALADIN)) return false;
         if (mp < 10) return false;
 
-        mp -= 10;
-        defensa += extra;
+        setMp(mp - 10);
+        setDefensa(defensa + extra);
         return true;
     }
 
@@ -130,7 +224,7 @@ public class Heroe extends Personaje implements Sanador, Tanque, Hechicero {
         if (!(tipo == Tipo_Heroe.GUERRERO || tipo == Tipo_Heroe.PALADIN)) return false;
         if (mp < 10) return false;
 
-        mp -= 10;
+        setMp(mp - 10);
 
         // Remover defensa anterior si existía
         if (aliado.estaSiendoDefendido()) aliado.removerDefensa();
@@ -152,7 +246,7 @@ public class Heroe extends Personaje implements Sanador, Tanque, Hechicero {
         if (!(tipo == Tipo_Heroe.GUERRERO || tipo == Tipo_Heroe.PALADIN)) return false;
         if (mp < 5) return false;
 
-        mp -= 5;
+        setMp(mp - 5);
 
         // Remover provocación anterior si existía
         if (enemigo.estaProvocado()) enemigo.removerProvocacion();
@@ -181,7 +275,7 @@ public class Heroe extends Personaje implements Sanador, Tanque, Hechicero {
         int costo = vivos * 3;
         if (mp < costo) return false;
 
-        mp -= costo;
+        setMp(mp - costo);
 
         // Aplicar provocación a todos los enemigos vivos
         for (Personaje e : enemigos) {
@@ -209,7 +303,7 @@ public class Heroe extends Personaje implements Sanador, Tanque, Hechicero {
         if (!(tipo == Tipo_Heroe.DRUIDA || tipo == Tipo_Heroe.PALADIN)) return false;
         if (mp < 15) return false;
 
-        mp -= 15;
+        setMp(mp - 15);
         objetivo.setHp(objetivo.getHp() + 30);
         return true;
     }
@@ -228,7 +322,7 @@ public class Heroe extends Personaje implements Sanador, Tanque, Hechicero {
         if (objetivo.esta_vivo()) return false;
         if (mp < 25) return false;
 
-        mp -= 25;
+        setMp(mp - 25);
         objetivo.setHp(50);
         return true;
     }
@@ -246,7 +340,7 @@ public class Heroe extends Personaje implements Sanador, Tanque, Hechicero {
         if (tipo != Tipo_Heroe.DRUIDA) return false;
         if (mp < 20) return false;
 
-        mp -= 20;
+        setMp(mp - 20);
         objetivo.setMp(objetivo.getMp() + 25);
         return true;
     }
@@ -281,7 +375,7 @@ public class Heroe extends Personaje implements Sanador, Tanque, Hechicero {
         if (!(tipo == Tipo_Heroe.MAGO || tipo == Tipo_Heroe.DRUIDA)) return false;
         if (mp < 20) return false;
 
-        mp -= 20;
+        setMp(mp - 20);
         objetivo.recibir_daño(40);
         return true;
     }
@@ -299,7 +393,7 @@ public class Heroe extends Personaje implements Sanador, Tanque, Hechicero {
         if (!(tipo == Tipo_Heroe.MAGO || tipo == Tipo_Heroe.DRUIDA)) return false;
         if (mp < 20) return false;
 
-        mp -= 20;
+        setMp(mp - 20);
         objetivo.aumentarAtaque(60);
         return true;
     }
@@ -317,7 +411,7 @@ public class Heroe extends Personaje implements Sanador, Tanque, Hechicero {
         if (!(tipo == Tipo_Heroe.MAGO || tipo == Tipo_Heroe.DRUIDA)) return false;
         if (mp < 25) return false;
 
-        mp -= 25;
+        setMp(mp - 25);
         objetivo.aplicarParalisis(1);
         return true;
     }
@@ -334,7 +428,7 @@ public class Heroe extends Personaje implements Sanador, Tanque, Hechicero {
     public int atacar(Personaje objetivo) {
         if (objetivo == null || !objetivo.esta_vivo()) return -1;
 
-        int daño = ataque - objetivo.getDefensa();
+        int daño = ataqueEfectivo - objetivo.getDefensa();
         if (daño < 1) daño = 1;
 
         objetivo.recibir_daño(daño);
@@ -352,8 +446,8 @@ public class Heroe extends Personaje implements Sanador, Tanque, Hechicero {
                 ", tipo=" + tipo +
                 ", HP=" + hp +
                 ", MP=" + mp +
-                ", ATK=" + ataque +
-                ", DEF=" + defensa +
+                ", ATK=" + ataqueEfectivo +
+                ", DEF=" + defensaEfectiva +
                 ", VEL=" + velocidad + "}";
     }
 
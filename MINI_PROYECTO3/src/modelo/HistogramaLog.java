@@ -0,0 +1,222 @@
+package modelo;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Histograma de valores enteros no negativos con cubetas logarítmicas
+ * (estilo HDR: cada potencia de dos se divide en 2^precision sub-cubetas).
+ *
+ * ESTRUCTURA DE DATOS: long[] de contadores indexado por cubeta
+ *
+ * JUSTIFICACIÓN:
+ * - Un promedio esconde las batallas largas; los percentiles (p50/p90/p99)
+ *   las muestran
+ * - Registrar un valor es calcular un índice con numberOfLeadingZeros y
+ *   sumar 1: O(1) y sin crear objetos, apto para el bucle del motor
+ * - El error relativo es como mucho 1/2^precision (~3% con precisión 5)
+ *   en todo el rango de long, con un array fijo de ~15 KB
+ * - Dos histogramas con la misma precisión se combinan sumando sus arrays,
+ *   así cada hilo o nodo registra en el suyo y se juntan al final
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - Guardar todos los valores y ordenarlos: memoria O(n) y O(n log n) por consulta
+ * - Cubetas lineales: o pierden precisión en valores pequeños o son enormes
+ * - TreeMap<Long, Long>: un objeto por valor distinto y sin combinación barata
+ *
+ * No es seguro entre hilos: usar uno por hilo y combinarlos con combinar().
+ */
+public class HistogramaLog {
+
+    public static final int PRECISION_POR_DEFECTO = 5;
+
+    private final int precision;         // Bits de sub-cubeta por potencia de dos
+    private final int subCubetas;        // 2^precision
+    private final long[] contadores;
+
+    private long total;
+    private long suma;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Constructor con precisión por defecto (~3% de error relativo).
+     */
+    public HistogramaLog() {
+        this(PRECISION_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor con precisión configurable.
+     *
+     * @param precision Bits de sub-cubeta (1 a 10); error relativo ≤ 1/2^precision
+     */
+    public HistogramaLog(int precision) {
+        if (precision < 1 || precision > 10) {
+            throw new IllegalArgumentException("La precisión debe estar entre 1 y 10");
+        }
+        this.precision = precision;
+        this.subCubetas = 1 << precision;
+        this.contadores = new long[(64 - precision) * subCubetas];
+    }
+
+    /**
+     * Registra un valor.
+     *
+     * @param valor Valor no negativo
+     */
+    public void registrar(long valor) {
+        registrar(valor, 1);
+    }
+
+    /**
+     * Registra un valor varias veces.
+     *
+     * @param valor Valor no negativo
+     * @param veces Número de apariciones
+     */
+    public void registrar(long valor, long veces) {
+        if (valor < 0) {
+            throw new IllegalArgumentException("El histograma solo admite valores no negativos: " + valor);
+        }
+        contadores[indice(valor)] += veces;
+        total += veces;
+        suma += valor * veces;
+        if (valor < min) min = valor;
+        if (valor > max) max = valor;
+    }
+
+    // Índice de cubeta: lineal por debajo de 2^precision, log-lineal por encima
+    private int indice(long valor) {
+        if (valor < subCubetas) return (int) valor;
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        long mantisa = valor >>> (exponente - precision);          // en [sub, 2*sub)
+        return (exponente - precision + 1) * subCubetas + (int) (mantisa - subCubetas);
+    }
+
+    // Mayor valor que cae en una cubeta
+    private long limiteSuperior(int indice) {
+        if (indice < subCubetas) return indice;
+        int bloque = indice / subCubetas;
+        int desplazamiento = bloque - 1;
+        long mantisa = subCubetas + (indice % subCubetas);
+        return (mantisa << desplazamiento) + (1L << desplazamiento) - 1;
+    }
+
+    /**
+     * Suma a este histograma los contadores de otro (de otro hilo o nodo).
+     *
+     * @param otro Histograma con la misma precisión
+     */
+    public void combinar(HistogramaLog otro) {
+        if (otro.precision != precision) {
+            throw new IllegalArgumentException("Solo se combinan histogramas con la misma precisión");
+        }
+        for (int i = 0; i < contadores.length; i++) {
+            contadores[i] += otro.contadores[i];
+        }
+        total += otro.total;
+        suma += otro.suma;
+        if (otro.min < min) min = otro.min;
+        if (otro.max > max) max = otro.max;
+    }
+
+    /**
+     * Obtiene el valor por debajo del cual cae el porcentaje indicado de registros.
+     *
+     * @param percentil Percentil entre 0 y 100 (por ejemplo 99)
+     * @return Valor del percentil (límite superior de su cubeta), o 0 si está vacío
+     */
+    public long percentil(double percentil) {
+        if (total == 0) return 0;
+        if (percentil < 0 || percentil > 100) {
+            throw new IllegalArgumentException("El percentil debe estar entre 0 y 100");
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(percentil / 100.0 * total));
+        long acumulado = 0;
+        for (int i = 0; i < contadores.length; i++) {
+            acumulado += contadores[i];
+            if (acumulado >= objetivo) {
+                return Math.min(Math.max(limiteSuperior(i), min), max);
+            }
+        }
+        return max;
+    }
+
+    public long getTotal() { return total; }
+    public long getMin() { return total == 0 ? 0 : min; }
+    public long getMax() { return total == 0 ? 0 : max; }
+
+    public double getMedia() {
+        return total == 0 ? 0 : (double) suma / total;
+    }
+
+    /**
+     * Vacía el histograma.
+     */
+    public void reiniciar() {
+        Arrays.fill(contadores, 0);
+        total = 0;
+        suma = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    /**
+     * Escribe el histograma en formato compacto (solo cubetas no vacías)
+     * para enviarlo a otro nodo.
+     *
+     * @param destino Buffer con espacio suficiente (ver bytesCodificados)
+     */
+    public void escribir(ByteBuffer destino) {
+        int noVacias = 0;
+        for (long c : contadores) if (c != 0) noVacias++;
+
+        destino.put((byte) precision);
+        destino.putLong(total).putLong(suma).putLong(min).putLong(max);
+        destino.putInt(noVacias);
+        for (int i = 0; i < contadores.length; i++) {
+            if (contadores[i] != 0) {
+                destino.putShort((short) i).putLong(contadores[i]);
+            }
+        }
+    }
+
+    /**
+     * Obtiene los bytes que ocupa el histograma codificado.
+     *
+     * @return Tamaño en bytes de escribir()
+     */
+    public int bytesCodificados() {
+        int noVacias = 0;
+        for (long c : contadores) if (c != 0) noVacias++;
+        return 1 + 4 * 8 + 4 + noVacias * (2 + 8);
+    }
+
+    /**
+     * Reconstruye un histograma escrito con escribir().
+     *
+     * @param origen Buffer posicionado al inicio del histograma
+     * @return Histograma leído
+     */
+    public static HistogramaLog leer(ByteBuffer origen) {
+        HistogramaLog h = new HistogramaLog(origen.get());
+        h.total = origen.getLong();
+        h.suma = origen.getLong();
+        h.min = origen.getLong();
+        h.max = origen.getLong();
+        int noVacias = origen.getInt();
+        for (int k = 0; k < noVacias; k++) {
+            int i = origen.getShort() & 0xFFFF;
+            h.contadores[i] = origen.getLong();
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        if (total == 0) return "sin datos";
+        return String.format("n=%d | media %.2f | p50 %d | p90 %d | p99 %d | máx %d",
+            total, getMedia(), percentil(50), percentil(90), percentil(99), getMax());
+    }
+}
@@ -0,0 +1,189 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Historia de la batalla turno a turno con estado persistente (inmutable y compartido).
+ * 
+ * ESTRUCTURA DE DATOS: ArrayList<Version> (línea activa) + árbol de versiones
+ * 
+ * Cada versión guarda un VectorPersistente<EstadoUnidad> con el estado de
+ * todos los personajes. Al capturar un turno nuevo solo se reemplazan las
+ * unidades que cambiaron; las demás se comparten con la versión anterior.
+ * 
+ * JUSTIFICACIÓN:
+ * - Obtener la versión de cualquier turno de la línea activa es O(1)
+ *   (índice en el ArrayList), sin rehacer ni deshacer acciones.
+ * - Cada versión tiene un puntero a su padre, así que al volver a un turno
+ *   anterior y seguir jugando se crea una rama ("¿y si...?") que solo
+ *   cuesta las unidades que cambian; la rama abandonada se conserva.
+ * 
+ * Es una alternativa al modelo de dos pilas de SistemaUndoRedo: en lugar de
+ * guardar cambios por acción guarda versiones completas compartidas por turno.
+ */
+public class HistoriaPersistente {
+
+    /**
+     * Versión inmutable del estado de la batalla en un turno.
+     */
+    public static final class Version {
+        private final Version padre;
+        private final int turno;                          // profundidad desde la raíz
+        private final VectorPersistente<EstadoUnidad> unidades;
+
+        private Version(Version padre, VectorPersistente<EstadoUnidad> unidades) {
+            this.padre = padre;
+            this.turno = padre == null ? 0 : padre.turno + 1;
+            this.unidades = unidades;
+        }
+
+        // Getters
+        public Version getPadre() { return padre; }
+        public int getTurno() { return turno; }
+        public int getNumeroUnidades() { return unidades.tamaño(); }
+        public EstadoUnidad getUnidad(int indice) { return unidades.obtener(indice); }
+    }
+
+    // Versiones de la línea activa: lineaActiva.get(t) es la versión del turno t
+    private final ArrayList<Version> lineaActiva;
+    // Puntas de las ramas abandonadas (cada una conserva su camino por los padres)
+    private final ArrayList<Version> ramas;
+    // Turno de la línea activa en el que se encuentra la batalla
+    private int turnoActual;
+    // Personajes de la batalla a los que se refieren los ids de las unidades
+    private EntidadesBatalla entidades;
+
+    /**
+     * Constructor que inicializa una historia vacía.
+     */
+    public HistoriaPersistente() {
+        this.lineaActiva = new ArrayList<>();
+        this.ramas = new ArrayList<>();
+        this.turnoActual = -1;
+    }
+
+    /**
+     * Captura el estado actual de los personajes como una nueva versión.
+     * Si antes se viajó a un turno anterior, la nueva versión abre una rama
+     * y la continuación previa se guarda como rama abandonada.
+     * 
+     * @param unidades Personajes de la batalla (siempre en el mismo orden)
+     * @return Turno asignado a la nueva versión
+     */
+    public int capturar(Personaje[] unidades) {
+        Version base = turnoActual < 0 ? null : lineaActiva.get(turnoActual);
+
+        // Si seguimos jugando desde un turno pasado, la continuación anterior pasa a ser rama
+        if (turnoActual < lineaActiva.size() - 1) {
+            ramas.add(lineaActiva.get(lineaActiva.size() - 1));
+            lineaActiva.subList(turnoActual + 1, lineaActiva.size()).clear();
+        }
+
+        VectorPersistente<EstadoUnidad> estado;
+        if (base == null || base.unidades.tamaño() != unidades.length) {
+            EstadoUnidad[] todas = new EstadoUnidad[unidades.length];
+            for (int i = 0; i < unidades.length; i++) todas[i] = new EstadoUnidad(unidades[i]);
+            estado = VectorPersistente.de(todas);
+        } else {
+            // Compartir las unidades que no cambiaron
+            estado = base.unidades;
+            for (int i = 0; i < unidades.length; i++) {
+                if (!estado.obtener(i).coincideCon(unidades[i])) {
+                    estado = estado.asignar(i, new EstadoUnidad(unidades[i]));
+                }
+            }
+        }
+
+        lineaActiva.add(new Version(base, estado));
+        turnoActual = lineaActiva.size() - 1;
+        return turnoActual;
+    }
+
+    /**
+     * Indica los personajes de la batalla sobre los que se restauran los turnos.
+     * 
+     * @param entidades Personajes de la batalla
+     */
+    public void setEntidades(EntidadesBatalla entidades) {
+        this.entidades = entidades;
+    }
+
+    /**
+     * Obtiene la versión de un turno de la línea activa en O(1).
+     * 
+     * @param turno Turno buscado
+     * @return Versión del turno, o null si no existe
+     */
+    public Version obtenerVersion(int turno) {
+        return (turno >= 0 && turno < lineaActiva.size()) ? lineaActiva.get(turno) : null;
+    }
+
+    /**
+     * Restaura a los personajes el estado de un turno de la línea activa.
+     * La siguiente captura creará una rama a partir de ese turno.
+     * 
+     * @param turno Turno al que se quiere volver
+     * @return true si el turno existía y se restauró
+     */
+    public boolean viajarA(int turno) {
+        Version version = obtenerVersion(turno);
+        if (version == null) return false;
+
+        for (int i = 0; i < version.unidades.tamaño(); i++) {
+            EstadoUnidad unidad = version.unidades.obtener(i);
+            Personaje p = entidades == null ? null : entidades.obtener(unidad.getId());
+            if (p != null && !unidad.coincideCon(p)) {
+                p.restaurarUnidad(unidad);
+            }
+        }
+        turnoActual = turno;
+        return true;
+    }
+
+    /**
+     * Cambia la línea activa a una rama abandonada y restaura su último turno.
+     * La línea activa actual pasa a ser una rama.
+     * 
+     * @param indiceRama Índice de la rama (0 a obtenerNumeroRamas()-1)
+     * @return true si la rama existía
+     */
+    public boolean cambiarARama(int indiceRama) {
+        if (indiceRama < 0 || indiceRama >= ramas.size()) return false;
+
+        Version punta = ramas.remove(indiceRama);
+        if (!lineaActiva.isEmpty()) {
+            ramas.add(lineaActiva.get(lineaActiva.size() - 1));
+        }
+
+        // Reconstruir la línea activa recorriendo los padres (O(profundidad))
+        lineaActiva.clear();
+        for (Version v = punta; v != null; v = v.padre) lineaActiva.add(v);
+        Collections.reverse(lineaActiva);
+
+        return viajarA(lineaActiva.size() - 1);
+    }
+
+    /**
+     * Obtiene las puntas de las ramas abandonadas.
+     * 
+     * @return Lista no modificable de versiones punta
+     */
+    public List<Version> obtenerRamas() {
+        return Collections.unmodifiableList(ramas);
+    }
+
+    public int obtenerNumeroRamas() { return ramas.size(); }
+    public int obtenerNumeroTurnos() { return lineaActiva.size(); }
+    public int obtenerTurnoActual() { return turnoActual; }
+
+    /**
+     * Elimina todas las versiones y ramas.
+     */
+    public void limpiar() {
+        lineaActiva.clear();
+        ramas.clear();
+        turnoActual = -1;
+    }
+}
@@ -1,25 +1,29 @@
 package modelo;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Clase que registra el historial de batallas completadas.
  * 
- * ESTRUCTURA DE DATOS: LinkedList<RegistroBatalla>
+ * ESTRUCTURA DE DATOS: ArrayList<RegistroBatalla>
  * 
  * JUSTIFICACIÓN:
- * - LinkedList es ideal para un historial porque proporciona:
- *   * Inserción O(1) al final (addLast), operación más frecuente
- *   * Acceso secuencial eficiente (iteración sobre historial)
- *   * Fácil acceso al último elemento (getLast) para ver batalla reciente
- *   * Mejor rendimiento que ArrayList para inserción al final
+ * - ArrayList es ideal para un historial porque proporciona:
+ *   * Inserción O(1) amortizada al final (add), operación más frecuente
+ *   * Acceso por índice O(1): la paginación por cursor salta directamente
+ *     a la página pedida
+ *   * Acceso secuencial eficiente y compacto en memoria (iteración, exportación)
+ *   * Acceso O(1) al último elemento para ver la batalla reciente
  * 
  * ALTERNATIVAS RECHAZADAS:
- * - ArrayList: Inserción O(n) al inicio si queremos cronológico inverso
+ * - LinkedList: Un nodo (~24 bytes) por batalla y acceso por índice O(n)
  * - Stack: No permite acceso aleatorio al historial
  * - Queue: Pensado para consumo, no para registro
  * - TreeSet: Innecesariamente ordenado
@@ -29,6 +33,28 @@ import java.util.List;
  * - Fecha y hora
  * - Duración en turnos
  * - Héroes participantes
+ * 
+ * Las estadísticas (victorias, derrotas, promedio, mínimo, máximo y varianza
+ * de turnos) se mantienen como acumuladores actualizados en O(1) al registrar
+ * cada batalla, por lo que consultarlas no recorre el historial. La varianza
+ * usa el algoritmo de Welford, numéricamente estable en una sola pasada.
+ * 
+ * Opcionalmente se conecta un AlmacenColumnarBatallas: cada batalla se anexa
+ * también al almacén en disco y, al conectarlo, los acumuladores se
+ * reconstruyen recorriendo sus columnas. La lista en memoria conserva solo
+ * las batallas de la sesión; las estadísticas cubren todas.
+ * 
+ * Un IndiceTemporalBatallas (TreeMap de cubetas por hora con totales
+ * precalculados) responde consultas por ventana de tiempo, como la tasa de
+ * victorias de las últimas 24 horas, sin recorrer el historial. Solo guarda
+ * totales por cubeta; las cubetas de los bordes se leen del almacén (o de la
+ * lista de la sesión si no hay almacén).
+ * 
+ * Un IndiceHeroesBatallas (listas invertidas comprimidas por héroe) responde
+ * "batallas de un héroe", su tasa de victorias y las batallas de un grupo.
+ * 
+ * Para volcar el historial completo se usa ExportadorHistorial (CSV, JSON
+ * Lines o binario por un canal, con memoria constante) u obtenerPagina.
  */
 public class HistorialBatallas {
 
@@ -42,6 +68,7 @@ public class HistorialBatallas {
         private LocalDateTime fecha;
         private int turnosUsados;
         private String[] nombresHeroes;
+        private TrazaBatalla traza;      // hp/mp por turno comprimidos (puede ser null)
 
         public RegistroBatalla(boolean victoriaHeroes, int turnosUsados, String[] nombresHeroes) {
             this.victoriaHeroes = victoriaHeroes;
@@ -50,11 +77,29 @@ public class HistorialBatallas {
             this.nombresHeroes = nombresHeroes;
         }
 
+        // Reconstruye un registro leído del almacén con su fecha original
+        RegistroBatalla(boolean victoriaHeroes, int turnosUsados, String[] nombresHeroes, LocalDateTime fecha) {
+            this.victoriaHeroes = victoriaHeroes;
+            this.fecha = fecha;
+            this.turnosUsados = turnosUsados;
+            this.nombresHeroes = nombresHeroes;
+        }
+
+        /**
+         * Obtiene la fecha de la batalla en milisegundos epoch (zona local).
+         * 
+         * @return Milisegundos desde 1970-01-01T00:00Z
+         */
+        public long getEpochMillis() {
+            return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
         // Getters
         public boolean esVictoriaHeroes() { return victoriaHeroes; }
         public LocalDateTime getFecha() { return fecha; }
         public int getTurnosUsados() { return turnosUsados; }
         public String[] getNombresHeroes() { return nombresHeroes; }
+        public TrazaBatalla getTraza() { return traza; }
 
         @Override
         public String toString() {
@@ -65,14 +110,54 @@ public class HistorialBatallas {
         }
     }
 
-    // LinkedList para mantener el orden de batallas (inserción al final O(1))
-    private LinkedList<RegistroBatalla> historial;
+    /**
+     * Página de resultados para recorrer el historial por partes.
+     */
+    public static class Pagina {
+        private final List<RegistroBatalla> registros;
+        private final long siguienteCursor;
+
+        private Pagina(List<RegistroBatalla> registros, long siguienteCursor) {
+            this.registros = registros;
+            this.siguienteCursor = siguienteCursor;
+        }
+
+        // Getters
+        public List<RegistroBatalla> getRegistros() { return registros; }
+        public long getSiguienteCursor() { return siguienteCursor; }
+        public boolean hayMas() { return siguienteCursor >= 0; }
+    }
+
+    // Máximo de batallas que muestra toString (el resto se exporta)
+    private static final int MAX_BATALLAS_TEXTO = 20;
+
+    // ArrayList para mantener el orden de batallas (inserción al final O(1) amortizada)
+    private ArrayList<RegistroBatalla> historial;
+
+    // Almacén en disco opcional (null si el historial es solo en memoria)
+    private AlmacenColumnarBatallas almacen;
+
+    // Índice por fecha con totales por cubeta (consultas por ventana de tiempo)
+    private final IndiceTemporalBatallas indiceTemporal = new IndiceTemporalBatallas(new FuenteRecorrible());
+
+    // Índice invertido héroe -> batallas (comparte diccionario con el almacén)
+    private IndiceHeroesBatallas indiceHeroes = new IndiceHeroesBatallas(new DiccionarioNombres());
+
+    // Acumuladores de estadísticas (actualizados en cada registro)
+    private int totalBatallas;
+    private int victorias;
+    private long sumaTurnos;
+    private int minTurnos;
+    private int maxTurnos;
+    private double mediaTurnos;      // Media móvil de Welford
+    private double m2Turnos;         // Suma de cuadrados de desviaciones (Welford)
 
     /**
      * Constructor que inicializa el historial vacío.
      */
     public HistorialBatallas() {
-        this.historial = new LinkedList<>();
+        this.historial = new ArrayList<>();
+        reiniciarEstadisticas();
     }
 
     /**
@@ -83,8 +168,130 @@ public class HistorialBatallas {
      * @param nombresHeroes Array con los nombres de los héroes
      */
     public void registrarBatalla(boolean victoriaHeroes, int turnosUsados, String[] nombresHeroes) {
+        registrar(new RegistroBatalla(victoriaHeroes, turnosUsados, nombresHeroes));
+    }
+
+    /**
+     * Registra una batalla completada junto con su traza de hp/mp por turno.
+     * La traza se conserva en memoria con el registro (el almacén en disco
+     * guarda solo las columnas básicas).
+     * 
+     * @param victoriaHeroes true si ganaron los héroes, false si ganaron enemigos
+     * @param turnosUsados Número de turnos que duró la batalla
+     * @param nombresHeroes Array con los nombres de los héroes
+     * @param traza Series comprimidas de hp y mp de cada unidad
+     */
+    public void registrarBatalla(boolean victoriaHeroes, int turnosUsados, String[] nombresHeroes,
+                                 TrazaBatalla traza) {
         RegistroBatalla registro = new RegistroBatalla(victoriaHeroes, turnosUsados, nombresHeroes);
-        historial.addLast(registro);
+        registro.traza = traza;
+        registrar(registro);
+    }
+
+    /**
+     * Añade un registro ya construido (con su fecha original) al historial,
+     * al almacén, a los índices y a los acumuladores.
+     * 
+     * @param registro Batalla a registrar
+     */
+    void registrar(RegistroBatalla registro) {
+        boolean victoriaHeroes = registro.esVictoriaHeroes();
+        int turnosUsados = registro.getTurnosUsados();
+        String[] nombresHeroes = registro.getNombresHeroes();
+
+        historial.add(registro);
+        long epochMillis = registro.getEpochMillis();
+        if (almacen != null) {
+            almacen.agregar(victoriaHeroes, turnosUsados, epochMillis, nombresHeroes);
+        }
+        indiceHeroes.agregar(totalBatallas, victoriaHeroes, nombresHeroes);
+        acumular(victoriaHeroes, turnosUsados, epochMillis);
+    }
+
+    /**
+     * Conecta un almacén columnar en disco.
+     * Reconstruye las estadísticas con las batallas guardadas y anexa al
+     * almacén las batallas de la sesión que aún no estaban en él.
+     * El historial no cierra el almacén: lo cierra quien lo abrió, después
+     * de desconectarlo con limpiar().
+     * 
+     * @param almacen Almacén ya abierto
+     */
+    public void conectarAlmacen(AlmacenColumnarBatallas almacen) {
+        this.almacen = almacen;
+        this.indiceHeroes = new IndiceHeroesBatallas(almacen.obtenerDiccionario());
+        reiniciarEstadisticas();
+
+        long guardadas = almacen.tamaño();
+        for (long i = 0; i < guardadas; i++) {
+            indiceHeroes.agregar(totalBatallas, almacen.esVictoria(i), almacen.obtenerIdsHeroes(i));
+            acumular(almacen.esVictoria(i), almacen.obtenerTurnos(i), almacen.obtenerFecha(i));
+        }
+        for (RegistroBatalla r : historial) {
+            long epochMillis = r.getEpochMillis();
+            almacen.agregar(r.esVictoriaHeroes(), r.getTurnosUsados(), epochMillis, r.getNombresHeroes());
+            indiceHeroes.agregar(totalBatallas, r.esVictoriaHeroes(), r.getNombresHeroes());
+            acumular(r.esVictoriaHeroes(), r.getTurnosUsados(), epochMillis);
+        }
+    }
+
+    /**
+     * Obtiene el almacén conectado.
+     * 
+     * @return Almacén columnar, o null si el historial es solo en memoria
+     */
+    public AlmacenColumnarBatallas obtenerAlmacen() {
+        return almacen;
+    }
+
+    /**
+     * Lee una batalla guardada en el almacén.
+     * 
+     * @param indice Índice de la batalla en el almacén
+     * @return Registro reconstruido desde las columnas
+     */
+    public RegistroBatalla obtenerBatallaAlmacenada(long indice) {
+        if (almacen == null) {
+            throw new IllegalStateException("No hay almacén conectado");
+        }
+        LocalDateTime fecha = LocalDateTime.ofInstant(
+            Instant.ofEpochMilli(almacen.obtenerFecha(indice)), ZoneId.systemDefault());
+        return new RegistroBatalla(almacen.esVictoria(indice), almacen.obtenerTurnos(indice),
+            almacen.obtenerNombresHeroes(indice), fecha);
+    }
+
+    /**
+     * Actualiza los acumuladores con una batalla nueva en O(1).
+     * 
+     * @param victoria true si ganaron los héroes
+     * @param turnos Turnos que duró la batalla
+     * @param epochMillis Fecha de la batalla
+     */
+    private void acumular(boolean victoria, int turnos, long epochMillis) {
+        indiceTemporal.agregar(totalBatallas, epochMillis, victoria, turnos);
+        totalBatallas++;
+        if (victoria) victorias++;
+        sumaTurnos += turnos;
+        if (turnos < minTurnos) minTurnos = turnos;
+        if (turnos > maxTurnos) maxTurnos = turnos;
+
+        // Welford: actualiza media y M2 sin guardar los valores anteriores
+        int n = totalBatallas;
+        double delta = turnos - mediaTurnos;
+        mediaTurnos += delta / n;
+        m2Turnos += delta * (turnos - mediaTurnos);
+    }
+
+    private void reiniciarEstadisticas() {
+        indiceTemporal.limpiar();
+        indiceHeroes.limpiar();
+        totalBatallas = 0;
+        victorias = 0;
+        sumaTurnos = 0;
+        minTurnos = Integer.MAX_VALUE;
+        maxTurnos = Integer.MIN_VALUE;
+        mediaTurnos = 0;
+        m2Turnos = 0;
     }
 
     /**
@@ -93,25 +300,78 @@ public class HistorialBatallas {
      * @return RegistroBatalla más reciente, o null si no hay batallas
      */
     public RegistroBatalla obtenerUltimaBatalla() {
-        return historial.isEmpty() ? null : historial.getLast();
+        return historial.isEmpty() ? null : historial.get(historial.size() - 1);
     }
 
     /**
-     * Obtiene todo el historial de batallas.
+     * Obtiene todo el historial de batallas de la sesión.
      * 
-     * @return Lista con todas las batallas registradas
+     * @return Vista de solo lectura (sin copia) de las batallas registradas
      */
     public List<RegistroBatalla> obtenerHistorial() {
-        return new LinkedList<>(historial);
+        return Collections.unmodifiableList(historial);
+    }
+
+    /**
+     * Obtiene una página del historial a partir de un cursor.
+     * Con almacén conectado recorre todas las batallas guardadas; si no,
+     * las de la sesión. El primer cursor es 0.
+     * 
+     * @param cursor Posición de la primera batalla de la página
+     * @param tamaño Máximo de batallas de la página
+     * @return Página con las batallas y el cursor siguiente (-1 si no hay más)
+     */
+    public Pagina obtenerPagina(long cursor, int tamaño) {
+        if (cursor < 0 || tamaño < 1) {
+            throw new IllegalArgumentException("Cursor o tamaño de página no válidos");
+        }
+        long total = contarRecorribles();
+        long fin = Math.min(total, cursor + tamaño);
+        List<RegistroBatalla> registros = new ArrayList<>((int) Math.max(0, fin - cursor));
+        for (long i = cursor; i < fin; i++) {
+            registros.add(obtenerRecorrible(i));
+        }
+        return new Pagina(registros, fin < total ? fin : -1);
+    }
+
+    // Batallas que recorren la paginación y la exportación: las del almacén si hay uno
+    long contarRecorribles() {
+        return almacen != null ? almacen.tamaño() : historial.size();
+    }
+
+    RegistroBatalla obtenerRecorrible(long indice) {
+        return almacen != null ? obtenerBatallaAlmacenada(indice) : historial.get((int) indice);
+    }
+
+    /**
+     * Lectura por índice para las cubetas de borde del índice temporal:
+     * columnas del almacén si hay uno (sin crear registros), si no la lista
+     * de la sesión. Los índices coinciden con el orden de acumular().
+     */
+    private final class FuenteRecorrible implements IndiceTemporalBatallas.FuenteBatallas {
+        @Override
+        public long obtenerFecha(long indice) {
+            return almacen != null ? almacen.obtenerFecha(indice) : historial.get((int) indice).getEpochMillis();
+        }
+
+        @Override
+        public boolean esVictoria(long indice) {
+            return almacen != null ? almacen.esVictoria(indice) : historial.get((int) indice).esVictoriaHeroes();
+        }
+
+        @Override
+        public int obtenerTurnos(long indice) {
+            return almacen != null ? almacen.obtenerTurnos(indice) : historial.get((int) indice).getTurnosUsados();
+        }
     }
 
     /**
      * Obtiene el número total de batallas completadas.
      * 
-     * @return Cantidad de batallas en el historial
+     * @return Cantidad de batallas (incluidas las del almacén conectado)
      */
     public int obtenerTotalBatallas() {
-        return historial.size();
+        return totalBatallas;
     }
 
     /**
@@ -120,9 +380,7 @@ public class HistorialBatallas {
      * @return Cantidad de victorias de héroes
      */
     public int obtenerVictorias() {
-        return (int) historial.stream()
-            .filter(RegistroBatalla::esVictoriaHeroes)
-            .count();
+        return victorias;
     }
 
     /**
@@ -131,7 +389,7 @@ public class HistorialBatallas {
      * @return Cantidad de derrotas
      */
     public int obtenerDerrotas() {
-        return historial.size() - obtenerVictorias();
+        return totalBatallas - victorias;
     }
 
     /**
@@ -140,33 +398,149 @@ public class HistorialBatallas {
      * @return Promedio de turnos, o 0 si no hay batallas
      */
     public double obtenerPromedioTurnos() {
-        if (historial.isEmpty()) return 0;
-        return historial.stream()
-            .mapToInt(RegistroBatalla::getTurnosUsados)
-            .average()
-            .orElse(0);
+        if (totalBatallas == 0) return 0;
+        return (double) sumaTurnos / totalBatallas;
+    }
+
+    /**
+     * Obtiene la suma de turnos de todas las batallas.
+     * 
+     * @return Total de turnos jugados
+     */
+    public long obtenerTotalTurnos() {
+        return sumaTurnos;
+    }
+
+    /**
+     * Obtiene la batalla más corta en turnos.
+     * 
+     * @return Mínimo de turnos, o 0 si no hay batallas
+     */
+    public int obtenerMinTurnos() {
+        return totalBatallas == 0 ? 0 : minTurnos;
+    }
+
+    /**
+     * Obtiene la batalla más larga en turnos.
+     * 
+     * @return Máximo de turnos, o 0 si no hay batallas
+     */
+    public int obtenerMaxTurnos() {
+        return totalBatallas == 0 ? 0 : maxTurnos;
+    }
+
+    /**
+     * Obtiene la varianza muestral de los turnos por batalla.
+     * 
+     * @return Varianza, o 0 si hay menos de dos batallas
+     */
+    public double obtenerVarianzaTurnos() {
+        int n = totalBatallas;
+        return n < 2 ? 0 : m2Turnos / (n - 1);
+    }
+
+    /**
+     * Obtiene la desviación típica de los turnos por batalla.
+     * 
+     * @return Desviación típica, o 0 si hay menos de dos batallas
+     */
+    public double obtenerDesviacionTurnos() {
+        return Math.sqrt(obtenerVarianzaTurnos());
     }
 
     /**
-     * Limpia el historial de batallas.
+     * Resume las batallas ocurridas en una ventana de tiempo.
+     * 
+     * @param desde Inicio de la ventana (incluido)
+     * @param hasta Fin de la ventana (excluido)
+     * @return Batallas, victorias y turnos de la ventana
      */
-    public void limpiar() {
+    public IndiceTemporalBatallas.ResumenVentana consultarVentana(LocalDateTime desde, LocalDateTime hasta) {
+        ZoneId zona = ZoneId.systemDefault();
+        return indiceTemporal.consultar(
+            desde.atZone(zona).toInstant().toEpochMilli(),
+            hasta.atZone(zona).toInstant().toEpochMilli());
+    }
+
+    /**
+     * Resume las batallas de las últimas horas (por ejemplo, 24).
+     * 
+     * @param horas Tamaño de la ventana en horas
+     * @return Batallas, victorias y turnos de la ventana
+     */
+    public IndiceTemporalBatallas.ResumenVentana consultarUltimasHoras(int horas) {
+        long ahora = System.currentTimeMillis();
+        return indiceTemporal.consultar(ahora - horas * 3_600_000L, ahora + 1);
+    }
+
+    /**
+     * Obtiene las batallas y victorias de un héroe en O(1).
+     * 
+     * @param nombre Nombre del héroe
+     * @return Batallas jugadas, victorias y tasa de victorias
+     */
+    public IndiceHeroesBatallas.ResumenHeroes obtenerEstadisticasHeroe(String nombre) {
+        return indiceHeroes.resumenHeroe(nombre);
+    }
+
+    /**
+     * Obtiene las batallas en las que participaron juntos todos los héroes indicados.
+     * 
+     * @param nombres Héroes del grupo
+     * @return Batallas jugadas juntos, victorias y tasa de victorias
+     */
+    public IndiceHeroesBatallas.ResumenHeroes obtenerEstadisticasGrupo(String... nombres) {
+        return indiceHeroes.resumenGrupo(nombres);
+    }
+
+    /**
+     * Obtiene los índices de las batallas en las que participó un héroe.
+     * Con almacén conectado son índices del almacén (obtenerBatallaAlmacenada).
+     * 
+     * @param nombre Nombre del héroe
+     * @return Índices de batalla en orden cronológico
+     */
+    public int[] obtenerBatallasDeHeroe(String nombre) {
+        return indiceHeroes.batallasDeHeroe(nombre);
+    }
+
+    /**
+     * Limpia el historial de batallas en memoria.
+     * Si había un almacén conectado solo se desconecta: no se cierra ni se
+     * vacía, sus batallas siguen en disco y otro registrador puede seguir
+     * usándolo. Quien lo abrió debe cerrarlo con el valor devuelto.
+     *
+     * @return Almacén que estaba conectado (sigue abierto), o null si no había
+     */
+    public AlmacenColumnarBatallas limpiar() {
+        AlmacenColumnarBatallas desconectado = almacen;
         historial.clear();
+        almacen = null;
+        indiceHeroes = new IndiceHeroesBatallas(new DiccionarioNombres());
+        reiniciarEstadisticas();
+        return desconectado;
     }
 
     @Override
     public String toString() {
-        if (historial.isEmpty()) {
+        if (totalBatallas == 0) {
             return "Sin batallas registradas";
         }
         StringBuilder sb = new StringBuilder("=== HISTORIAL DE BATALLAS ===\n");
-        sb.append("Total: ").append(historial.size())
-          .append(" | Victorias: ").append(obtenerVictorias())
+        sb.append("Total: ").append(totalBatallas)
+          .append(" | Victorias: ").append(victorias)
           .append(" | Derrotas: ").append(obtenerDerrotas())
-          .append("\n\n");
+          .append("\n");
+        sb.append(String.format("Turnos: promedio %.2f | mín %d | máx %d | desv %.2f%n%n",
+            obtenerPromedioTurnos(), minTurnos, maxTurnos, obtenerDesviacionTurnos()));
         
-        for (RegistroBatalla batalla : historial) {
-            sb.append(batalla).append("\n");
+        // Solo las últimas batallas: el historial completo se exporta por canal
+        int desde = Math.max(0, historial.size() - MAX_BATALLAS_TEXTO);
+        if (desde > 0) {
+            sb.append("... ").append(desde).append(" batallas anteriores (ver ExportadorHistorial)\n");
+        }
+        for (int i = desde; i < historial.size(); i++) {
+            sb.append(historial.get(i)).append("\n");
         }
         return sb.toString();
     }
@@ -0,0 +1,252 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Índice invertido: para cada héroe, las batallas en las que participó.
+ *
+ * ESTRUCTURA DE DATOS: ArrayList<ListaPostings> indexado por id de héroe
+ *   - El id de héroe lo asigna un DiccionarioNombres (compartido con el
+ *     AlmacenColumnarBatallas si hay uno conectado)
+ *   - Cada lista guarda los ids de batalla crecientes como diferencias
+ *     codificadas en varint (1 byte por batalla si el héroe juega a menudo)
+ *   - Un bitset (long[]) guarda el resultado de cada batalla
+ *
+ * JUSTIFICACIÓN:
+ * - "Batallas de Angelo" deja de recorrer todos los registros y todos los
+ *   nombres: se lee solo su lista
+ * - La tasa de victorias por héroe se mantiene con dos contadores: O(1)
+ * - La coincidencia de un grupo es la intersección de listas ordenadas,
+ *   avanzando siempre la lista con el id más pequeño: O(suma de longitudes)
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - HashMap<String, List<Integer>>: un Integer (16 bytes) más una referencia
+ *   por aparición frente a ~1 byte con deltas varint
+ * - Bitmap por héroe: ocupa n/8 bytes aunque el héroe juegue poco
+ */
+public class IndiceHeroesBatallas {
+
+    /**
+     * Lista de ids de batalla crecientes codificados como deltas varint.
+     */
+    private static final class ListaPostings {
+        private byte[] datos = new byte[8];
+        private int longitud;        // Bytes usados
+        private int cantidad;        // Batallas en la lista
+        private int victorias;       // Batallas ganadas de la lista
+        private int ultimo = -1;     // Último id añadido
+
+        void agregar(int batalla, boolean victoria) {
+            if (batalla <= ultimo) return;   // Héroe repetido en la misma batalla
+            int delta = batalla - ultimo;
+            ultimo = batalla;
+            cantidad++;
+            if (victoria) victorias++;
+
+            // Varint: 7 bits por byte, bit alto = continúa
+            if (longitud + 5 > datos.length) {
+                datos = Arrays.copyOf(datos, Math.max(datos.length * 2, longitud + 5));
+            }
+            while ((delta & ~0x7F) != 0) {
+                datos[longitud++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            datos[longitud++] = (byte) delta;
+        }
+    }
+
+    /**
+     * Recorrido secuencial de una lista de postings.
+     */
+    private static final class Cursor {
+        private final ListaPostings lista;
+        private int posicion;
+        private int actual = -1;
+
+        Cursor(ListaPostings lista) {
+            this.lista = lista;
+        }
+
+        /** Avanza a la siguiente batalla; devuelve -1 al terminar. */
+        int siguiente() {
+            if (posicion >= lista.longitud) return actual = -1;
+            int delta = 0;
+            int desplazamiento = 0;
+            byte b;
+            do {
+                b = lista.datos[posicion++];
+                delta |= (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while ((b & 0x80) != 0);
+            return actual += delta;
+        }
+    }
+
+    /**
+     * Batallas y victorias de un héroe o de un grupo de héroes.
+     */
+    public static class ResumenHeroes {
+        private final int batallas;
+        private final int victorias;
+
+        private ResumenHeroes(int batallas, int victorias) {
+            this.batallas = batallas;
+            this.victorias = victorias;
+        }
+
+        // Getters
+        public int getBatallas() { return batallas; }
+        public int getVictorias() { return victorias; }
+
+        public double getTasaVictorias() {
+            return batallas == 0 ? 0 : (double) victorias / batallas;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d batallas | %d victorias (%.1f%%)",
+                batallas, victorias, getTasaVictorias() * 100);
+        }
+    }
+
+    private final DiccionarioNombres diccionario;
+    private final ArrayList<ListaPostings> listas;
+    private long[] resultados;       // Bit i = victoria en la batalla i
+
+    /**
+     * Constructor del índice.
+     *
+     * @param diccionario Diccionario que asigna ids a los nombres de héroe
+     */
+    public IndiceHeroesBatallas(DiccionarioNombres diccionario) {
+        this.diccionario = diccionario;
+        this.listas = new ArrayList<>();
+        this.resultados = new long[16];
+    }
+
+    /**
+     * Indexa una batalla. Los ids de batalla deben llegar en orden creciente.
+     *
+     * @param batalla Id de la batalla (su posición en el historial)
+     * @param victoria true si ganaron los héroes
+     * @param nombresHeroes Nombres de los héroes participantes
+     */
+    public void agregar(int batalla, boolean victoria, String[] nombresHeroes) {
+        int[] ids = new int[nombresHeroes.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = diccionario.obtenerId(nombresHeroes[i]);
+        }
+        agregar(batalla, victoria, ids);
+    }
+
+    /**
+     * Indexa una batalla con los héroes ya convertidos a id.
+     *
+     * @param batalla Id de la batalla (su posición en el historial)
+     * @param victoria true si ganaron los héroes
+     * @param idsHeroes Ids de DiccionarioNombres de los héroes participantes
+     */
+    public void agregar(int batalla, boolean victoria, int[] idsHeroes) {
+        int palabra = batalla >>> 6;
+        if (palabra >= resultados.length) {
+            resultados = Arrays.copyOf(resultados, Math.max(resultados.length * 2, palabra + 1));
+        }
+        if (victoria) resultados[palabra] |= 1L << batalla;
+
+        for (int id : idsHeroes) {
+            while (listas.size() <= id) listas.add(new ListaPostings());
+            listas.get(id).agregar(batalla, victoria);
+        }
+    }
+
+    /**
+     * Obtiene las batallas y victorias de un héroe en O(1).
+     *
+     * @param nombre Nombre del héroe
+     * @return Resumen del héroe (vacío si nunca ha luchado)
+     */
+    public ResumenHeroes resumenHeroe(String nombre) {
+        ListaPostings lista = buscarLista(nombre);
+        return lista == null ? new ResumenHeroes(0, 0) : new ResumenHeroes(lista.cantidad, lista.victorias);
+    }
+
+    /**
+     * Obtiene los ids de las batallas en las que participó un héroe.
+     *
+     * @param nombre Nombre del héroe
+     * @return Ids de batalla en orden creciente
+     */
+    public int[] batallasDeHeroe(String nombre) {
+        ListaPostings lista = buscarLista(nombre);
+        if (lista == null) return new int[0];
+        int[] batallas = new int[lista.cantidad];
+        Cursor c = new Cursor(lista);
+        for (int i = 0; i < batallas.length; i++) batallas[i] = c.siguiente();
+        return batallas;
+    }
+
+    /**
+     * Obtiene las batallas en las que participaron juntos todos los héroes
+     * indicados, intersectando sus listas.
+     *
+     * @param nombres Nombres de los héroes del grupo
+     * @return Batallas y victorias del grupo
+     */
+    public ResumenHeroes resumenGrupo(String... nombres) {
+        if (nombres.length == 0) return new ResumenHeroes(0, 0);
+
+        Cursor[] cursores = new Cursor[nombres.length];
+        for (int i = 0; i < nombres.length; i++) {
+            ListaPostings lista = buscarLista(nombres[i]);
+            if (lista == null) return new ResumenHeroes(0, 0);
+            cursores[i] = new Cursor(lista);
+            if (cursores[i].siguiente() < 0) return new ResumenHeroes(0, 0);
+        }
+
+        int batallas = 0;
+        int victorias = 0;
+        while (true) {
+            // Buscar el mayor id actual; los demás cursores avanzan hasta él
+            int objetivo = -1;
+            for (Cursor c : cursores) objetivo = Math.max(objetivo, c.actual);
+
+            boolean coinciden = true;
+            for (Cursor c : cursores) {
+                while (c.actual >= 0 && c.actual < objetivo) c.siguiente();
+                if (c.actual < 0) return new ResumenHeroes(batallas, victorias);
+                if (c.actual != objetivo) coinciden = false;
+            }
+
+            if (coinciden) {
+                batallas++;
+                if ((resultados[objetivo >>> 6] & (1L << objetivo)) != 0) victorias++;
+                for (Cursor c : cursores) {
+                    if (c.siguiente() < 0) return new ResumenHeroes(batallas, victorias);
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene el diccionario de nombres usado por el índice.
+     *
+     * @return Diccionario de héroes
+     */
+    public DiccionarioNombres obtenerDiccionario() {
+        return diccionario;
+    }
+
+    /**
+     * Elimina todas las batallas del índice (el diccionario se conserva).
+     */
+    public void limpiar() {
+        listas.clear();
+        resultados = new long[16];
+    }
+
+    private ListaPostings buscarLista(String nombre) {
+        int id = diccionario.buscarId(nombre);
+        return id < 0 || id >= listas.size() ? null : listas.get(id);
+    }
+}
@@ -0,0 +1,213 @@
+package modelo;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Índice temporal de batallas con agregados precalculados por intervalo.
+ *
+ * ESTRUCTURA DE DATOS: TreeMap<Long, Cubeta> (árbol rojo-negro)
+ *   - Clave: inicio del intervalo en milisegundos epoch (múltiplo de anchoCubeta)
+ *   - Cubeta: solo totales del intervalo (batallas, victorias, turnos) y el
+ *     rango de índices de sus batallas en la fuente (almacén o historial)
+ *
+ * JUSTIFICACIÓN:
+ * - TreeMap localiza el primer intervalo de una ventana en O(log n) y
+ *   recorre los siguientes en orden (subMap)
+ * - Los intervalos completamente dentro de la ventana aportan sus totales
+ *   en O(1); las dos cubetas de los bordes se resuelven leyendo la columna
+ *   de fechas de la fuente en su rango de índices
+ * - La memoria depende del número de cubetas, no de batallas: el índice no
+ *   duplica en el heap un historial que vive en el almacén columnar
+ * - Consulta: O(log c + cubetas de la ventana + batallas de los bordes)
+ *
+ * Las batallas se registran en orden cronológico, así que el rango de índices
+ * de una cubeta contiene casi solo sus batallas; si alguna llega fuera de
+ * orden, el recorrido del borde lee también las intermedias y las descarta
+ * por fecha.
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - Recorrer el historial comparando getFecha(): O(n) por consulta
+ * - Guardar fecha y resultado de cada batalla en la cubeta: una segunda copia
+ *   completa del historial en el heap
+ * - Un TreeMap por batalla: un nodo (~40 bytes) por registro y O(k) por ventana
+ * - HashMap de cubetas: no permite rangos ordenados
+ */
+public class IndiceTemporalBatallas {
+
+    /** Ancho de cubeta por defecto: una hora. */
+    public static final long ANCHO_POR_DEFECTO = 60L * 60 * 1000;
+
+    /**
+     * Acceso por índice a las batallas indexadas (el almacén columnar o el
+     * historial en memoria). Solo se consulta para las cubetas de los bordes.
+     */
+    public interface FuenteBatallas {
+        long obtenerFecha(long indice);
+        boolean esVictoria(long indice);
+        int obtenerTurnos(long indice);
+    }
+
+    /**
+     * Totales de un intervalo de tiempo y rango de índices de sus batallas.
+     */
+    private static final class Cubeta {
+        int batallas;
+        int victorias;
+        long sumaTurnos;
+        long primerIndice = Long.MAX_VALUE;
+        long ultimoIndice = Long.MIN_VALUE;
+
+        void agregar(long indice, boolean victoria, int turnos) {
+            batallas++;
+            if (victoria) victorias++;
+            sumaTurnos += turnos;
+            if (indice < primerIndice) primerIndice = indice;
+            if (indice > ultimoIndice) ultimoIndice = indice;
+        }
+    }
+
+    /**
+     * Resultado agregado de una ventana de tiempo.
+     */
+    public static class ResumenVentana {
+        private final int batallas;
+        private final int victorias;
+        private final long sumaTurnos;
+
+        private ResumenVentana(int batallas, int victorias, long sumaTurnos) {
+            this.batallas = batallas;
+            this.victorias = victorias;
+            this.sumaTurnos = sumaTurnos;
+        }
+
+        // Getters
+        public int getBatallas() { return batallas; }
+        public int getVictorias() { return victorias; }
+        public int getDerrotas() { return batallas - victorias; }
+        public long getSumaTurnos() { return sumaTurnos; }
+
+        public double getTasaVictorias() {
+            return batallas == 0 ? 0 : (double) victorias / batallas;
+        }
+
+        public double getPromedioTurnos() {
+            return batallas == 0 ? 0 : (double) sumaTurnos / batallas;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d batallas | %.1f%% victorias | %.2f turnos de promedio",
+                batallas, getTasaVictorias() * 100, getPromedioTurnos());
+        }
+    }
+
+    private final TreeMap<Long, Cubeta> cubetas;
+    private final long anchoCubeta;
+    private final FuenteBatallas fuente;
+
+    /**
+     * Constructor con cubetas de una hora.
+     *
+     * @param fuente Batallas indexadas, leídas por índice en los bordes
+     */
+    public IndiceTemporalBatallas(FuenteBatallas fuente) {
+        this(fuente, ANCHO_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor con ancho de cubeta configurable.
+     *
+     * @param fuente Batallas indexadas, leídas por índice en los bordes
+     * @param anchoCubeta Milisegundos que cubre cada cubeta (mínimo 1)
+     */
+    public IndiceTemporalBatallas(FuenteBatallas fuente, long anchoCubeta) {
+        if (fuente == null) {
+            throw new IllegalArgumentException("El índice necesita una fuente de batallas");
+        }
+        if (anchoCubeta < 1) {
+            throw new IllegalArgumentException("El ancho de cubeta debe ser positivo");
+        }
+        this.cubetas = new TreeMap<>();
+        this.anchoCubeta = anchoCubeta;
+        this.fuente = fuente;
+    }
+
+    /**
+     * Indexa una batalla. Solo actualiza los totales de su cubeta.
+     *
+     * @param indice Posición de la batalla en la fuente
+     * @param epochMillis Fecha de la batalla
+     * @param victoria true si ganaron los héroes
+     * @param turnos Turnos que duró la batalla
+     */
+    public void agregar(long indice, long epochMillis, boolean victoria, int turnos) {
+        long inicio = Math.floorDiv(epochMillis, anchoCubeta) * anchoCubeta;
+        Cubeta c = cubetas.get(inicio);
+        if (c == null) {
+            c = new Cubeta();
+            cubetas.put(inicio, c);
+        }
+        c.agregar(indice, victoria, turnos);
+    }
+
+    /**
+     * Resume las batallas con fecha en [desde, hasta).
+     *
+     * @param desde Inicio de la ventana en milisegundos epoch (incluido)
+     * @param hasta Fin de la ventana en milisegundos epoch (excluido)
+     * @return Totales de la ventana
+     */
+    public ResumenVentana consultar(long desde, long hasta) {
+        int batallas = 0;
+        int victorias = 0;
+        long sumaTurnos = 0;
+        if (desde >= hasta) return new ResumenVentana(0, 0, 0);
+
+        long primera = Math.floorDiv(desde, anchoCubeta) * anchoCubeta;
+        for (Map.Entry<Long, Cubeta> e : cubetas.subMap(primera, true, hasta, false).entrySet()) {
+            long inicio = e.getKey();
+            Cubeta c = e.getValue();
+            if (inicio >= desde && inicio + anchoCubeta <= hasta) {
+                // Cubeta completa: usar los totales precalculados
+                batallas += c.batallas;
+                victorias += c.victorias;
+                sumaTurnos += c.sumaTurnos;
+            } else {
+                // Cubeta de borde: leer las fechas de la fuente en su rango
+                // de índices (las batallas de otras cubetas quedan fuera por fecha)
+                long minimo = Math.max(desde, inicio);
+                long maximo = Math.min(hasta, inicio + anchoCubeta);
+                for (long i = c.primerIndice; i <= c.ultimoIndice; i++) {
+                    long fecha = fuente.obtenerFecha(i);
+                    if (fecha >= minimo && fecha < maximo) {
+                        batallas++;
+                        if (fuente.esVictoria(i)) victorias++;
+                        sumaTurnos += fuente.obtenerTurnos(i);
+                    }
+                }
+            }
+        }
+        return new ResumenVentana(batallas, victorias, sumaTurnos);
+    }
+
+    /**
+     * Obtiene el número de cubetas con al menos una batalla.
+     *
+     * @return Cubetas no vacías
+     */
+    public int obtenerNumeroCubetas() {
+        return cubetas.size();
+    }
+
+    public long obtenerAnchoCubeta() {
+        return anchoCubeta;
+    }
+
+    /**
+     * Elimina todas las batallas del índice.
+     */
+    public void limpiar() {
+        cubetas.clear();
+    }
+}
@@ -1,163 +1,390 @@
 package modelo;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Clase que representa el inventario de un héroe.
- * 
- * ESTRUCTURA DE DATOS: HashMap<String, Integer>
- * 
+ *
+ * ESTRUCTURA DE DATOS: short[] indexado por id de ítem + máscara de ocupación (long)
+ *
  * JUSTIFICACIÓN:
- * - HashMap es la estructura ideal para un inventario porque proporciona:
- *   * Acceso O(1) al buscar un ítem por nombre (operación muy frecuente)
- *   * Inserción y eliminación O(1) (cuando se añaden/usan ítems)
- *   * Permite duplicados de ítems (valor = cantidad)
- *   * Sin necesidad de ordenamiento
- * 
+ * - Cada ítem del catálogo tiene un id denso (Item.getId()), así que la
+ *   cantidad de un ítem es cantidades[id]: acceso O(1) sin calcular hashes
+ *   de String ni crear Integer
+ * - El bit id de la máscara indica si el ítem está en el inventario:
+ *   * Espacios ocupados = Long.bitCount(ocupados), O(1)
+ *   * Recorrer los ítems = saltar de bit en bit con numberOfTrailingZeros
+ * - Agregar, usar y consultar no reservan memoria
+ *
  * ALTERNATIVAS RECHAZADAS:
+ * - HashMap<String, Integer>: hash del nombre y Integer en cada operación
  * - ArrayList: Búsqueda O(n), necesitaría recorrer todo
  * - TreeMap: Acceso O(log n), ordenamiento innecesario
- * - LinkedList: Búsqueda O(n), optimizado para inserción en extremos
- * - HashSet: No permite duplicados ni contar cantidad
- * 
+ * - EnumMap<TipoItem, ...>: varios ítems comparten tipo (Poción y Poción Fuerte)
+ *
+ * Los métodos que reciben el nombre del ítem se mantienen y lo traducen a id
+ * con GestorObjetos; el código del motor puede usar directamente los ids.
+ *
+ * Cada modificación incrementa un contador de versión. Las vistas leen una
+ * Instantanea inmutable que solo se reconstruye cuando la versión cambió:
+ * pintar el inventario varias veces no crea colecciones nuevas, y saber si
+ * algo cambió es comparar dos long.
+ *
+ * Los métodos que leen o modifican el estado se sincronizan sobre el propio
+ * inventario. AlijoGrupo toma ese mismo monitor durante una transferencia,
+ * así que su comprobación y su aplicación son atómicas frente a cualquier
+ * otro cambio (combate, botín, equipo), venga del hilo que venga.
+ *
  * MÁXIMO 5 ÍTEMS por héroe según especificaciones del proyecto.
  */
 public class Inventario {
-    
-    private HashMap<String, Integer> items;
+
     private static final int MAX_ITEMS = 5;
     private static final int MAX_CANTIDAD_POR_ITEM = 99;
 
+    private final short[] cantidades = new short[GestorObjetos.MAX_ITEMS_CATALOGO];
+    private long ocupados;           // Bit i = el ítem con id i está en el inventario
+    private long version;            // Se incrementa en cada modificación
+    private Instantanea instantanea; // Última instantánea construida (puede estar desfasada)
+
+    // Personaje dueño, al que se informan los cambios para deshacer/rehacer (opcional)
+    private final Personaje dueño;
+
     /**
      * Constructor que inicializa un inventario vacío.
      */
     public Inventario() {
-        this.items = new HashMap<>();
+        this(null);
+    }
+
+    /**
+     * Constructor que inicializa un inventario vacío asociado a un personaje.
+     * Los cambios de cantidades se informan al registro de cambios del dueño.
+     *
+     * @param dueño Personaje dueño del inventario
+     */
+    Inventario(Personaje dueño) {
+        this.dueño = dueño;
+    }
+
+    /**
+     * Foto inmutable del inventario en una versión concreta.
+     * Los ítems aparecen en orden de id.
+     */
+    public static final class Instantanea {
+        private final long version;
+        private final int[] ids;
+        private final int[] cantidades;
+        private final String[] nombres;
+        private final Map<String, Integer> mapa;   // nombre → cantidad (inmutable)
+
+        private Instantanea(long version, long ocupados, short[] cantidadesInventario) {
+            int n = Long.bitCount(ocupados);
+            this.version = version;
+            this.ids = new int[n];
+            this.cantidades = new int[n];
+            this.nombres = new String[n];
+            Map<String, Integer> porNombre = new LinkedHashMap<>();
+            int i = 0;
+            for (long m = ocupados; m != 0; m &= m - 1, i++) {
+                int id = Long.numberOfTrailingZeros(m);
+                ids[i] = id;
+                cantidades[i] = cantidadesInventario[id];
+                nombres[i] = nombreDe(id);
+                porNombre.put(nombres[i], cantidades[i]);
+            }
+            this.mapa = Collections.unmodifiableMap(porNombre);
+        }
+
+        public long getVersion() { return version; }
+        public int tamaño() { return ids.length; }
+        public int getId(int i) { return ids[i]; }
+        public int getCantidad(int i) { return cantidades[i]; }
+        public String getNombre(int i) { return nombres[i]; }
+
+        /**
+         * Nombres de los ítems (vista inmutable, en orden de id).
+         *
+         * @return Set de nombres
+         */
+        public Set<String> nombres() { return mapa.keySet(); }
+
+        /**
+         * Cantidades por nombre (vista inmutable, en orden de id).
+         *
+         * @return Mapa nombre → cantidad
+         */
+        public Map<String, Integer> comoMapa() { return mapa; }
     }
 
     /**
      * Añade un ítem al inventario.
      * Si el ítem ya existe, incrementa la cantidad.
-     * 
-     * @param nombre Nombre del ítem a añadir
+     *
+     * @param id Id de catálogo del ítem
      * @param cantidad Cantidad a añadir
      * @return true si se añadió exitosamente, false si se excede el límite
      */
-    public boolean agregarItem(String nombre, int cantidad) {
-        if (cantidad <= 0) return false;
-
-        if (items.containsKey(nombre)) {
-            // Ítem ya existe: incrementar cantidad
-            int cantidadActual = items.get(nombre);
-            int nuevaCantidad = Math.min(cantidadActual + cantidad, MAX_CANTIDAD_POR_ITEM);
-            items.put(nombre, nuevaCantidad);
-            return true;
-        } else {
-            // Ítem nuevo: verificar límite de ítems diferentes
-            if (items.size() >= MAX_ITEMS) {
-                return false; // Inventario lleno
-            }
-            items.put(nombre, Math.min(cantidad, MAX_CANTIDAD_POR_ITEM));
-            return true;
+    public synchronized boolean agregarItem(int id, int cantidad) {
+        if (cantidad <= 0 || !idValido(id)) return false;
+
+        long bit = 1L << id;
+        // Ítem nuevo: verificar límite de ítems diferentes
+        if ((ocupados & bit) == 0 && Long.bitCount(ocupados) >= MAX_ITEMS) {
+            return false; // Inventario lleno
         }
+
+        int cantidadActual = cantidades[id];
+        int nuevaCantidad = Math.min(cantidadActual + cantidad, MAX_CANTIDAD_POR_ITEM);
+        cantidades[id] = (short) nuevaCantidad;
+        ocupados |= bit;
+        version++;
+        notificarCambio(id, cantidadActual, nuevaCantidad);
+        return true;
+    }
+
+    /**
+     * Añade un ítem al inventario por su nombre.
+     *
+     * @param nombre Nombre del ítem a añadir
+     * @param cantidad Cantidad a añadir
+     * @return true si se añadió exitosamente, false si se excede el límite o no existe
+     */
+    public boolean agregarItem(String nombre, int cantidad) {
+        return agregarItem(GestorObjetos.obtenerId(nombre), cantidad);
     }
 
     /**
      * Usa (consume) una cantidad de un ítem del inventario.
      * Si la cantidad llega a 0, el ítem se elimina.
-     * 
+     *
+     * @param id Id de catálogo del ítem
+     * @param cantidad Cantidad a consumir
+     * @return true si se usó exitosamente, false si no hay suficiente
+     */
+    public synchronized boolean usarItem(int id, int cantidad) {
+        if (!idValido(id)) return false;
+
+        int cantidadActual = cantidades[id];
+        if (cantidadActual == 0 || cantidadActual < cantidad) return false;
+
+        int nuevaCantidad = cantidadActual - cantidad;
+        cantidades[id] = (short) nuevaCantidad;
+        if (nuevaCantidad == 0) ocupados &= ~(1L << id);
+        version++;
+        notificarCambio(id, cantidadActual, nuevaCantidad);
+        return true;
+    }
+
+    /**
+     * Usa (consume) una cantidad de un ítem por su nombre.
+     *
      * @param nombre Nombre del ítem a usar
      * @param cantidad Cantidad a consumir
      * @return true si se usó exitosamente, false si no hay suficiente
      */
     public boolean usarItem(String nombre, int cantidad) {
-        if (!items.containsKey(nombre)) return false;
-        
-        int cantidadActual = items.get(nombre);
-        if (cantidadActual < cantidad) return false;
+        return usarItem(GestorObjetos.obtenerId(nombre), cantidad);
+    }
 
-        int nuevaCantidad = cantidadActual - cantidad;
-        if (nuevaCantidad == 0) {
-            items.remove(nombre);
+    /**
+     * Establece directamente la cantidad de un ítem, sin aplicar límites
+     * ni informar el cambio. Usado por el sistema de deshacer/rehacer y por
+     * las transferencias de AlijoGrupo.
+     *
+     * @param id Id de catálogo del ítem
+     * @param cantidad Cantidad a dejar (0 o menos elimina el ítem)
+     */
+    synchronized void establecerCantidad(int id, int cantidad) {
+        if (!idValido(id)) return;
+        if (cantidad <= 0) {
+            cantidades[id] = 0;
+            ocupados &= ~(1L << id);
         } else {
-            items.put(nombre, nuevaCantidad);
+            cantidades[id] = (short) cantidad;
+            ocupados |= 1L << id;
         }
-        return true;
+        version++;
+    }
+
+    /**
+     * Comprueba si se pueden añadir todas las cantidades indicadas sin
+     * superar los límites (ítems distintos y cantidad por ítem).
+     * Usado por transferencias que deben aplicarse completas o no aplicarse.
+     *
+     * @param ids Ids de catálogo (sin repetir)
+     * @param cantidadesNuevas Cantidad a añadir de cada id
+     * @return true si caben todas
+     */
+    synchronized boolean admite(int[] ids, int[] cantidadesNuevas) {
+        long resultado = ocupados;
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            if (!idValido(id) || cantidadesNuevas[i] <= 0) return false;
+            if (cantidades[id] + cantidadesNuevas[i] > MAX_CANTIDAD_POR_ITEM) return false;
+            resultado |= 1L << id;
+        }
+        return Long.bitCount(resultado) <= MAX_ITEMS;
+    }
+
+    /**
+     * Informa un cambio de cantidad al registro de cambios del dueño.
+     */
+    private void notificarCambio(int id, int anterior, int nueva) {
+        if (dueño != null) {
+            dueño.registrarCambio(SistemaUndoRedo.Cambio.Campo.ITEM, anterior, nueva, id);
+        }
+    }
+
+    private static boolean idValido(int id) {
+        return id >= 0 && id < GestorObjetos.MAX_ITEMS_CATALOGO;
     }
 
     /**
      * Obtiene la cantidad de un ítem en el inventario.
-     * 
+     *
+     * @param id Id de catálogo del ítem
+     * @return Cantidad del ítem, o 0 si no existe
+     */
+    public synchronized int obtenerCantidad(int id) {
+        return idValido(id) ? cantidades[id] : 0;
+    }
+
+    /**
+     * Obtiene la cantidad de un ítem en el inventario.
+     *
      * @param nombre Nombre del ítem
      * @return Cantidad del ítem, o 0 si no existe
      */
     public int obtenerCantidad(String nombre) {
-        return items.getOrDefault(nombre, 0);
+        return obtenerCantidad(GestorObjetos.obtenerId(nombre));
     }
 
     /**
      * Verifica si el inventario contiene un ítem específico.
-     * 
+     *
+     * @param id Id de catálogo del ítem
+     * @return true si existe en el inventario
+     */
+    public synchronized boolean contiene(int id) {
+        return idValido(id) && (ocupados & (1L << id)) != 0;
+    }
+
+    /**
+     * Verifica si el inventario contiene un ítem específico.
+     *
      * @param nombre Nombre del ítem
      * @return true si existe en el inventario
      */
     public boolean contiene(String nombre) {
-        return items.containsKey(nombre);
+        return contiene(GestorObjetos.obtenerId(nombre));
+    }
+
+    /**
+     * Obtiene la máscara de ítems presentes (bit i = ítem con id i).
+     * Permite recorrer el inventario sin crear objetos:
+     * for (long m = inv.obtenerOcupados(); m != 0; m &= m - 1) {
+     *     int id = Long.numberOfTrailingZeros(m); ...
+     * }
+     *
+     * @return Máscara de ocupación
+     */
+    public synchronized long obtenerOcupados() {
+        return ocupados;
+    }
+
+    /**
+     * Obtiene la versión actual del inventario.
+     * Cambia con cada modificación, así que comparar versiones basta para
+     * saber si el inventario cambió.
+     *
+     * @return Versión actual
+     */
+    public synchronized long obtenerVersion() {
+        return version;
+    }
+
+    /**
+     * Obtiene una instantánea inmutable del inventario.
+     * Si no hubo cambios desde la última llamada se devuelve la misma instancia.
+     *
+     * @return Instantánea de la versión actual
+     */
+    public synchronized Instantanea obtenerInstantanea() {
+        Instantanea actual = instantanea;
+        if (actual == null || actual.version != version) {
+            actual = new Instantanea(version, ocupados, cantidades);
+            instantanea = actual;
+        }
+        return actual;
     }
 
     /**
      * Obtiene el conjunto de nombres de todos los ítems en el inventario.
-     * 
-     * @return Set con los nombres de los ítems
+     *
+     * @return Set inmutable con los nombres de los ítems (en orden de id)
      */
     public Set<String> obtenerItems() {
-        return items.keySet();
+        return obtenerInstantanea().nombres();
     }
 
     /**
      * Obtiene el mapa completo de ítems y sus cantidades.
-     * 
-     * @return HashMap con ítems y cantidades
+     *
+     * @return Map inmutable con ítems y cantidades (en orden de id)
      */
     public Map<String, Integer> obtenerInventarioCompleto() {
-        return new HashMap<>(items);
+        return obtenerInstantanea().comoMapa();
+    }
+
+    private static String nombreDe(int id) {
+        Item item = GestorObjetos.obtenerItem(id);
+        return item == null ? "#" + id : item.getNombre();
     }
 
     /**
      * Verifica si el inventario está lleno.
-     * 
+     *
      * @return true si contiene 5 ítems diferentes
      */
-    public boolean estaLleno() {
-        return items.size() >= MAX_ITEMS;
+    public synchronized boolean estaLleno() {
+        return Long.bitCount(ocupados) >= MAX_ITEMS;
     }
 
     /**
      * Obtiene la cantidad de espacios ocupados en el inventario.
-     * 
+     *
      * @return Número de ítems diferentes
      */
-    public int obtenerEspacios() {
-        return items.size();
+    public synchronized int obtenerEspacios() {
+        return Long.bitCount(ocupados);
     }
 
     /**
      * Limpia todo el inventario.
      */
-    public void limpiar() {
-        items.clear();
+    public synchronized void limpiar() {
+        for (long m = ocupados; m != 0; m &= m - 1) {
+            int id = Long.numberOfTrailingZeros(m);
+            notificarCambio(id, cantidades[id], 0);
+            cantidades[id] = 0;
+        }
+        ocupados = 0;
+        version++;
     }
 
     @Override
-    public String toString() {
-        if (items.isEmpty()) {
+    public synchronized String toString() {
+        if (ocupados == 0) {
             return "Inventario vacío";
         }
         StringBuilder sb = new StringBuilder("=== INVENTARIO ===\n");
-        for (String nombre : items.keySet()) {
-            sb.append(nombre).append(" x").append(items.get(nombre)).append("\n");
+        for (long m = ocupados; m != 0; m &= m - 1) {
+            int id = Long.numberOfTrailingZeros(m);
+            sb.append(nombreDe(id)).append(" x").append(cantidades[id]).append("\n");
         }
         return sb.toString();
     }
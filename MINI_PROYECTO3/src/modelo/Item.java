@@ -5,6 +5,7 @@ package modelo;
  * Basado en los ítems del juego original Dragon Quest VIII.
  * 
  * Cada ítem tiene:
+ * - Id: índice denso en el catálogo (0, 1, 2...), usado por Inventario
  * - Nombre: identificador único del ítem
  * - Tipo: categoría (poción, arma, armadura, llave, etc.)
  * - Efecto: descripción de lo que hace
@@ -12,6 +13,7 @@ package modelo;
  */
 public class Item {
     
+    private final int id;
     private String nombre;
     private TipoItem tipo;
     private String efecto;
@@ -20,12 +22,14 @@ public class Item {
     /**
      * Constructor del ítem.
      * 
+     * @param id Id de catálogo (0 a GestorObjetos.MAX_ITEMS_CATALOGO - 1)
      * @param nombre Nombre del ítem
      * @param tipo Tipo de ítem (enum TipoItem)
      * @param efecto Descripción del efecto
      * @param valorEfecto Valor numérico del efecto
      */
-    public Item(String nombre, TipoItem tipo, String efecto, int valorEfecto) {
+    public Item(int id, String nombre, TipoItem tipo, String efecto, int valorEfecto) {
+        this.id = id;
         this.nombre = nombre;
         this.tipo = tipo;
         this.efecto = efecto;
@@ -33,6 +37,7 @@ public class Item {
     }
 
     // Getters
+    public int getId() { return id; }
     public String getNombre() { return nombre; }
     public TipoItem getTipo() { return tipo; }
     public String getEfecto() { return efecto; }
@@ -4,16 +4,37 @@ public class JefeEnemigo extends Enemigo {
 
     private int turnosHastaEspecial;
     private final int cooldownEspecial;
+    private final Tipo_JefeEnemigo tipoJefe;   // null si no se creó a partir de un tipo de jefe
 
     public JefeEnemigo(
             String nombre, int hp, int mp, int ataque, int defensa,
             int velocidad, Tipo_Enemigo tipo, int cooldownEspecial
+    ) {
+        this(nombre, hp, mp, ataque, defensa, velocidad, tipo, null, cooldownEspecial);
+    }
+
+    public JefeEnemigo(
+            String nombre, int hp, int mp, int ataque, int defensa,
+            int velocidad, Tipo_Enemigo tipo, Tipo_JefeEnemigo tipoJefe, int cooldownEspecial
     ) {
         super(nombre, hp, mp, ataque, defensa, velocidad, tipo, true);
+        this.tipoJefe = tipoJefe;
         this.cooldownEspecial = Math.max(1, cooldownEspecial);
         this.turnosHastaEspecial = this.cooldownEspecial;
     }
 
+    public Tipo_JefeEnemigo getTipoJefe() {
+        return tipoJefe;
+    }
+
+    /**
+     * Los jefes usan la tabla de botín de su tipo de jefe, si lo tienen.
+     */
+    @Override
+    public TablaBotin getTablaBotin() {
+        return tipoJefe != null ? TablaBotin.de(tipoJefe) : super.getTablaBotin();
+    }
+
     /**
      * Actuación del jefe SIN manejar consola ni elegir objetivos.
      * El controlador debe decidir el objetivo.
@@ -12,19 +12,7 @@ public class JefeFactory {
         int defensa = (int)(Math.random() * (tipo.getMaxDefensa() - tipo.getMinDefensa() + 1)) + tipo.getMinDefensa();
         int velocidad = (int)(Math.random() * (tipo.getMaxVelocidad() - tipo.getMinVelocidad() + 1)) + tipo.getMinVelocidad();
 
-        // Usamos Tipo_Enemigo por compatibilidad con el constructor de Enemigo/JefeEnemigo
-        Tipo_Enemigo tipoSimple = Tipo_Enemigo.DRAGON; // fallback
-        // Intentamos mapear por nombre si existe un tipo equivalente
-    //     try {
-    //         tipoSimple = Tipo_Enemigo.valueOf("DRAGON");
-    //     } catch (Exception e) {
-    //         // no importa, usamos DRAGON por defecto
-    //     }
-
-    //     // cooldown especial de 2 turnos por defecto
-    //     return new JefeEnemigo(nombre, hp, mp, ataque, defensa, velocidad, tipoSimple, 2);
-    // }
-            // cooldown especial por defecto
+        // cooldown especial por defecto
         int cooldown = 2;
 
         return new JefeEnemigo(
@@ -34,9 +22,24 @@ public class JefeFactory {
                 ataque,
                 defensa,
                 velocidad,
-                tipoSimple,
+                tipoBase(tipo),
+                tipo,
                 cooldown
         );
     }
-}
 
+    /**
+     * Tipo de enemigo común más parecido a cada jefe
+     * (usado por el constructor de Enemigo y por las vistas).
+     */
+    private static Tipo_Enemigo tipoBase(Tipo_JefeEnemigo tipo) {
+        switch (tipo) {
+            case NIGROMANTE: return Tipo_Enemigo.NOMUERTO;
+            case JEFE_ORCO: return Tipo_Enemigo.ORCO;
+            case GIGANTE: return Tipo_Enemigo.GOLEM;
+            case REY_DRAGON:
+            case DEMONIO:
+            default: return Tipo_Enemigo.DRAGON;
+        }
+    }
+}
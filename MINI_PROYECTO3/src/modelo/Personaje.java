@@ -1,5 +1,8 @@
 package modelo;
 
+import modelo.SistemaUndoRedo.Cambio;
+import modelo.SistemaUndoRedo.Cambio.Campo;
+
 /**
  * Clase abstracta que representa a cualquier personaje del juego (héroe o enemigo).
  * Contiene atributos y comportamientos comunes a todos los personajes.
@@ -14,9 +17,24 @@ package modelo;
  * - Gestionar efectos de estado (parálisis, sueño, provocación)
  * - Determinar si puede actuar según sus estados
  * - Seleccionar objetivos para atacar
+ * - Informar cada cambio de estado al sistema de deshacer/rehacer
+ * - Mantener el ataque y la defensa efectivos (base + bonos de equipo)
+ * 
+ * Cada personaje recibe un identificador entero denso (0, 1, 2...) al entrar
+ * en una batalla (ver EntidadesBatalla). El motor, el sistema de
+ * deshacer/rehacer, las partidas guardadas y las vistas se refieren a los
+ * personajes por ese id, que se resuelve indexando la tabla de su batalla,
+ * sin depender del nombre (que puede repetirse).
  */
 public abstract class Personaje {
 
+    // Id que no pertenece a ninguna batalla
+    public static final int SIN_ID = -1;
+
+    // Batalla a la que pertenece el personaje y su id dentro de ella
+    private EntidadesBatalla entidades;
+    protected int id = SIN_ID;
+
     // Atributos básicos del personaje
     protected String nombre;
     protected int hp;           // Puntos de vida
@@ -24,6 +42,14 @@ public abstract class Personaje {
     protected int ataque;       // Poder de ataque
     protected int defensa;      // Poder de defensa
     protected int velocidad;    // Determina el orden de turno
+
+    // Valores efectivos usados en combate: base + bonos de equipo.
+    // Se recalculan solo cuando cambia la base (buffs) o el equipo,
+    // de modo que atacar y recibir daño leen un único int por atributo.
+    protected int ataqueEfectivo;
+    protected int defensaEfectiva;
+    private int bonoAtaque;
+    private int bonoDefensa;
     
     // Estados del personaje
     protected boolean esta_vivo = true;
@@ -39,13 +65,19 @@ public abstract class Personaje {
     // Referencias a otros personajes que afectan a este
     protected Personaje provocador = null;  // Quién lo está provocando
     protected Personaje defensor = null;    // Quién lo está defendiendo
+
+    // Sistema que recibe los cambios de estado para poder deshacerlos (opcional)
+    protected SistemaUndoRedo registroCambios = null;
     
     // Getters para acceder a los atributos del personaje
+    public int getId() { return id; }
     public String getNombre() { return nombre; }
     public int getHp() { return hp; }
     public int getMp() { return mp; }
-    public int getAtaque() { return ataque; }
-    public int getDefensa() { return defensa; }
+    public int getAtaque() { return ataqueEfectivo; }
+    public int getDefensa() { return defensaEfectiva; }
+    public int getAtaqueBase() { return ataque; }
+    public int getDefensaBase() { return defensa; }
     public int getVelocidad() { return velocidad; }
     /**
      * Establece los puntos de vida del personaje.
@@ -54,7 +86,9 @@ public abstract class Personaje {
      * @param valor Nuevos puntos de vida (no puede ser negativo)
      */
     public void setHp(int valor) {
+        int anterior = hp;
         hp = Math.max(0, valor);
+        registrarCambio(Campo.HP, anterior, hp);
         esta_vivo = hp > 0;
         if (!esta_vivo) removerDefensa();
     }
@@ -65,7 +99,53 @@ public abstract class Personaje {
      * @param valor Nuevos puntos de magia (no puede ser negativo)
      */
     public void setMp(int valor) {
+        int anterior = mp;
         mp = Math.max(0, valor);
+        registrarCambio(Campo.MP, anterior, mp);
+    }
+
+    /**
+     * Establece el poder de ataque del personaje.
+     * 
+     * @param valor Nuevo poder de ataque
+     */
+    protected void setAtaque(int valor) {
+        int anterior = ataque;
+        ataque = valor;
+        recalcularEstadisticas();
+        registrarCambio(Campo.ATAQUE, anterior, ataque);
+    }
+
+    /**
+     * Establece el poder de defensa del personaje.
+     * 
+     * @param valor Nuevo poder de defensa
+     */
+    protected void setDefensa(int valor) {
+        int anterior = defensa;
+        defensa = valor;
+        recalcularEstadisticas();
+        registrarCambio(Campo.DEFENSA, anterior, defensa);
+    }
+
+    /**
+     * Establece los bonos de equipo y recalcula los valores efectivos.
+     * 
+     * @param ataque Bono total de ataque del equipo
+     * @param defensa Bono total de defensa del equipo
+     */
+    protected void establecerBonos(int ataque, int defensa) {
+        this.bonoAtaque = ataque;
+        this.bonoDefensa = defensa;
+        recalcularEstadisticas();
+    }
+
+    /**
+     * Recalcula el ataque y la defensa efectivos a partir de la base y los bonos.
+     */
+    private void recalcularEstadisticas() {
+        ataqueEfectivo = ataque + bonoAtaque;
+        defensaEfectiva = defensa + bonoDefensa;
     }
 
     /**
@@ -86,6 +166,101 @@ public abstract class Personaje {
         this.defensa = defensa;
         this.velocidad = velocidad;
         this.esta_vivo = hp > 0;
+        recalcularEstadisticas();
+    }
+
+    /**
+     * Asocia el personaje a la tabla de una batalla con su id.
+     * Solo la usa EntidadesBatalla.
+     * 
+     * @param entidades Tabla de la batalla
+     * @param id Id dentro de la batalla
+     */
+    void asignarEntidad(EntidadesBatalla entidades, int id) {
+        this.entidades = entidades;
+        this.id = id;
+    }
+
+    /**
+     * Obtiene otro personaje de la misma batalla a partir de su id en O(1).
+     * 
+     * @param id Id del personaje
+     * @return El personaje, o null si no pertenece a la batalla
+     */
+    protected Personaje buscarPorId(int id) {
+        return entidades == null ? null : entidades.obtener(id);
+    }
+
+    /**
+     * Restaura los atributos del personaje desde una partida guardada,
+     * conservando su id. Elimina efectos de estado y relaciones activas.
+     * No se informa al sistema de deshacer/rehacer.
+     * 
+     * @param hp Puntos de vida
+     * @param mp Puntos de magia
+     * @param ataque Poder de ataque
+     * @param defensa Poder de defensa
+     * @param velocidad Velocidad
+     */
+    void restaurarEstado(int hp, int mp, int ataque, int defensa, int velocidad) {
+        this.hp = Math.max(0, hp);
+        this.mp = Math.max(0, mp);
+        this.ataque = ataque;
+        this.defensa = defensa;
+        this.velocidad = velocidad;
+        recalcularEstadisticas();
+        this.esta_vivo = this.hp > 0;
+        this.esta_paralizado = false;
+        this.esta_durmiendo = false;
+        this.turnosParalisis = 0;
+        this.turnosSueno = 0;
+        this.siendo_defendido = false;
+        this.defensor = null;
+        this.esta_provocado = false;
+        this.provocador = null;
+    }
+
+    /**
+     * Restaura el estado de combate guardado en una versión de HistoriaPersistente.
+     * No se informa al sistema de deshacer/rehacer.
+     * 
+     * @param estado Estado a restaurar
+     */
+    void restaurarUnidad(EstadoUnidad estado) {
+        this.hp = estado.getHp();
+        this.mp = estado.getMp();
+        this.ataque = estado.getAtaque();
+        this.defensa = estado.getDefensa();
+        recalcularEstadisticas();
+        this.esta_vivo = this.hp > 0;
+        this.turnosParalisis = estado.getTurnosParalisis();
+        this.turnosSueno = estado.getTurnosSueno();
+        this.esta_paralizado = estado.estaParalizado();
+        this.esta_durmiendo = estado.estaDurmiendo();
+        this.defensor = estado.getDefensorId() < 0 ? null : buscarPorId(estado.getDefensorId());
+        this.siendo_defendido = defensor != null;
+        this.provocador = estado.getProvocadorId() < 0 ? null : buscarPorId(estado.getProvocadorId());
+        this.esta_provocado = provocador != null;
+        restaurarEquipo(estado.getEquipo());
+    }
+
+    /**
+     * Obtiene los ids de catálogo del equipo, uno por Equipo.Ranura.
+     * 
+     * @return Ids (-1 en las ranuras vacías), o null si el personaje no lleva equipo
+     */
+    int[] idsEquipo() {
+        return null;
+    }
+
+    /**
+     * Restaura el equipo guardado (partida o versión de HistoriaPersistente)
+     * y los bonos que da. No se informa al sistema de deshacer/rehacer.
+     * 
+     * @param ids Ids de catálogo por ranura; null no cambia nada
+     */
+    void restaurarEquipo(int[] ids) {
+        // Solo los héroes llevan equipo
     }
 
     // Getters de estado
@@ -106,11 +281,11 @@ public abstract class Personaje {
      */
     public int recibir_daño(int cantidad) {
 
-        int defensaTotal = defensa;
+        int defensaTotal = defensaEfectiva;
 
         // Si está siendo defendido por un tanque, sumar la defensa del tanque
         if (siendo_defendido && defensor != null && defensor.esta_vivo) {
-            defensaTotal += defensor.getDefensa();
+            defensaTotal += defensor.defensaEfectiva;
         }
 
         int dañoFinal = cantidad - defensaTotal;
@@ -132,7 +307,7 @@ public abstract class Personaje {
      * @param aumento Cantidad a aumentar (debe ser positiva)
      */
     protected void aumentarAtaque(int aumento) {
-        if (aumento > 0) ataque += aumento;
+        if (aumento > 0) setAtaque(ataque + aumento);
     }
 
     // ==================== GESTIÓN DE EFECTOS DE ESTADO ====================
@@ -145,7 +320,9 @@ public abstract class Personaje {
      */
     public void aplicarParalisis(int turnos) {
         if (turnos > 0) {
+            int anterior = turnosParalisis;
             this.turnosParalisis = Math.max(this.turnosParalisis, turnos);
+            registrarCambio(Campo.TURNOS_PARALISIS, anterior, turnosParalisis);
         }
     }
 
@@ -157,6 +334,7 @@ public abstract class Personaje {
      */
     public boolean aplicarDormir() {
         if (!esta_vivo) return false;
+        registrarCambio(Campo.DURMIENDO, esta_durmiendo ? 1 : 0, 1);
         esta_durmiendo = true;
         return true;
     }
@@ -166,6 +344,9 @@ public abstract class Personaje {
      * (parálisis, sueño, provocación).
      */
     public void limpiarEfectos() {
+        registrarCambio(Campo.PARALIZADO, esta_paralizado ? 1 : 0, 0);
+        registrarCambio(Campo.DURMIENDO, esta_durmiendo ? 1 : 0, 0);
+        registrarEnlace(Campo.PROVOCADOR, provocador, null);
         esta_paralizado = false;
         esta_durmiendo  = false;
         esta_provocado  = false;
@@ -183,12 +364,14 @@ public abstract class Personaje {
         // Si está paralizado, reducir turno y no puede actuar
         if (turnosParalisis > 0) {
             turnosParalisis--;
+            registrarCambio(Campo.TURNOS_PARALISIS, turnosParalisis + 1, turnosParalisis);
             return false;
         }
 
         // Si está dormido, reducir turno y no puede actuar
         if (turnosSueno > 0) {
             turnosSueno--;
+            registrarCambio(Campo.TURNOS_SUENO, turnosSueno + 1, turnosSueno);
             return false;
         }
 
@@ -215,6 +398,7 @@ public abstract class Personaje {
      */
     public boolean recibirDefensa(Personaje tanque) {
         if (!esta_vivo) return false;
+        registrarEnlace(Campo.DEFENSOR, defensor, tanque);
         siendo_defendido = true;
         defensor = tanque;
         return true;
@@ -224,6 +408,7 @@ public abstract class Personaje {
      * Elimina cualquier defensa activa sobre este personaje.
      */
     public void removerDefensa() {
+        registrarEnlace(Campo.DEFENSOR, defensor, null);
         siendo_defendido = false;
         defensor = null;
     }
@@ -246,6 +431,7 @@ public abstract class Personaje {
      */
     public boolean serProvocado(Personaje tanque) {
         if (!esta_vivo) return false;
+        registrarEnlace(Campo.PROVOCADOR, provocador, tanque);
         esta_provocado = true;
         provocador = tanque;
         return true;
@@ -255,6 +441,7 @@ public abstract class Personaje {
      * Elimina cualquier provocación activa sobre este personaje.
      */
     public void removerProvocacion() {
+        registrarEnlace(Campo.PROVOCADOR, provocador, null);
         esta_provocado = false;
         provocador = null;
     }
@@ -288,7 +475,8 @@ public abstract class Personaje {
 
     /**
      * Ataca a un objetivo seleccionado del array de posibles objetivos.
-     * Calcula el daño como: ataque - defensa del objetivo (mínimo 1).
+     * Calcula el daño como: ataque efectivo - defensa efectiva del objetivo
+     * (ambos con los bonos de equipo, mínimo 1), igual que Heroe y Enemigo.
      * 
      * @param posibles Array de posibles objetivos
      * @return El daño infligido, o -1 si no había objetivos válidos
@@ -297,13 +485,101 @@ public abstract class Personaje {
         Personaje obj = seleccionarObjetivo(posibles);
         if (obj == null) return -1;
 
-        int daño = ataque - obj.getDefensa();
+        int daño = ataqueEfectivo - obj.defensaEfectiva;
         if (daño < 1) daño = 1;
 
         obj.recibir_daño(daño);
         return daño;
     }
 
+    // ==================== REGISTRO DE CAMBIOS (UNDO/REDO) ====================
+
+    /**
+     * Conecta el personaje a un sistema de deshacer/rehacer.
+     * A partir de ese momento cada mutación de estado se informa como un Cambio.
+     * 
+     * @param registro Sistema que recibirá los cambios, o null para desconectar
+     */
+    public void setRegistroCambios(SistemaUndoRedo registro) {
+        this.registroCambios = registro;
+    }
+
+    /**
+     * Informa un cambio de un campo numérico si hay un registro conectado.
+     * 
+     * @param campo Campo modificado
+     * @param anterior Valor anterior
+     * @param nuevo Valor nuevo
+     */
+    protected void registrarCambio(Campo campo, int anterior, int nuevo) {
+        registrarCambio(campo, anterior, nuevo, Cambio.SIN_ENLACE);
+    }
+
+    /**
+     * Informa un cambio de un campo numérico con índice (por ejemplo un ítem).
+     * 
+     * @param campo Campo modificado
+     * @param anterior Valor anterior
+     * @param nuevo Valor nuevo
+     * @param indice Índice del campo (id de ítem), o Cambio.SIN_ENLACE
+     */
+    protected void registrarCambio(Campo campo, int anterior, int nuevo, int indice) {
+        if (registroCambios != null && anterior != nuevo) {
+            registroCambios.registrarCambio(new Cambio(id, campo, anterior, nuevo, indice));
+        }
+    }
+
+    /**
+     * Informa un cambio en una relación con otro personaje (defensor/provocador).
+     * 
+     * @param campo Relación modificada
+     * @param anterior Personaje enlazado antes, o null
+     * @param nuevo Personaje enlazado después, o null
+     */
+    protected void registrarEnlace(Campo campo, Personaje anterior, Personaje nuevo) {
+        if (registroCambios != null && anterior != nuevo) {
+            int idAnterior = anterior == null ? Cambio.SIN_ENLACE : anterior.id;
+            int idNuevo = nuevo == null ? Cambio.SIN_ENLACE : nuevo.id;
+            registroCambios.registrarCambio(new Cambio(id, campo, idAnterior, idNuevo, Cambio.SIN_ENLACE));
+        }
+    }
+
+    /**
+     * Aplica directamente un cambio registrado, sin volver a registrarlo.
+     * Usado por el sistema de deshacer/rehacer.
+     * 
+     * @param cambio Cambio a aplicar
+     * @param rehacer true para aplicar el valor nuevo, false para el anterior
+     */
+    void aplicarCambio(Cambio cambio, boolean rehacer) {
+        int valor = rehacer ? cambio.getNuevo() : cambio.getAnterior();
+        Personaje enlace = valor == Cambio.SIN_ENLACE ? null : buscarPorId(valor);
+
+        switch (cambio.getCampo()) {
+            case HP:
+                hp = valor;
+                esta_vivo = hp > 0;
+                break;
+            case MP: mp = valor; break;
+            case ATAQUE: ataque = valor; recalcularEstadisticas(); break;
+            case DEFENSA: defensa = valor; recalcularEstadisticas(); break;
+            case TURNOS_PARALISIS: turnosParalisis = valor; break;
+            case TURNOS_SUENO: turnosSueno = valor; break;
+            case PARALIZADO: esta_paralizado = valor != 0; break;
+            case DURMIENDO: esta_durmiendo = valor != 0; break;
+            case DEFENSOR:
+                defensor = enlace;
+                siendo_defendido = enlace != null;
+                break;
+            case PROVOCADOR:
+                provocador = enlace;
+                esta_provocado = enlace != null;
+                break;
+            default:
+                break;
+        }
+    }
+
     /**
      * Método abstracto que debe ser implementado por las subclases.
      * Define la lógica de decisión de acciones del personaje.
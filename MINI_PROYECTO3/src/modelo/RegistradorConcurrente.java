@@ -0,0 +1,284 @@
+package modelo;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registrador de batallas para simulaciones en paralelo.
+ *
+ * ESTRUCTURA DE DATOS:
+ *   - ThreadLocal<Buffer>: cada hilo anota sus batallas en arrays propios
+ *   - LongAdder / LongAccumulator: contadores repartidos en celdas por hilo
+ *   - AtomicReference<Instantanea>: totales inmutables publicados con CAS
+ *
+ * JUSTIFICACIÓN:
+ * - HistorialBatallas no es seguro entre hilos; con un único lock cada
+ *   registrarBatalla de cada núcleo se serializaría
+ * - Cada hilo escribe en su buffer sin competir con nadie; solo al llenarse
+ *   (cada TAMAÑO_BUFFER batallas) vuelca el lote a su destino
+ * - Con un AlmacenColumnarBatallas como destino, el volcado copia los arrays
+ *   del buffer a las columnas con agregarLote: una toma del lock del almacén
+ *   por lote y ningún objeto por batalla
+ * - LongAdder reparte los incrementos en celdas distintas: sin contención de
+ *   caché incluso con todos los núcleos registrando a la vez
+ * - La Instantanea se reemplaza entera con compareAndSet al volcar un lote:
+ *   un lector siempre ve totales coherentes entre sí (batallas, victorias,
+ *   turnos, mínimo y máximo del mismo momento) sin bloquear a nadie
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - synchronized en HistorialBatallas: un lock por batalla
+ * - AtomicLong por contador: todos los núcleos compiten por la misma línea de caché
+ * - Sumar varios LongAdder al leer: cada suma es de un instante distinto,
+ *   la tasa de victorias podría superar el 100%
+ *
+ * El volcado NO es libre de locks: los lotes de todos los hilos se serializan
+ * en el lock del destino. Con un HistorialBatallas en memoria, además, bajo
+ * ese lock se crea un RegistroBatalla (con su LocalDateTime) por batalla, así
+ * que ese modo sirve para sesiones normales; para millones de batallas por
+ * segundo se usa el almacén, cuyo tramo con lock es solo la copia del lote.
+ * Las batallas volcadas al almacén no actualizan un HistorialBatallas ya
+ * conectado a él hasta que se vuelve a llamar a conectarAlmacen.
+ *
+ * Los contadores LongAdder incluyen las batallas aún en buffers (vista en vivo);
+ * la instantánea y el destino incluyen las ya volcadas. vaciar() vuelca los
+ * buffers de todos los hilos.
+ */
+public class RegistradorConcurrente {
+
+    /** Batallas que acumula cada hilo antes de volcarlas a su destino. */
+    public static final int TAMAÑO_BUFFER = 1024;
+
+    /**
+     * Totales inmutables de las batallas volcadas al destino.
+     */
+    public static final class Instantanea {
+        private final long batallas;
+        private final long victorias;
+        private final long sumaTurnos;
+        private final int minTurnos;
+        private final int maxTurnos;
+
+        private Instantanea(long batallas, long victorias, long sumaTurnos, int minTurnos, int maxTurnos) {
+            this.batallas = batallas;
+            this.victorias = victorias;
+            this.sumaTurnos = sumaTurnos;
+            this.minTurnos = minTurnos;
+            this.maxTurnos = maxTurnos;
+        }
+
+        // Combina estos totales con los de un lote volcado
+        private Instantanea con(Buffer lote, int n) {
+            long v = 0;
+            long suma = 0;
+            int min = minTurnos;
+            int max = maxTurnos;
+            for (int i = 0; i < n; i++) {
+                if (lote.victorias[i]) v++;
+                int t = lote.turnos[i];
+                suma += t;
+                if (t < min) min = t;
+                if (t > max) max = t;
+            }
+            return new Instantanea(batallas + n, victorias + v, sumaTurnos + suma, min, max);
+        }
+
+        // Getters
+        public long getBatallas() { return batallas; }
+        public long getVictorias() { return victorias; }
+        public long getDerrotas() { return batallas - victorias; }
+        public long getSumaTurnos() { return sumaTurnos; }
+        public int getMinTurnos() { return batallas == 0 ? 0 : minTurnos; }
+        public int getMaxTurnos() { return batallas == 0 ? 0 : maxTurnos; }
+
+        public double getTasaVictorias() {
+            return batallas == 0 ? 0 : (double) victorias / batallas;
+        }
+
+        public double getPromedioTurnos() {
+            return batallas == 0 ? 0 : (double) sumaTurnos / batallas;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d batallas | %.1f%% victorias | turnos: promedio %.2f, mín %d, máx %d",
+                batallas, getTasaVictorias() * 100, getPromedioTurnos(), getMinTurnos(), getMaxTurnos());
+        }
+    }
+
+    /**
+     * Buffer de un hilo. Solo su dueño escribe en él; el lock del propio
+     * buffer (sin contención en el caso normal) permite que vaciar() lo
+     * vuelque desde otro hilo.
+     */
+    private static final class Buffer {
+        final boolean[] victorias = new boolean[TAMAÑO_BUFFER];
+        final int[] turnos = new int[TAMAÑO_BUFFER];
+        final long[] fechas = new long[TAMAÑO_BUFFER];
+        final String[][] nombres = new String[TAMAÑO_BUFFER][];
+        int cantidad;
+    }
+
+    // Destino de los lotes: exactamente uno de los dos no es null
+    private final HistorialBatallas historial;
+    private final AlmacenColumnarBatallas almacen;
+    private final ThreadLocal<Buffer> buffers;
+    private final ConcurrentLinkedQueue<Buffer> todosLosBuffers;
+    private final AtomicReference<Instantanea> instantanea;
+
+    // Contadores en vivo (incluyen batallas aún no volcadas)
+    private final LongAdder batallas = new LongAdder();
+    private final LongAdder victorias = new LongAdder();
+    private final LongAdder sumaTurnos = new LongAdder();
+    private final LongAccumulator maxTurnos = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    /**
+     * Constructor del registrador con un historial en memoria como destino.
+     * Cada lote toma el lock del historial y crea un registro por batalla.
+     *
+     * @param historial Historial donde se vuelcan los lotes (solo debe
+     *                  modificarse a través de este registrador mientras se usa)
+     */
+    public RegistradorConcurrente(HistorialBatallas historial) {
+        this(historial, null);
+    }
+
+    /**
+     * Constructor del registrador con un almacén columnar como destino.
+     * Cada lote se copia a las columnas sin crear objetos por batalla.
+     *
+     * @param almacen Almacén abierto donde se anexan los lotes
+     */
+    public RegistradorConcurrente(AlmacenColumnarBatallas almacen) {
+        this(null, almacen);
+    }
+
+    private RegistradorConcurrente(HistorialBatallas historial, AlmacenColumnarBatallas almacen) {
+        if (historial == null && almacen == null) {
+            throw new IllegalArgumentException("El registrador necesita un destino");
+        }
+        this.historial = historial;
+        this.almacen = almacen;
+        this.todosLosBuffers = new ConcurrentLinkedQueue<>();
+        this.instantanea = new AtomicReference<>(
+            new Instantanea(0, 0, 0, Integer.MAX_VALUE, Integer.MIN_VALUE));
+        this.buffers = ThreadLocal.withInitial(() -> {
+            Buffer b = new Buffer();
+            todosLosBuffers.add(b);
+            return b;
+        });
+    }
+
+    /**
+     * Registra una batalla desde cualquier hilo.
+     *
+     * @param victoriaHeroes true si ganaron los héroes
+     * @param turnosUsados Número de turnos que duró la batalla
+     * @param nombresHeroes Nombres de los héroes (el array no debe modificarse después)
+     */
+    public void registrarBatalla(boolean victoriaHeroes, int turnosUsados, String[] nombresHeroes) {
+        batallas.increment();
+        if (victoriaHeroes) victorias.increment();
+        sumaTurnos.add(turnosUsados);
+        maxTurnos.accumulate(turnosUsados);
+
+        Buffer b = buffers.get();
+        synchronized (b) {
+            int i = b.cantidad;
+            b.victorias[i] = victoriaHeroes;
+            b.turnos[i] = turnosUsados;
+            b.fechas[i] = System.currentTimeMillis();
+            b.nombres[i] = nombresHeroes;
+            b.cantidad = i + 1;
+            if (b.cantidad == TAMAÑO_BUFFER) volcar(b);
+        }
+    }
+
+    /**
+     * Vuelca a su destino los buffers de todos los hilos.
+     * Tras llamarlo, la instantánea incluye todas las batallas registradas
+     * antes de la llamada.
+     */
+    public void vaciar() {
+        for (Buffer b : todosLosBuffers) {
+            synchronized (b) {
+                volcar(b);
+            }
+        }
+    }
+
+    // Debe llamarse con el lock del buffer tomado
+    private void volcar(Buffer b) {
+        int n = b.cantidad;
+        if (n == 0) return;
+
+        if (almacen != null) {
+            // Copia de arrays a columnas bajo el lock del almacén
+            almacen.agregarLote(b.victorias, b.turnos, b.fechas, b.nombres, n);
+        } else {
+            // Lock global del historial: los volcados de todos los hilos se serializan aquí
+            ZoneId zona = ZoneId.systemDefault();
+            synchronized (historial) {
+                for (int i = 0; i < n; i++) {
+                    LocalDateTime fecha = LocalDateTime.ofInstant(Instant.ofEpochMilli(b.fechas[i]), zona);
+                    historial.registrar(new HistorialBatallas.RegistroBatalla(
+                        b.victorias[i], b.turnos[i], b.nombres[i], fecha));
+                }
+            }
+        }
+
+        // Publicar los nuevos totales (reintenta si otro hilo publicó antes)
+        Instantanea actual;
+        do {
+            actual = instantanea.get();
+        } while (!instantanea.compareAndSet(actual, actual.con(b, n)));
+
+        for (int i = 0; i < n; i++) b.nombres[i] = null;
+        b.cantidad = 0;
+    }
+
+    /**
+     * Obtiene los totales coherentes de las batallas ya volcadas.
+     * No bloquea: lee la última instantánea publicada.
+     *
+     * @return Instantánea inmutable
+     */
+    public Instantanea obtenerInstantanea() {
+        return instantanea.get();
+    }
+
+    // Contadores en vivo: cada uno es exacto, pero no coherentes entre sí
+
+    public long contarBatallas() { return batallas.sum(); }
+    public long contarVictorias() { return victorias.sum(); }
+    public long sumarTurnos() { return sumaTurnos.sum(); }
+
+    public int obtenerMaxTurnos() {
+        long max = maxTurnos.get();
+        return max == Long.MIN_VALUE ? 0 : (int) max;
+    }
+
+    /**
+     * Obtiene el historial donde se vuelcan las batallas.
+     * Para leerlo mientras otros hilos registran, sincronizar sobre él.
+     *
+     * @return Historial de destino, o null si el destino es un almacén
+     */
+    public HistorialBatallas obtenerHistorial() {
+        return historial;
+    }
+
+    /**
+     * Obtiene el almacén donde se vuelcan las batallas.
+     * Sus lecturas no necesitan lock mientras otros hilos registran.
+     *
+     * @return Almacén de destino, o null si el destino es un historial
+     */
+    public AlmacenColumnarBatallas obtenerAlmacen() {
+        return almacen;
+    }
+}
@@ -1,108 +1,617 @@
 package modelo;
 
-import java.util.HashSet;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
  * Clase que mantiene un registro de aventureros únicos.
- * 
- * ESTRUCTURA DE DATOS: HashSet<String>
- * 
+ *
+ * ESTRUCTURA DE DATOS: trie comprimido (radix) sobre los bytes UTF-8 del nombre,
+ * guardado en arrays paralelos en lugar de un objeto por nodo
+ *   - etiquetas: byte[] con los fragmentos de nombre de todas las aristas
+ *   - etiqueta[n]: posición (32 bits) | longitud (31 bits) | terminal (1 bit)
+ *   - primerHijo[n], hermano[n]: hijos de cada nodo en una lista enlazada
+ *     ordenada por el primer byte de su etiqueta
+ *
  * JUSTIFICACIÓN:
- * - HashSet es ideal para un registro porque:
- *   * Garantiza unicidad (no hay aventureros duplicados)
- *   * add() y contains() en O(1)
- *   * remove() también en O(1)
- *   * No requiere ordenamiento
- *   * Perfecto para verificaciones de membresía
- * 
+ * - Garantiza unicidad igual que el HashSet (registrar un nombre existente
+ *   devuelve false)
+ * - registrar, estaRegistrado y eliminar recorren el nombre una vez: O(longitud)
+ * - Los prefijos comunes ("Jess", "Jessica", "Jessie") se guardan una sola vez
+ * - Cada nodo ocupa 16 bytes en arrays de primitivos, sin cabeceras de
+ *   objeto: un nombre cuesta unos 16-32 bytes más su sufijo no compartido,
+ *   frente a ~50-80 bytes de sobrecarga del HashSet más el String (~40 + 2
+ *   bytes por carácter)
+ * - Los hijos ordenados permiten enumerar por prefijo en orden alfabético
+ *   (autocompletar) visitando solo el subárbol del prefijo
+ *
  * ALTERNATIVAS RECHAZADAS:
- * - ArrayList: Permitiría duplicados, búsqueda O(n)
- * - TreeSet: Ordenamiento innecesario O(log n)
- * - HashMap: Overkill si solo necesitamos nombres
- * - LinkedHashSet: Mantenimiento de orden innecesario
- * 
- * Este registro garantiza que cada aventurero está registrado
- * una sola vez en el gremio.
+ * - HashSet<String>: solo coincidencias exactas y mucha memoria por nombre
+ * - TreeSet<String>: prefijos en O(log n + k) pero aún más memoria por nodo
+ * - Trie con un objeto y un array de 256 hijos por nodo: kilobytes por nodo
+ * - FST (autómata mínimo): más compacto pero de solo lectura; el registro
+ *   admite altas y bajas
+ *
+ * Al eliminar se desenlazan los nodos que quedan vacíos; sus bytes de
+ * etiqueta se recuperan compactando el array cuando superan la mitad.
+ * No es seguro entre hilos (ver RegistroAventurerosConcurrente).
  */
 public class RegistroAventureros {
 
-    // HashSet para garantizar unicidad y búsqueda O(1)
-    private HashSet<String> aventureros;
+    private static final int SIN_NODO = -1;
+    private static final int RAIZ = 0;
+    private static final int CAPACIDAD_INICIAL = 64;
+
+    private byte[] etiquetas;       // Fragmentos de nombre de todas las aristas
+    private int usoEtiquetas;       // Bytes ocupados de etiquetas
+    private int basuraEtiquetas;    // Bytes de nodos eliminados
+
+    private long[] etiqueta;        // posición << 32 | longitud << 1 | terminal
+    private int[] primerHijo;
+    private int[] hermano;
+    private int numeroNodos;
+    private int libre;              // Lista de nodos libres (enlazada por hermano)
+
+    private int total;
+    private int longitudMaxima;     // Bytes del nombre más largo registrado (cota: no baja al eliminar)
 
     /**
      * Constructor que inicializa el registro vacío.
      */
     public RegistroAventureros() {
-        this.aventureros = new HashSet<>();
+        reiniciar();
+    }
+
+    private void reiniciar() {
+        etiquetas = new byte[CAPACIDAD_INICIAL * 8];
+        usoEtiquetas = 0;
+        basuraEtiquetas = 0;
+        etiqueta = new long[CAPACIDAD_INICIAL];
+        primerHijo = new int[CAPACIDAD_INICIAL];
+        hermano = new int[CAPACIDAD_INICIAL];
+        numeroNodos = 0;
+        libre = SIN_NODO;
+        total = 0;
+        longitudMaxima = 0;
+        crearNodo(0, 0, false);     // Raíz: etiqueta vacía
+    }
+
+    // ==================== NODOS ====================
+
+    private int posicion(int nodo) { return (int) (etiqueta[nodo] >>> 32); }
+    private int longitud(int nodo) { return (int) (etiqueta[nodo] & 0xFFFFFFFFL) >>> 1; }
+    private boolean esTerminal(int nodo) { return (etiqueta[nodo] & 1L) != 0; }
+
+    private void fijarEtiqueta(int nodo, int posicion, int longitud, boolean terminal) {
+        etiqueta[nodo] = ((long) posicion << 32) | ((long) longitud << 1) | (terminal ? 1L : 0L);
+    }
+
+    private void fijarTerminal(int nodo, boolean terminal) {
+        etiqueta[nodo] = terminal ? etiqueta[nodo] | 1L : etiqueta[nodo] & ~1L;
+    }
+
+    private int primerByte(int nodo) {
+        return etiquetas[posicion(nodo)] & 0xFF;
+    }
+
+    private int crearNodo(int posicion, int longitud, boolean terminal) {
+        int nodo;
+        if (libre != SIN_NODO) {
+            nodo = libre;
+            libre = hermano[nodo];
+        } else {
+            if (numeroNodos == etiqueta.length) {
+                int capacidad = etiqueta.length + (etiqueta.length >> 1);
+                etiqueta = Arrays.copyOf(etiqueta, capacidad);
+                primerHijo = Arrays.copyOf(primerHijo, capacidad);
+                hermano = Arrays.copyOf(hermano, capacidad);
+            }
+            nodo = numeroNodos++;
+        }
+        fijarEtiqueta(nodo, posicion, longitud, terminal);
+        primerHijo[nodo] = SIN_NODO;
+        hermano[nodo] = SIN_NODO;
+        return nodo;
+    }
+
+    private void liberarNodo(int nodo) {
+        basuraEtiquetas += longitud(nodo);
+        etiqueta[nodo] = 0;
+        primerHijo[nodo] = SIN_NODO;
+        hermano[nodo] = libre;
+        libre = nodo;
+    }
+
+    private int guardarBytes(byte[] origen, int desde, int cantidad) {
+        if (usoEtiquetas + cantidad > etiquetas.length) {
+            long capacidad = Math.max((long) usoEtiquetas + cantidad, (long) etiquetas.length + (etiquetas.length >> 1));
+            etiquetas = Arrays.copyOf(etiquetas, (int) Math.min(capacidad, Integer.MAX_VALUE - 8));
+        }
+        System.arraycopy(origen, desde, etiquetas, usoEtiquetas, cantidad);
+        int posicion = usoEtiquetas;
+        usoEtiquetas += cantidad;
+        return posicion;
+    }
+
+    /**
+     * Busca el hijo de un nodo cuya etiqueta empieza por un byte.
+     */
+    private int hijoCon(int nodo, int b) {
+        for (int c = primerHijo[nodo]; c != SIN_NODO; c = hermano[c]) {
+            int primero = primerByte(c);
+            if (primero == b) return c;
+            if (primero > b) return SIN_NODO;   // Hijos ordenados
+        }
+        return SIN_NODO;
+    }
+
+    /**
+     * Inserta un hijo manteniendo el orden por primer byte.
+     */
+    private void insertarHijo(int padre, int hijo) {
+        int b = primerByte(hijo);
+        int anterior = SIN_NODO;
+        int c = primerHijo[padre];
+        while (c != SIN_NODO && primerByte(c) < b) {
+            anterior = c;
+            c = hermano[c];
+        }
+        hermano[hijo] = c;
+        if (anterior == SIN_NODO) primerHijo[padre] = hijo; else hermano[anterior] = hijo;
+    }
+
+    /**
+     * Sustituye un hijo por otro en la misma posición de la lista.
+     */
+    private void reemplazarHijo(int padre, int viejo, int nuevo) {
+        hermano[nuevo] = hermano[viejo];
+        if (primerHijo[padre] == viejo) {
+            primerHijo[padre] = nuevo;
+            return;
+        }
+        int c = primerHijo[padre];
+        while (hermano[c] != viejo) c = hermano[c];
+        hermano[c] = nuevo;
+    }
+
+    private void quitarHijo(int padre, int hijo) {
+        if (primerHijo[padre] == hijo) {
+            primerHijo[padre] = hermano[hijo];
+            return;
+        }
+        int c = primerHijo[padre];
+        while (hermano[c] != hijo) c = hermano[c];
+        hermano[c] = hermano[hijo];
     }
 
+    // ==================== OPERACIONES ====================
+
     /**
      * Registra un aventurero en el gremio.
-     * 
+     *
      * @param nombre Nombre del aventurero
      * @return true si se registró (no existía antes), false si ya estaba registrado
      */
     public boolean registrar(String nombre) {
         if (nombre == null || nombre.isEmpty()) return false;
-        return aventureros.add(nombre);
+        byte[] clave = nombre.getBytes(StandardCharsets.UTF_8);
+        if (clave.length > longitudMaxima) longitudMaxima = clave.length;
+
+        int nodo = RAIZ;
+        int pos = 0;
+        while (pos < clave.length) {
+            int c = hijoCon(nodo, clave[pos] & 0xFF);
+            if (c == SIN_NODO) {
+                // Ningún hijo comparte el siguiente byte: el resto del nombre es una hoja
+                int hoja = crearNodo(guardarBytes(clave, pos, clave.length - pos), clave.length - pos, true);
+                insertarHijo(nodo, hoja);
+                total++;
+                return true;
+            }
+
+            int inicio = posicion(c);
+            int largo = longitud(c);
+            int comun = 0;
+            int maximo = Math.min(largo, clave.length - pos);
+            while (comun < maximo && etiquetas[inicio + comun] == clave[pos + comun]) comun++;
+
+            if (comun == largo) {
+                nodo = c;
+                pos += largo;
+                continue;
+            }
+
+            // Partir la arista: el nodo intermedio reutiliza los primeros bytes de la etiqueta
+            int intermedio = crearNodo(inicio, comun, false);
+            reemplazarHijo(nodo, c, intermedio);
+            fijarEtiqueta(c, inicio + comun, largo - comun, esTerminal(c));
+            hermano[c] = SIN_NODO;
+            primerHijo[intermedio] = c;
+            pos += comun;
+
+            if (pos == clave.length) {
+                fijarTerminal(intermedio, true);
+            } else {
+                int hoja = crearNodo(guardarBytes(clave, pos, clave.length - pos), clave.length - pos, true);
+                insertarHijo(intermedio, hoja);
+            }
+            total++;
+            return true;
+        }
+
+        // El nombre termina exactamente en un nodo existente
+        if (esTerminal(nodo)) return false;
+        fijarTerminal(nodo, true);
+        total++;
+        return true;
+    }
+
+    /**
+     * Busca el nodo cuyo camino desde la raíz es exactamente la clave.
+     *
+     * @return Nodo, o SIN_NODO si la clave no es un camino del trie
+     */
+    private int buscarNodo(byte[] clave) {
+        int nodo = RAIZ;
+        int pos = 0;
+        while (pos < clave.length) {
+            int c = hijoCon(nodo, clave[pos] & 0xFF);
+            if (c == SIN_NODO) return SIN_NODO;
+            int inicio = posicion(c);
+            int largo = longitud(c);
+            if (pos + largo > clave.length) return SIN_NODO;
+            for (int i = 1; i < largo; i++) {
+                if (etiquetas[inicio + i] != clave[pos + i]) return SIN_NODO;
+            }
+            pos += largo;
+            nodo = c;
+        }
+        return nodo;
     }
 
     /**
      * Verifica si un aventurero está registrado.
-     * 
+     *
      * @param nombre Nombre del aventurero
      * @return true si está en el registro
      */
     public boolean estaRegistrado(String nombre) {
-        return aventureros.contains(nombre);
+        if (nombre == null || nombre.isEmpty()) return false;
+        int nodo = buscarNodo(nombre.getBytes(StandardCharsets.UTF_8));
+        return nodo != SIN_NODO && esTerminal(nodo);
     }
 
     /**
      * Obtiene el número total de aventureros registrados.
-     * 
+     *
      * @return Cantidad de aventureros únicos
      */
     public int obtenerTotal() {
-        return aventureros.size();
+        return total;
     }
 
     /**
      * Obtiene el conjunto de todos los aventureros registrados.
-     * 
-     * @return Set con los nombres de aventureros
+     *
+     * @return Set con los nombres de aventureros (en orden alfabético)
      */
     public Set<String> obtenerTodos() {
-        return new HashSet<>(aventureros);
+        return new LinkedHashSet<>(buscarPorPrefijo("", Integer.MAX_VALUE));
+    }
+
+    /**
+     * Obtiene los aventureros cuyo nombre empieza por un prefijo, en orden
+     * alfabético (por punto de código). Solo se visita el subárbol del prefijo.
+     *
+     * @param prefijo Prefijo buscado ("" para todos)
+     * @return Nombres que empiezan por el prefijo
+     */
+    public List<String> buscarPorPrefijo(String prefijo) {
+        return buscarPorPrefijo(prefijo, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Obtiene como máximo 'limite' aventureros cuyo nombre empieza por un prefijo
+     * (por ejemplo, para autocompletar).
+     *
+     * @param prefijo Prefijo buscado ("" para todos)
+     * @param limite Número máximo de resultados
+     * @return Nombres que empiezan por el prefijo, en orden alfabético
+     */
+    public List<String> buscarPorPrefijo(String prefijo, int limite) {
+        List<String> resultado = new ArrayList<>();
+        if (prefijo == null || limite <= 0) return resultado;
+        byte[] clave = prefijo.getBytes(StandardCharsets.UTF_8);
+
+        Recolector recolector = new Recolector(resultado, limite);
+        int nodo = RAIZ;
+        int pos = 0;
+        while (pos < clave.length) {
+            int c = hijoCon(nodo, clave[pos] & 0xFF);
+            if (c == SIN_NODO) return resultado;
+            int inicio = posicion(c);
+            int largo = longitud(c);
+            // El prefijo puede terminar a mitad de la etiqueta
+            int comparar = Math.min(largo, clave.length - pos);
+            for (int i = 1; i < comparar; i++) {
+                if (etiquetas[inicio + i] != clave[pos + i]) return resultado;
+            }
+            recolector.añadir(inicio, largo);
+            pos += largo;
+            nodo = c;
+        }
+        recolector.recorrer(nodo);
+        return resultado;
+    }
+
+    /**
+     * Recorrido en profundidad que reconstruye los nombres en un buffer de bytes.
+     */
+    private final class Recolector {
+        private final List<String> resultado;
+        private final int limite;
+        private byte[] ruta = new byte[64];
+        private int largoRuta;
+
+        Recolector(List<String> resultado, int limite) {
+            this.resultado = resultado;
+            this.limite = limite;
+        }
+
+        void añadir(int inicio, int largo) {
+            if (largoRuta + largo > ruta.length) {
+                ruta = Arrays.copyOf(ruta, Math.max(ruta.length * 2, largoRuta + largo));
+            }
+            System.arraycopy(etiquetas, inicio, ruta, largoRuta, largo);
+            largoRuta += largo;
+        }
+
+        void recorrer(int nodo) {
+            if (esTerminal(nodo)) {
+                resultado.add(new String(ruta, 0, largoRuta, StandardCharsets.UTF_8));
+            }
+            for (int c = primerHijo[nodo]; c != SIN_NODO && resultado.size() < limite; c = hermano[c]) {
+                int guardado = largoRuta;
+                añadir(posicion(c), longitud(c));
+                recorrer(c);
+                largoRuta = guardado;
+            }
+        }
+    }
+
+    /**
+     * Obtiene los aventureros cuyo nombre está a distancia de edición
+     * (Levenshtein, por punto de código) como máximo k del nombre dado; por
+     * ejemplo, "Jesica" encuentra "Jessica" con k = 1.
+     *
+     * Recorre el trie calculando una fila de la tabla de Levenshtein por
+     * cada carácter del camino (equivale a simular el autómata de Levenshtein
+     * del nombre sobre el trie). Los prefijos compartidos se calculan una sola
+     * vez y se abandona una rama en cuanto el mínimo de su fila supera k, así
+     * que con k pequeño solo se visita una fracción mínima del registro.
+     *
+     * @param nombre Nombre buscado
+     * @param k Distancia máxima (0 = coincidencia exacta). Ninguna distancia
+     *          supera la longitud del más largo de los dos nombres, así que
+     *          se acota a max(longitud del nombre, nombre registrado más largo)
+     *          antes de reservar memoria
+     * @return Nombres similares, de menor a mayor distancia y en orden
+     *         alfabético a igual distancia
+     */
+    public List<String> buscarSimilares(String nombre, int k) {
+        List<String> resultado = new ArrayList<>();
+        if (nombre == null || k < 0) return resultado;
+
+        int[] consulta = nombre.codePoints().toArray();
+        // longitudMaxima cuenta bytes, cota superior de los puntos de código
+        int cota = Math.max(consulta.length, longitudMaxima);
+        BuscadorSimilares buscador = new BuscadorSimilares(consulta, Math.min(k, cota));
+        buscador.recorrer(RAIZ);
+        for (List<String> cubeta : buscador.porDistancia) resultado.addAll(cubeta);
+        return resultado;
+    }
+
+    /**
+     * Recorrido en profundidad con una fila de Levenshtein por nivel.
+     * Los bytes UTF-8 se acumulan hasta completar un punto de código, que
+     * puede quedar repartido entre dos aristas.
+     */
+    private final class BuscadorSimilares {
+        private final int[] consulta;
+        private final int k;
+        private final List<List<String>> porDistancia;
+
+        private int[][] filas;          // filas[p]: distancias tras p caracteres del camino
+        private int profundidad;        // Caracteres completos del camino
+        private int acumulado;          // Punto de código a medio decodificar
+        private int pendientes;         // Bytes de continuación que le faltan
+        private byte[] ruta = new byte[64];
+        private int largoRuta;
+
+        BuscadorSimilares(int[] consulta, int k) {
+            this.consulta = consulta;
+            this.k = k;
+            this.porDistancia = new ArrayList<>(k + 1);
+            for (int d = 0; d <= k; d++) porDistancia.add(new ArrayList<>());
+            this.filas = new int[consulta.length + k + 2][];
+            filas[0] = new int[consulta.length + 1];
+            for (int j = 0; j <= consulta.length; j++) filas[0][j] = j;
+        }
+
+        void recorrer(int nodo) {
+            for (int c = primerHijo[nodo]; c != SIN_NODO; c = hermano[c]) {
+                int guardadoRuta = largoRuta;
+                int guardadoProfundidad = profundidad;
+                int guardadoAcumulado = acumulado;
+                int guardadoPendientes = pendientes;
+
+                if (avanzar(posicion(c), longitud(c))) {
+                    int distancia = filas[profundidad][consulta.length];
+                    if (esTerminal(c) && distancia <= k) {
+                        porDistancia.get(distancia).add(new String(ruta, 0, largoRuta, StandardCharsets.UTF_8));
+                    }
+                    recorrer(c);
+                }
+
+                largoRuta = guardadoRuta;
+                profundidad = guardadoProfundidad;
+                acumulado = guardadoAcumulado;
+                pendientes = guardadoPendientes;
+            }
+        }
+
+        /**
+         * Consume los bytes de una etiqueta.
+         *
+         * @return false si la rama ya no puede llevar a ningún nombre a distancia <= k
+         */
+        private boolean avanzar(int inicio, int largo) {
+            if (largoRuta + largo > ruta.length) {
+                ruta = Arrays.copyOf(ruta, Math.max(ruta.length * 2, largoRuta + largo));
+            }
+            System.arraycopy(etiquetas, inicio, ruta, largoRuta, largo);
+            largoRuta += largo;
+
+            for (int i = inicio; i < inicio + largo; i++) {
+                int b = etiquetas[i] & 0xFF;
+                if (pendientes > 0) {
+                    acumulado = (acumulado << 6) | (b & 0x3F);
+                    if (--pendientes > 0) continue;
+                } else if (b < 0x80) {
+                    acumulado = b;
+                } else if ((b & 0xE0) == 0xC0) {
+                    acumulado = b & 0x1F;
+                    pendientes = 1;
+                    continue;
+                } else if ((b & 0xF0) == 0xE0) {
+                    acumulado = b & 0x0F;
+                    pendientes = 2;
+                    continue;
+                } else {
+                    acumulado = b & 0x07;
+                    pendientes = 3;
+                    continue;
+                }
+                if (!siguienteFila(acumulado)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Calcula la fila del siguiente carácter del camino.
+         *
+         * @return false si todas sus distancias superan k
+         */
+        private boolean siguienteFila(int caracter) {
+            // Con más de |consulta| + k caracteres el mínimo ya supera k
+            if (profundidad + 1 >= filas.length) return false;
+            int[] anterior = filas[profundidad];
+            int[] fila = filas[profundidad + 1];
+            if (fila == null) fila = filas[profundidad + 1] = new int[consulta.length + 1];
+
+            fila[0] = anterior[0] + 1;
+            int minimo = fila[0];
+            for (int j = 1; j <= consulta.length; j++) {
+                int sustituir = anterior[j - 1] + (consulta[j - 1] == caracter ? 0 : 1);
+                int d = Math.min(sustituir, Math.min(anterior[j] + 1, fila[j - 1] + 1));
+                fila[j] = d;
+                if (d < minimo) minimo = d;
+            }
+            profundidad++;
+            return minimo <= k;
+        }
     }
 
     /**
      * Elimina un aventurero del registro.
-     * 
+     *
      * @param nombre Nombre del aventurero
      * @return true si fue eliminado, false si no estaba registrado
      */
     public boolean eliminar(String nombre) {
-        return aventureros.remove(nombre);
+        if (nombre == null || nombre.isEmpty()) return false;
+        if (!eliminar(RAIZ, nombre.getBytes(StandardCharsets.UTF_8), 0)) return false;
+        total--;
+        if (basuraEtiquetas > 4096 && basuraEtiquetas > usoEtiquetas / 2) compactar();
+        return true;
+    }
+
+    private boolean eliminar(int nodo, byte[] clave, int pos) {
+        if (pos == clave.length) {
+            if (!esTerminal(nodo)) return false;
+            fijarTerminal(nodo, false);
+            return true;
+        }
+        int c = hijoCon(nodo, clave[pos] & 0xFF);
+        if (c == SIN_NODO) return false;
+        int inicio = posicion(c);
+        int largo = longitud(c);
+        if (pos + largo > clave.length) return false;
+        for (int i = 1; i < largo; i++) {
+            if (etiquetas[inicio + i] != clave[pos + i]) return false;
+        }
+        if (!eliminar(c, clave, pos + largo)) return false;
+
+        // Desenlazar el hijo si ya no lleva a ningún nombre
+        if (!esTerminal(c) && primerHijo[c] == SIN_NODO) {
+            quitarHijo(nodo, c);
+            liberarNodo(c);
+        }
+        return true;
+    }
+
+    /**
+     * Copia las etiquetas de los nodos vivos a un array nuevo sin huecos.
+     */
+    private void compactar() {
+        byte[] nuevas = new byte[Math.max(CAPACIDAD_INICIAL, usoEtiquetas - basuraEtiquetas)];
+        int uso = 0;
+        int[] pila = new int[numeroNodos];
+        int cima = 0;
+        pila[cima++] = RAIZ;
+        while (cima > 0) {
+            int nodo = pila[--cima];
+            int largo = longitud(nodo);
+            System.arraycopy(etiquetas, posicion(nodo), nuevas, uso, largo);
+            fijarEtiqueta(nodo, uso, largo, esTerminal(nodo));
+            uso += largo;
+            for (int c = primerHijo[nodo]; c != SIN_NODO; c = hermano[c]) pila[cima++] = c;
+        }
+        etiquetas = nuevas;
+        usoEtiquetas = uso;
+        basuraEtiquetas = 0;
+    }
+
+    /**
+     * Estima la memoria ocupada por el registro.
+     *
+     * @return Bytes de los arrays internos
+     */
+    public long estimarBytes() {
+        return (long) etiquetas.length + etiqueta.length * 8L + primerHijo.length * 4L + hermano.length * 4L;
     }
 
     /**
      * Limpia el registro completamente.
      */
     public void limpiar() {
-        aventureros.clear();
+        reiniciar();
     }
 
     @Override
     public String toString() {
-        if (aventureros.isEmpty()) {
+        if (total == 0) {
             return "No hay aventureros registrados";
         }
         StringBuilder sb = new StringBuilder("=== REGISTRO DE AVENTUREROS ===\n");
-        sb.append("Total registrados: ").append(aventureros.size()).append("\n\n");
-        
+        sb.append("Total registrados: ").append(total).append("\n\n");
+
         int contador = 1;
-        for (String nombre : aventureros) {
+        for (String nombre : buscarPorPrefijo("")) {
             sb.append(contador++).append(". ").append(nombre).append("\n");
         }
         return sb.toString();
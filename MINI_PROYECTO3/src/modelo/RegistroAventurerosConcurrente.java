@@ -0,0 +1,288 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro de aventureros seguro entre hilos (varias sesiones del servidor
+ * registrando a la vez).
+ *
+ * ESTRUCTURA DE DATOS: ConcurrentSkipListMap<String, Entrada> + cadenas de versiones (MVCC)
+ *   - Cada Entrada apunta a su última Version (alta o baja) y cada Version
+ *     a la anterior
+ *   - Un reloj global (AtomicLong) numera las versiones
+ *
+ * JUSTIFICACIÓN:
+ * - Registrar no toma locks: un nombre nuevo entra con putIfAbsent y un
+ *   cambio de alta/baja con un compareAndSet sobre la cabeza de la cadena
+ * - Exactamente una vez: de varios hilos que registran el mismo nombre a la
+ *   vez solo uno gana el putIfAbsent o el CAS; los demás reciben false
+ * - Una Instantanea fija un número de versión y recorre el mapa mostrando,
+ *   de cada nombre, la última versión anterior o igual a ese número: ve el
+ *   registro tal como estaba en un instante aunque los escritores sigan
+ *   trabajando, y no los bloquea
+ * - El skip list mantiene el orden alfabético para recorrer y listar
+ * - Las versiones que ya no puede ver ninguna instantánea abierta se podan
+ *   al escribir, así que las cadenas se mantienen cortas
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - RegistroAventureros con synchronized: serializa todos los registros
+ * - ConcurrentHashMap.newKeySet(): seguro, pero su iteración es débilmente
+ *   consistente (mezcla estados de distintos instantes) y no ordenada
+ * - Copiar el registro para iterarlo: O(n) por cada recorrido
+ *
+ * Un nombre eliminado conserva su Entrada (con una versión de baja): quitarla
+ * del mapa obligaría a coordinar el borrado con un registro simultáneo.
+ */
+public class RegistroAventurerosConcurrente {
+
+    // Versión aún no publicada (el escritor acaba de enlazarla)
+    private static final long PENDIENTE = Long.MAX_VALUE;
+
+    /**
+     * Alta o baja de un nombre en una versión concreta.
+     */
+    private static final class Version {
+        final boolean registrado;
+        volatile long numero = PENDIENTE;
+        volatile Version anterior;
+
+        Version(boolean registrado, Version anterior) {
+            this.registrado = registrado;
+            this.anterior = anterior;
+        }
+
+        // Espera (sin locks) a que el escritor publique el número; son
+        // solo las instrucciones entre el CAS y la asignación, salvo que el
+        // escritor pierda la CPU: entonces se le cede
+        long numeroPublicado() {
+            long n;
+            for (int intentos = 0; (n = numero) == PENDIENTE; intentos++) {
+                if (intentos < 64) Thread.onSpinWait(); else Thread.yield();
+            }
+            return n;
+        }
+    }
+
+    private static final class Entrada {
+        volatile Version cabeza;
+
+        Entrada(Version cabeza) {
+            this.cabeza = cabeza;
+        }
+    }
+
+    private static final AtomicReferenceFieldUpdater<Entrada, Version> CABEZA =
+        AtomicReferenceFieldUpdater.newUpdater(Entrada.class, Version.class, "cabeza");
+
+    private final ConcurrentSkipListMap<String, Entrada> mapa = new ConcurrentSkipListMap<>();
+    private final AtomicLong reloj = new AtomicLong();
+    private final LongAdder total = new LongAdder();
+
+    // Versiones fijadas por instantáneas abiertas → número de instantáneas
+    private final ConcurrentHashMap<Long, Integer> instantaneasAbiertas = new ConcurrentHashMap<>();
+
+    /**
+     * Registra un aventurero.
+     *
+     * @param nombre Nombre del aventurero
+     * @return true si este hilo lo registró; false si ya estaba registrado
+     */
+    public boolean registrar(String nombre) {
+        if (nombre == null || nombre.isEmpty()) return false;
+        return cambiar(nombre, true);
+    }
+
+    /**
+     * Elimina un aventurero.
+     *
+     * @param nombre Nombre del aventurero
+     * @return true si este hilo lo eliminó; false si no estaba registrado
+     */
+    public boolean eliminar(String nombre) {
+        if (nombre == null || nombre.isEmpty()) return false;
+        return cambiar(nombre, false);
+    }
+
+    private boolean cambiar(String nombre, boolean registrar) {
+        Entrada entrada = mapa.get(nombre);
+        if (entrada == null) {
+            if (!registrar) return false;
+            Version version = new Version(true, null);
+            entrada = mapa.putIfAbsent(nombre, new Entrada(version));
+            if (entrada == null) {
+                publicar(version);
+                total.increment();
+                return true;
+            }
+        }
+        while (true) {
+            Version cabeza = entrada.cabeza;
+            // Esperar a que la cabeza esté publicada: así los números
+            // decrecen de la cabeza hacia atrás, y quien vea un cambio ajeno
+            // (y actúe en consecuencia) escribe siempre después de él
+            cabeza.numeroPublicado();
+            if (cabeza.registrado == registrar) return false;   // Otro hilo ya lo hizo
+            Version version = new Version(registrar, cabeza);
+            if (CABEZA.compareAndSet(entrada, cabeza, version)) {
+                publicar(version);
+                if (registrar) total.increment(); else total.decrement();
+                podar(version);
+                return true;
+            }
+        }
+    }
+
+    private void publicar(Version version) {
+        version.numero = reloj.incrementAndGet();
+    }
+
+    /**
+     * Corta la cadena por debajo de la versión más reciente que aún puede
+     * ver la instantánea abierta más antigua.
+     */
+    private void podar(Version cabeza) {
+        // El reloj se lee antes de mirar las instantáneas: una instantánea
+        // que se abra durante el recorrido tendrá una versión >= minimo
+        long minimo = reloj.get();
+        for (Long abierta : instantaneasAbiertas.keySet()) minimo = Math.min(minimo, abierta);
+        for (Version v = cabeza; v != null; v = v.anterior) {
+            if (v.numeroPublicado() <= minimo) {
+                v.anterior = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Verifica si un aventurero está registrado ahora mismo.
+     *
+     * @param nombre Nombre del aventurero
+     * @return true si está en el registro
+     */
+    public boolean estaRegistrado(String nombre) {
+        if (nombre == null) return false;
+        Entrada entrada = mapa.get(nombre);
+        if (entrada == null) return false;
+        Version cabeza = entrada.cabeza;
+        cabeza.numeroPublicado();
+        return cabeza.registrado;
+    }
+
+    /**
+     * Obtiene el número total de aventureros registrados.
+     *
+     * @return Cantidad de aventureros únicos
+     */
+    public long obtenerTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Abre una instantánea del registro. Debe cerrarse (try-with-resources)
+     * para que las versiones antiguas puedan podarse.
+     *
+     * @return Instantánea del estado actual
+     */
+    public Instantanea obtenerInstantanea() {
+        return new Instantanea();
+    }
+
+    /**
+     * Vista del registro en una versión fija. Recorrerla no bloquea a los
+     * escritores ni ve sus cambios posteriores.
+     */
+    public final class Instantanea implements Iterable<String>, AutoCloseable {
+        private final long fijada;
+        private final long version;
+        private boolean cerrada;
+
+        private Instantanea() {
+            // Se fija una cota inferior y después se lee la versión: una poda
+            // que no haya visto la cota leyó el reloj antes que nosotros
+            this.fijada = reloj.get();
+            instantaneasAbiertas.merge(fijada, 1, Integer::sum);
+            this.version = reloj.get();
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Indica si un nombre estaba registrado en la versión de la instantánea.
+         *
+         * @param nombre Nombre del aventurero
+         * @return true si estaba registrado
+         */
+        public boolean contiene(String nombre) {
+            Entrada entrada = mapa.get(nombre);
+            return entrada != null && visible(entrada);
+        }
+
+        private boolean visible(Entrada entrada) {
+            for (Version v = entrada.cabeza; v != null; v = v.anterior) {
+                if (v.numeroPublicado() <= version) return v.registrado;
+            }
+            return false;
+        }
+
+        /**
+         * Recorre los nombres registrados en la versión, en orden alfabético.
+         */
+        @Override
+        public Iterator<String> iterator() {
+            Iterator<Map.Entry<String, Entrada>> it = mapa.entrySet().iterator();
+            return new Iterator<String>() {
+                private String siguiente = avanzar();
+
+                private String avanzar() {
+                    while (it.hasNext()) {
+                        Map.Entry<String, Entrada> e = it.next();
+                        if (visible(e.getValue())) return e.getKey();
+                    }
+                    return null;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return siguiente != null;
+                }
+
+                @Override
+                public String next() {
+                    if (siguiente == null) throw new NoSuchElementException();
+                    String actual = siguiente;
+                    siguiente = avanzar();
+                    return actual;
+                }
+            };
+        }
+
+        /**
+         * Copia los nombres de la instantánea en una lista.
+         *
+         * @return Nombres en orden alfabético
+         */
+        public List<String> comoLista() {
+            List<String> lista = new ArrayList<>();
+            for (String nombre : this) lista.add(nombre);
+            return lista;
+        }
+
+        @Override
+        public void close() {
+            if (cerrada) return;
+            cerrada = true;
+            instantaneasAbiertas.computeIfPresent(fijada,(v, n) -> n == 1 ? null : n - 1);
+        }
+    }
+}
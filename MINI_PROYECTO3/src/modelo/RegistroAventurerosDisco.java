@@ -0,0 +1,473 @@
+package modelo;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+/**
+ * Registro de aventureros que no cabe en el heap: tabla ordenada en disco,
+ * mapeada en memoria, con un filtro de Bloom delante.
+ *
+ * ESTRUCTURA DE DATOS:
+ *   - tabla.sst: tabla de cadenas ordenada (bytes UTF-8), inmutable
+ *       [magia "SSTA"][versión][n][offsets long × (n+1)][bytes de los nombres]
+ *       [relleno hasta múltiplo de 8][bits del FiltroBloom (versión 2)]
+ *   - FiltroBloom en memoria con todos los nombres de la tabla, calculado
+ *     al fusionar y guardado en la propia tabla
+ *   - Buffer de anexado en memoria (TreeSet de altas + TreeSet de bajas),
+ *     respaldado por pendientes.log, que se fusiona con la tabla periódicamente
+ *
+ * JUSTIFICACIÓN:
+ * - estaRegistrado mira primero el buffer y después el filtro: la mayoría
+ *   de consultas negativas se responden sin tocar el disco; solo los
+ *   positivos (y un p% de falsos positivos) hacen la búsqueda binaria,
+ *   O(log n) accesos a páginas que el sistema operativo mantiene en caché
+ * - La tabla nunca se modifica en su sitio: la fusión escribe una tabla
+ *   nueva secuencialmente y la sustituye con un renombrado atómico
+ * - El log de pendientes se reproduce al abrir: no se pierden altas ni bajas
+ *   hechas después de la última fusión
+ * - Los offsets de 64 bits y el mapeo por segmentos permiten tablas de más de 2 GB
+ * - Abrir el registro copia los bits del filtro desde la tabla mapeada
+ *   (~1,2 bytes por nombre) en lugar de leer y calcular el hash de cada
+ *   nombre; al ir en el mismo archivo, el renombrado atómico publica tabla
+ *   y filtro a la vez y nunca quedan desparejados
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - RegistroAventureros (trie en el heap): limitado por la memoria del proceso
+ * - Archivo de texto con búsqueda lineal: O(n) lecturas de disco por consulta
+ * - Árbol B en disco con escrituras en su sitio: más complejo y con
+ *   escrituras aleatorias en cada alta
+ *
+ * El orden de la tabla es el de los bytes UTF-8 sin signo, que coincide con
+ * el orden por punto de código. No es seguro entre hilos. Las tablas de la
+ * versión 1 (sin filtro) se siguen leyendo: su filtro se reconstruye al
+ * abrir hasta la siguiente fusión.
+ */
+public class RegistroAventurerosDisco implements Closeable {
+
+    public static final int UMBRAL_FUSION_POR_DEFECTO = 65536;
+    public static final double FALSOS_POSITIVOS_POR_DEFECTO = 0.01;
+
+    private static final int MAGIA = 0x53535441;   // "SSTA"
+    private static final int VERSION = 2;                // Con filtro de Bloom detrás de los nombres
+    private static final int VERSION_SIN_FILTRO = 1;
+    private static final int CABECERA = 16;
+
+    /** Orden por punto de código (igual que el de los bytes UTF-8). */
+    private static final Comparator<String> ORDEN_UTF8 = (a, b) -> {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) return Integer.compare(ca, cb);
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    };
+
+    /**
+     * Tabla ordenada de solo lectura mapeada en memoria por segmentos.
+     */
+    private static final class Tabla implements Closeable {
+        private static final int BITS_SEGMENTO = 30;             // 1 GB
+        private static final long MASCARA = (1L << BITS_SEGMENTO) - 1;
+
+        private final FileChannel canal;
+        private final MappedByteBuffer[] segmentos;
+        private final long tamaño;
+        private final int version;
+        private final long numero;
+        private final long inicioDatos;
+
+        Tabla(Path archivo) throws IOException {
+            this.canal = FileChannel.open(archivo, StandardOpenOption.READ);
+            long tamaño = canal.size();
+            this.tamaño = tamaño;
+            int n = (int) ((tamaño + MASCARA) >>> BITS_SEGMENTO);
+            this.segmentos = new MappedByteBuffer[n];
+            for (int i = 0; i < n; i++) {
+                long inicio = (long) i << BITS_SEGMENTO;
+                segmentos[i] = canal.map(FileChannel.MapMode.READ_ONLY, inicio, Math.min(1L << BITS_SEGMENTO, tamaño - inicio));
+            }
+            this.version = tamaño < CABECERA ? -1 : getInt(4);
+            if (tamaño < CABECERA || getInt(0) != MAGIA || (version != VERSION && version != VERSION_SIN_FILTRO)) {
+                canal.close();
+                throw new IOException("Tabla de aventureros no válida: " + archivo);
+            }
+            this.numero = getLong(8);
+            this.inicioDatos = CABECERA + (numero + 1) * 8;
+        }
+
+        /**
+         * Lee el filtro guardado detrás de los nombres.
+         *
+         * @return Filtro de la tabla, o null si la tabla es de la versión 1
+         * @throws IOException Si la sección del filtro está truncada
+         */
+        FiltroBloom leerFiltro() throws IOException {
+            if (version == VERSION_SIN_FILTRO) return null;
+            long posicion = (inicioDatos + getLong(CABECERA + numero * 8) + 7) & ~7L;
+            if (posicion + 16 > tamaño) throw new IOException("Tabla sin filtro de Bloom");
+            int numeroHashes = getInt(posicion);
+            long palabras = getLong(posicion + 8);
+            if (palabras < 1 || palabras > Integer.MAX_VALUE - 8 || posicion + 16 + palabras * 8 > tamaño) {
+                throw new IOException("Filtro de Bloom truncado en la tabla");
+            }
+            long[] bits = new long[(int) palabras];
+            long desde = posicion + 16;
+            for (int i = 0; i < bits.length; i++) bits[i] = getLong(desde + i * 8L);
+            return new FiltroBloom(bits, numeroHashes);
+        }
+
+        byte getByte(long posicion) {
+            return segmentos[(int) (posicion >>> BITS_SEGMENTO)].get((int) (posicion & MASCARA));
+        }
+
+        // Los enteros de la cabecera y los offsets están alineados a 8 bytes
+        // y el segmento es múltiplo de 8: nunca cruzan de segmento
+        int getInt(long posicion) {
+            return segmentos[(int) (posicion >>> BITS_SEGMENTO)].getInt((int) (posicion & MASCARA));
+        }
+
+        long getLong(long posicion) {
+            return segmentos[(int) (posicion >>> BITS_SEGMENTO)].getLong((int) (posicion & MASCARA));
+        }
+
+        long inicio(long i) { return inicioDatos + getLong(CABECERA + i * 8); }
+        long fin(long i) { return inicioDatos + getLong(CABECERA + (i + 1) * 8); }
+
+        // Compara la entrada i con una clave, byte a byte sin signo
+        int comparar(long i, byte[] clave) {
+            long desde = inicio(i);
+            long largo = fin(i) - desde;
+            long minimo = Math.min(largo, clave.length);
+            for (int k = 0; k < minimo; k++) {
+                int diferencia = (getByte(desde + k) & 0xFF) - (clave[k] & 0xFF);
+                if (diferencia != 0) return diferencia;
+            }
+            return Long.compare(largo, clave.length);
+        }
+
+        boolean contiene(byte[] clave) {
+            long bajo = 0;
+            long alto = numero - 1;
+            while (bajo <= alto) {
+                long medio = (bajo + alto) >>> 1;
+                int c = comparar(medio, clave);
+                if (c == 0) return true;
+                if (c < 0) bajo = medio + 1; else alto = medio - 1;
+            }
+            return false;
+        }
+
+        byte[] leer(long i) {
+            long desde = inicio(i);
+            byte[] bytes = new byte[(int) (fin(i) - desde)];
+            for (int k = 0; k < bytes.length; k++) bytes[k] = getByte(desde + k);
+            return bytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+
+    private final Path archivoTabla;
+    private final Path archivoLog;
+    private final int umbralFusion;
+    private final double tasaFalsosPositivos;
+
+    private Tabla tabla;                       // null si aún no hay tabla
+    private FiltroBloom filtro;
+    private final TreeSet<String> altas = new TreeSet<>(ORDEN_UTF8);      // No están en la tabla
+    private final TreeSet<String> bajas = new TreeSet<>(ORDEN_UTF8);      // Están en la tabla
+    private BufferedWriter log;
+
+    private long lecturasDisco;                // Búsquedas binarias realizadas
+    private long descartesFiltro;              // Consultas resueltas por el filtro
+
+    /**
+     * Abre (o crea) un registro con los valores por defecto.
+     *
+     * @param directorio Directorio de la tabla y del log
+     * @throws IOException Si ocurre un error al abrir los archivos
+     */
+    public RegistroAventurerosDisco(Path directorio) throws IOException {
+        this(directorio, UMBRAL_FUSION_POR_DEFECTO, FALSOS_POSITIVOS_POR_DEFECTO);
+    }
+
+    /**
+     * Abre (o crea) un registro en disco.
+     *
+     * @param directorio Directorio de la tabla y del log
+     * @param umbralFusion Cambios pendientes que disparan una fusión automática
+     * @param tasaFalsosPositivos Tasa de falsos positivos del filtro de Bloom
+     * @throws IOException Si ocurre un error al abrir los archivos
+     */
+    public RegistroAventurerosDisco(Path directorio, int umbralFusion, double tasaFalsosPositivos) throws IOException {
+        Files.createDirectories(directorio);
+        this.archivoTabla = directorio.resolve("tabla.sst");
+        this.archivoLog = directorio.resolve("pendientes.log");
+        this.umbralFusion = Math.max(1, umbralFusion);
+        this.tasaFalsosPositivos = tasaFalsosPositivos;
+
+        if (Files.exists(archivoTabla)) tabla = new Tabla(archivoTabla);
+        filtro = tabla == null ? null : tabla.leerFiltro();
+        if (filtro == null) construirFiltro();
+        reproducirLog();
+        this.log = abrirLog(StandardOpenOption.APPEND);
+    }
+
+    private BufferedWriter abrirLog(StandardOpenOption modo) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(archivoLog,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, modo), StandardCharsets.UTF_8));
+    }
+
+    // Solo sin tabla o con una tabla de la versión 1: recorre todos los nombres
+    private void construirFiltro() {
+        long n = tabla == null ? 0 : tabla.numero;
+        filtro = new FiltroBloom(Math.max(n, umbralFusion), tasaFalsosPositivos);
+        for (long i = 0; i < n; i++) filtro.agregar(tabla.leer(i));
+    }
+
+    private void reproducirLog() throws IOException {
+        if (!Files.exists(archivoLog)) return;
+        try (BufferedReader lector = Files.newBufferedReader(archivoLog, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                if (linea.length() < 2) continue;
+                String nombre = linea.substring(1);
+                if (linea.charAt(0) == '+') aplicarAlta(nombre); else aplicarBaja(nombre);
+            }
+        }
+    }
+
+    // ==================== OPERACIONES ====================
+
+    /**
+     * Registra un aventurero.
+     *
+     * @param nombre Nombre del aventurero
+     * @return true si se registró (no existía antes), false si ya estaba registrado
+     * @throws IOException Si no se pudo anotar en el log o fusionar
+     */
+    public boolean registrar(String nombre) throws IOException {
+        if (!nombreValido(nombre) || !aplicarAlta(nombre)) return false;
+        anotar('+', nombre);
+        return true;
+    }
+
+    /**
+     * Elimina un aventurero.
+     *
+     * @param nombre Nombre del aventurero
+     * @return true si fue eliminado, false si no estaba registrado
+     * @throws IOException Si no se pudo anotar en el log o fusionar
+     */
+    public boolean eliminar(String nombre) throws IOException {
+        if (!nombreValido(nombre) || !aplicarBaja(nombre)) return false;
+        anotar('-', nombre);
+        return true;
+    }
+
+    private static boolean nombreValido(String nombre) {
+        return nombre != null && !nombre.isEmpty() && nombre.indexOf('\n') < 0 && nombre.indexOf('\r') < 0;
+    }
+
+    private boolean aplicarAlta(String nombre) {
+        if (bajas.remove(nombre)) return true;         // Estaba en la tabla, dado de baja
+        if (altas.contains(nombre) || enTabla(nombre.getBytes(StandardCharsets.UTF_8))) return false;
+        altas.add(nombre);
+        return true;
+    }
+
+    private boolean aplicarBaja(String nombre) {
+        if (altas.remove(nombre)) return true;
+        if (bajas.contains(nombre) || !enTabla(nombre.getBytes(StandardCharsets.UTF_8))) return false;
+        bajas.add(nombre);
+        return true;
+    }
+
+    private void anotar(char operacion, String nombre) throws IOException {
+        log.write(operacion);
+        log.write(nombre);
+        log.write('\n');
+        log.flush();
+        if (altas.size() + bajas.size() >= umbralFusion) fusionar();
+    }
+
+    private boolean enTabla(byte[] clave) {
+        if (tabla == null) return false;
+        if (!filtro.podriaContener(clave)) {
+            descartesFiltro++;
+            return false;
+        }
+        lecturasDisco++;
+        return tabla.contiene(clave);
+    }
+
+    /**
+     * Verifica si un aventurero está registrado.
+     *
+     * @param nombre Nombre del aventurero
+     * @return true si está en el registro
+     */
+    public boolean estaRegistrado(String nombre) {
+        if (!nombreValido(nombre)) return false;
+        if (altas.contains(nombre)) return true;
+        if (bajas.contains(nombre)) return false;
+        return enTabla(nombre.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Obtiene el número total de aventureros registrados.
+     *
+     * @return Cantidad de aventureros únicos
+     */
+    public long obtenerTotal() {
+        long enTabla = tabla == null ? 0 : tabla.numero;
+        return enTabla - bajas.size() + altas.size();
+    }
+
+    /**
+     * Fusiona el buffer de cambios con la tabla: escribe una tabla nueva en
+     * orden con su filtro detrás, la sustituye con un renombrado atómico y
+     * vacía el log.
+     *
+     * @throws IOException Si ocurre un error al escribir la tabla
+     */
+    public void fusionar() throws IOException {
+        if (altas.isEmpty() && bajas.isEmpty()) return;
+
+        long enTabla = tabla == null ? 0 : tabla.numero;
+        long numero = obtenerTotal();
+        Path temporal = archivoTabla.resolveSibling("tabla.sst.tmp");
+        Path datos = archivoTabla.resolveSibling("tabla.datos.tmp");
+
+        // Los offsets van antes que los datos: se escriben en un archivo y los datos en otro
+        FiltroBloom nuevoFiltro = new FiltroBloom(Math.max(numero, umbralFusion), tasaFalsosPositivos);
+        try (DataOutputStream offsets = new DataOutputStream(new BufferedOutputStream(
+                 Files.newOutputStream(temporal), 1 << 16));
+             OutputStream salidaDatos = new BufferedOutputStream(Files.newOutputStream(datos), 1 << 16)) {
+            offsets.writeInt(MAGIA);
+            offsets.writeInt(VERSION);
+            offsets.writeLong(numero);
+            long posicion = 0;
+            offsets.writeLong(posicion);
+
+            Iterator<String> itAltas = altas.iterator();
+            byte[] alta = itAltas.hasNext() ? itAltas.next().getBytes(StandardCharsets.UTF_8) : null;
+            Iterator<String> itBajas = bajas.iterator();
+            byte[] baja = itBajas.hasNext() ? itBajas.next().getBytes(StandardCharsets.UTF_8) : null;
+            long i = 0;
+
+            while (i < enTabla || alta != null) {
+                byte[] siguiente;
+                if (i < enTabla && (alta == null || tabla.comparar(i, alta) < 0)) {
+                    siguiente = tabla.leer(i++);
+                    // Saltar las bajas (están en el mismo orden que la tabla)
+                    while (baja != null && compararBytes(baja, siguiente) < 0) {
+                        baja = itBajas.hasNext() ? itBajas.next().getBytes(StandardCharsets.UTF_8) : null;
+                    }
+                    if (baja != null && compararBytes(baja, siguiente) == 0) continue;
+                } else {
+                    siguiente = alta;
+                    alta = itAltas.hasNext() ? itAltas.next().getBytes(StandardCharsets.UTF_8) : null;
+                }
+                salidaDatos.write(siguiente);
+                posicion += siguiente.length;
+                offsets.writeLong(posicion);
+                nuevoFiltro.agregar(siguiente);
+            }
+        }
+
+        // Concatenar los datos y el filtro detrás de los offsets y publicar la tabla
+        try (FileChannel destino = FileChannel.open(temporal, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+             FileChannel origen = FileChannel.open(datos, StandardOpenOption.READ)) {
+            long copiado = 0;
+            long tamaño = origen.size();
+            while (copiado < tamaño) copiado += origen.transferTo(copiado, tamaño - copiado, destino);
+
+            // Cabecera y offsets ocupan un múltiplo de 8: se rellenan solo los datos
+            DataOutputStream salidaFiltro = new DataOutputStream(new BufferedOutputStream(
+                Channels.newOutputStream(destino), 1 << 16));
+            for (long relleno = (8 - (tamaño & 7)) & 7; relleno > 0; relleno--) salidaFiltro.writeByte(0);
+            nuevoFiltro.escribir(salidaFiltro);
+            salidaFiltro.flush();
+            destino.force(true);
+        }
+        Files.delete(datos);
+
+        if (tabla != null) tabla.close();
+        Files.move(temporal, archivoTabla, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        tabla = new Tabla(archivoTabla);
+        filtro = nuevoFiltro;
+        altas.clear();
+        bajas.clear();
+
+        log.close();
+        log = abrirLog(StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static int compararBytes(byte[] a, byte[] b) {
+        int minimo = Math.min(a.length, b.length);
+        for (int k = 0; k < minimo; k++) {
+            int diferencia = (a[k] & 0xFF) - (b[k] & 0xFF);
+            if (diferencia != 0) return diferencia;
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    /**
+     * Obtiene como máximo 'limite' nombres de la tabla y del buffer en orden
+     * (para listados; recorre la tabla secuencialmente).
+     *
+     * @param limite Número máximo de nombres
+     * @return Nombres en orden por punto de código
+     */
+    public ArrayList<String> listar(int limite) {
+        TreeSet<String> resultado = new TreeSet<>(ORDEN_UTF8);
+        long enTabla = tabla == null ? 0 : tabla.numero;
+        for (long i = 0; i < enTabla && resultado.size() < limite; i++) {
+            String nombre = new String(tabla.leer(i), StandardCharsets.UTF_8);
+            if (!bajas.contains(nombre)) resultado.add(nombre);
+        }
+        resultado.addAll(altas);
+        ArrayList<String> lista = new ArrayList<>();
+        for (String nombre : resultado) {
+            if (lista.size() >= limite) break;
+            lista.add(nombre);
+        }
+        return lista;
+    }
+
+    public long getLecturasDisco() { return lecturasDisco; }
+    public long getDescartesFiltro() { return descartesFiltro; }
+    public int getCambiosPendientes() { return altas.size() + bajas.size(); }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+        if (tabla != null) tabla.close();
+    }
+}
@@ -1,137 +1,299 @@
 package modelo;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.PriorityQueue;
 
 /**
  * Clase que gestiona el sistema de turnos para la atención en el gremio.
- * 
- * ESTRUCTURA DE DATOS: Queue<String> (LinkedList como implementación)
- * 
+ *
+ * ESTRUCTURA DE DATOS: una ArrayDeque<SolicitudAtencion> por clase de servicio
+ * + PriorityQueue<ClaseServicio> con las clases que tienen a alguien esperando
+ *   - Cada solicitud tiene un plazo: llegada + espera máxima de su clase
+ *   - La PriorityQueue ordena las clases por el plazo de su primera solicitud
+ *
  * JUSTIFICACIÓN:
- * - Queue (FIFO - First In First Out) es perfecta para turnos porque:
- *   * offer() y poll() en O(1)
- *   * Garantiza orden FIFO (primer llegado, primer atendido)
- *   * Semántica clara: enqueue al llegar, dequeue al atender
- *   * Ideal para simular "líneas de espera"
- * 
+ * - Dentro de una clase todos tienen la misma espera máxima, así que el orden
+ *   de llegada (FIFO) es también el orden de plazos: basta una cola por clase
+ * - Atender es elegir el plazo más temprano entre las k primeras de cada
+ *   clase: poll() de la PriorityQueue en O(log k) y reinsertar la clase si
+ *   le quedan solicitudes; solicitar es O(1), u O(log k) si la clase estaba vacía
+ * - Las clases urgentes tienen esperas máximas cortas y pasan delante de las
+ *   demás, pero una consulta que lleva esperando más que su margen termina
+ *   por delante de las urgencias que llegan después (envejecimiento): ninguna
+ *   clase se queda sin atender
+ * - Las estadísticas de espera se acumulan por clase en arrays indexados por
+ *   ordinal, en O(1) por solicitud atendida
+ *
  * ALTERNATIVAS RECHAZADAS:
- * - Stack: LIFO, incorrecto para turnos (último sería primero)
- * - LinkedList: Menos clara semánticamente, requiere más cuidado
- * - PriorityQueue: Innecesaria, el turno es temporal, no por prioridad
- * - ArrayList: Rendimiento O(n) para dequeue
- * 
- * Este sistema registra aventureros en orden de llegada
- * para atención de servicios del gremio.
+ * - Una única Queue FIFO: el tipo de servicio no influye en el turno
+ * - Una PriorityQueue de solicitudes: O(log n) con n solicitudes en lugar
+ *   de k clases, y sin FIFO garantizado entre iguales
+ * - Prioridad estricta por clase: las consultas podrían no atenderse nunca
+ * - Recalcular prioridades por envejecimiento periódicamente: O(n) por
+ *   recálculo; con plazos fijos el orden nunca cambia después de encolar
  */
 public class SistemaGremio {
 
+    /**
+     * Clases de servicio del gremio, de más a menos urgente.
+     */
+    public enum ClaseServicio {
+        URGENCIA(0, 0),                 // Curaciones, rescates
+        MISION(1, 2 * 60_000L),         // Entregar o aceptar misiones
+        COMERCIO(2, 5 * 60_000L),       // Reparaciones, compra y venta
+        CONSULTA(3, 10 * 60_000L);      // Información general
+
+        private final int prioridad;
+        private final long esperaMaxima;
+
+        ClaseServicio(int prioridad, long esperaMaxima) {
+            this.prioridad = prioridad;
+            this.esperaMaxima = esperaMaxima;
+        }
+
+        /** @return 0 es la más urgente */
+        public int getPrioridad() { return prioridad; }
+
+        /** @return Milisegundos que puede esperar antes de adelantar a clases más urgentes */
+        public long getEsperaMaxima() { return esperaMaxima; }
+
+        /**
+         * Clasifica un tipo de servicio escrito libremente.
+         *
+         * @param tipoServicio Texto del servicio (por ejemplo "Reparación")
+         * @return Clase correspondiente; CONSULTA si no se reconoce
+         */
+        public static ClaseServicio de(String tipoServicio) {
+            if (tipoServicio == null) return CONSULTA;
+            String t = Normalizer.normalize(tipoServicio, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+            if (t.contains("urgen") || t.contains("cura") || t.contains("rescate") || t.contains("resurrec")) {
+                return URGENCIA;
+            }
+            if (t.contains("mision") || t.contains("recompensa") || t.contains("contrato")) return MISION;
+            if (t.contains("repara") || t.contains("compra") || t.contains("venta") || t.contains("comercio")) {
+                return COMERCIO;
+            }
+            return CONSULTA;
+        }
+    }
+
     /**
      * Clase interna que representa una solicitud de atención en el gremio.
      */
     public static class SolicitudAtencion {
         private String nombreAventurero;
         private String tipoServicio;
+        private ClaseServicio clase;
         private long tiempoLlegada;
 
         public SolicitudAtencion(String nombreAventurero, String tipoServicio) {
+            this(nombreAventurero, tipoServicio, ClaseServicio.de(tipoServicio));
+        }
+
+        public SolicitudAtencion(String nombreAventurero, String tipoServicio, ClaseServicio clase) {
             this.nombreAventurero = nombreAventurero;
             this.tipoServicio = tipoServicio;
+            this.clase = clase;
             this.tiempoLlegada = System.currentTimeMillis();
         }
 
         public String getNombreAventurero() { return nombreAventurero; }
         public String getTipoServicio() { return tipoServicio; }
+        public ClaseServicio getClase() { return clase; }
         public long getTiempoLlegada() { return tiempoLlegada; }
 
+        /** @return Instante a partir del cual adelanta a las clases más urgentes */
+        public long getPlazo() { return tiempoLlegada + clase.getEsperaMaxima(); }
+
         @Override
         public String toString() {
-            return nombreAventurero + " (" + tipoServicio + ")";
+            return nombreAventurero + " (" + tipoServicio + ", " + clase + ")";
         }
     }
 
-    // Queue FIFO para mantener el orden de llegada
-    private Queue<SolicitudAtencion> turnoGremio;
+    private static final ClaseServicio[] CLASES = ClaseServicio.values();
+
+    // Una cola FIFO por clase, indexada por ordinal
+    private final ArrayDeque<SolicitudAtencion>[] colas;
+
+    // Clases no vacías, por plazo de su primera solicitud (y prioridad si empatan)
+    private final PriorityQueue<ClaseServicio> clasesEnEspera;
+
+    // Estadísticas de espera por clase, indexadas por ordinal
+    private final long[] atendidas = new long[CLASES.length];
+    private final long[] esperaTotal = new long[CLASES.length];
+    private final long[] esperaMaximaObservada = new long[CLASES.length];
+
+    private int enCola;
 
     /**
-     * Constructor que inicializa la cola de turnos vacía.
+     * Constructor que inicializa las colas de turnos vacías.
      */
+    @SuppressWarnings({"unchecked", "rawtypes"})
     public SistemaGremio() {
-        this.turnoGremio = new LinkedList<>();
+        this.colas = new ArrayDeque[CLASES.length];
+        for (int i = 0; i < colas.length; i++) colas[i] = new ArrayDeque<>();
+        this.clasesEnEspera = new PriorityQueue<>(CLASES.length, (a, b) -> {
+            int porPlazo = Long.compare(colas[a.ordinal()].peek().getPlazo(), colas[b.ordinal()].peek().getPlazo());
+            return porPlazo != 0 ? porPlazo : Integer.compare(a.getPrioridad(), b.getPrioridad());
+        });
     }
 
     /**
      * Registra un aventurero en el turno del gremio.
-     * Lo añade al final de la cola (FIFO).
-     * 
+     * La clase de servicio se deduce del texto del servicio.
+     *
      * @param nombreAventurero Nombre del aventurero
      * @param tipoServicio Tipo de servicio solicitado
      * @return true si se añadió correctamente
      */
     public boolean solicitarAtencion(String nombreAventurero, String tipoServicio) {
-        if (nombreAventurero == null || nombreAventurero.isEmpty()) return false;
-        
-        SolicitudAtencion solicitud = new SolicitudAtencion(nombreAventurero, tipoServicio);
-        return turnoGremio.offer(solicitud);
+        return solicitarAtencion(nombreAventurero, tipoServicio, ClaseServicio.de(tipoServicio));
+    }
+
+    /**
+     * Registra un aventurero en el turno de una clase de servicio concreta.
+     * Lo añade al final de la cola de esa clase (FIFO).
+     *
+     * @param nombreAventurero Nombre del aventurero
+     * @param tipoServicio Tipo de servicio solicitado
+     * @param clase Clase de servicio
+     * @return true si se añadió correctamente
+     */
+    public boolean solicitarAtencion(String nombreAventurero, String tipoServicio, ClaseServicio clase) {
+        if (nombreAventurero == null || nombreAventurero.isEmpty() || clase == null) return false;
+
+        SolicitudAtencion solicitud = new SolicitudAtencion(nombreAventurero, tipoServicio, clase);
+        ArrayDeque<SolicitudAtencion> cola = colas[clase.ordinal()];
+        cola.offer(solicitud);
+        // Solo cambia la PriorityQueue si la clase estaba vacía: las demás
+        // conservan su primera solicitud y su posición
+        if (cola.size() == 1) clasesEnEspera.offer(clase);
+        enCola++;
+        return true;
     }
 
     /**
-     * Atiende al siguiente aventurero en la cola.
-     * Extrae el primer elemento (FIFO).
-     * 
-     * @return La solicitud atendida, o null si la cola está vacía
+     * Atiende a la solicitud con el plazo más temprano entre las primeras de
+     * cada clase.
+     *
+     * @return La solicitud atendida, o null si no hay nadie esperando
      */
     public SolicitudAtencion atenderSiguiente() {
-        return turnoGremio.poll();
+        ClaseServicio clase = clasesEnEspera.poll();
+        if (clase == null) return null;
+        ArrayDeque<SolicitudAtencion> cola = colas[clase.ordinal()];
+        SolicitudAtencion solicitud = cola.poll();
+        if (!cola.isEmpty()) clasesEnEspera.offer(clase);
+        enCola--;
+
+        int i = clase.ordinal();
+        long espera = Math.max(0, System.currentTimeMillis() - solicitud.getTiempoLlegada());
+        atendidas[i]++;
+        esperaTotal[i] += espera;
+        if (espera > esperaMaximaObservada[i]) esperaMaximaObservada[i] = espera;
+        return solicitud;
     }
 
     /**
      * Obtiene sin remover la siguiente solicitud a atender.
-     * 
-     * @return La siguiente solicitud, o null si la cola está vacía
+     *
+     * @return La siguiente solicitud, o null si no hay nadie esperando
      */
     public SolicitudAtencion obtenerProximo() {
-        return turnoGremio.peek();
+        ClaseServicio clase = clasesEnEspera.peek();
+        return clase == null ? null : colas[clase.ordinal()].peek();
     }
 
     /**
-     * Obtiene el número de aventureros esperando en la cola.
-     * 
-     * @return Tamaño de la cola
+     * Obtiene el número de aventureros esperando en todas las colas.
+     *
+     * @return Total en espera
      */
     public int obtenerNumeroEnCola() {
-        return turnoGremio.size();
+        return enCola;
+    }
+
+    /**
+     * Obtiene el número de aventureros esperando en una clase de servicio.
+     *
+     * @param clase Clase de servicio
+     * @return Tamaño de la cola de esa clase
+     */
+    public int obtenerNumeroEnCola(ClaseServicio clase) {
+        return colas[clase.ordinal()].size();
     }
 
     /**
      * Verifica si hay aventureros esperando.
-     * 
-     * @return true si la cola no está vacía
+     *
+     * @return true si alguna cola no está vacía
      */
     public boolean hayAventurosEsperando() {
-        return !turnoGremio.isEmpty();
+        return enCola > 0;
+    }
+
+    /**
+     * Obtiene cuántas solicitudes de una clase se han atendido.
+     *
+     * @param clase Clase de servicio
+     * @return Solicitudes atendidas
+     */
+    public long obtenerAtendidas(ClaseServicio clase) {
+        return atendidas[clase.ordinal()];
+    }
+
+    /**
+     * Obtiene la espera media de las solicitudes atendidas de una clase.
+     *
+     * @param clase Clase de servicio
+     * @return Milisegundos de espera media (0 si no se ha atendido ninguna)
+     */
+    public double obtenerEsperaMedia(ClaseServicio clase) {
+        int i = clase.ordinal();
+        return atendidas[i] == 0 ? 0 : (double) esperaTotal[i] / atendidas[i];
     }
 
     /**
-     * Limpia la cola de turnos.
+     * Obtiene la mayor espera observada entre las solicitudes atendidas de una clase.
+     *
+     * @param clase Clase de servicio
+     * @return Milisegundos
+     */
+    public long obtenerEsperaMaxima(ClaseServicio clase) {
+        return esperaMaximaObservada[clase.ordinal()];
+    }
+
+    /**
+     * Limpia las colas de turnos. Las estadísticas de espera se conservan.
      */
     public void limpiar() {
-        turnoGremio.clear();
+        for (ArrayDeque<SolicitudAtencion> cola : colas) cola.clear();
+        clasesEnEspera.clear();
+        enCola = 0;
     }
 
     /**
-     * Muestra el estado actual de la cola de turnos.
-     * 
+     * Muestra el estado actual de las colas de turnos.
+     *
      * @return String con información del turno
      */
     @Override
     public String toString() {
-        if (turnoGremio.isEmpty()) {
+        if (enCola == 0) {
             return "No hay aventureros en espera";
         }
         StringBuilder sb = new StringBuilder("=== TURNOS DEL GREMIO ===\n");
-        sb.append("Aventureros en espera: ").append(turnoGremio.size()).append("\n");
+        sb.append("Aventureros en espera: ").append(enCola).append("\n");
         sb.append("Próximo a atender: ").append(obtenerProximo()).append("\n");
+        for (ClaseServicio clase : CLASES) {
+            sb.append(String.format("  %-9s en cola: %3d | atendidas: %4d | espera media: %.0f ms | máxima: %d ms%n",
+                clase, obtenerNumeroEnCola(clase), obtenerAtendidas(clase),
+                obtenerEsperaMedia(clase), obtenerEsperaMaxima(clase)));
+        }
         return sb.toString();
     }
 }
@@ -1,52 +1,134 @@
     package modelo;
 
-import java.util.Stack;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
 
 /**
  * Clase que implementa el sistema de deshacer/rehacer acciones en batalla.
  * 
- * ESTRUCTURA DE DATOS: Stack<Accion> (dos stacks: uno para undo, otro para redo)
+ * ESTRUCTURA DE DATOS: Árbol de acciones (cada nodo guarda el delta respecto a su padre)
  * 
  * JUSTIFICACIÓN:
- * - Stack es la estructura perfecta para undo/redo porque:
- *   * push() y pop() en O(1)
- *   * LIFO (Last In First Out) es semanticamente correcto:
- *     - Deshacer la última acción realizada
- *     - Rehacer la última acción deshecha
- *   * peek() permite ver sin consumir
- *   * Muy eficiente para este caso de uso
+ * - Un árbol conserva las líneas de juego alternativas: realizar una acción
+ *   después de deshacer crea una rama nueva en lugar de borrar el redo.
+ * - Cada nodo guarda solo la Accion (lista de cambios) que lo separa de su
+ *   padre, por lo que una rama cuesta únicamente los cambios que produjo.
+ * - Deshacer sube al padre y rehacer baja al hijo preferido (el último
+ *   visitado), ambos en O(cambios) como con dos pilas.
+ * - Ir a cualquier nodo cuesta O(profundidad): se deshace hasta el ancestro
+ *   común y se rehace bajando hacia el destino.
  * 
  * ALTERNATIVAS RECHAZADAS:
- * - Queue: FIFO es incorrecto, desharíamos la primera acción
- * - LinkedList: Menos clara, requiere más cuidado en operaciones
- * - ArrayList: Acceso rápido pero semántica confusa
- * - Deque: Innecesariamente flexible
+ * - Dos pilas (ArrayDeque/Stack): una acción nueva descarta todo el redo
+ * - Guardar el estado completo en cada nodo: memoria O(personajes) por acción
+ * - Grafo general: no hace falta, cada estado tiene un único padre
  * 
- * Mantiene dos pilas:
- * - pilaUndo: acciones realizadas que pueden deshacerse
- * - pilaRedo: acciones deshacidas que pueden rehacerse
+ * El árbol está acotado por número de acciones y por memoria estimada
+ * (en bytes). Al superar cualquiera de los dos límites se podan primero las
+ * ramas frías (fuera de la línea activa, de la menos usada recientemente a la
+ * más usada) y después las acciones más antiguas de la línea activa.
  * 
  * Cada acción contiene:
- * - Personaje afectado
+ * - Id del personaje que la realizó
  * - Tipo de acción (ataque, defensa, etc.)
- * - Estado anterior (para restaurar)
+ * - Lista de cambios (entidad, campo, anterior, nuevo) producidos por el motor
+ * 
+ * Los personajes conectados al sistema (setRegistroCambios) informan cada
+ * mutación de su estado; mientras haya una acción en curso esos cambios se
+ * agrupan en ella. Deshacer aplica los valores anteriores en orden inverso
+ * y rehacer vuelve a aplicar los valores nuevos.
+ * 
+ * Como alternativa al árbol de acciones, el sistema mantiene también una
+ * HistoriaPersistente con una versión inmutable y compartida del estado por
+ * turno: volver a cualquier turno es O(1) y seguir jugando desde ahí abre
+ * una rama que solo cuesta las unidades que cambian.
  */
 public class SistemaUndoRedo {
 
+    /**
+     * Clase que representa un cambio atómico de estado producido por el motor:
+     * (id de entidad, campo, valor anterior, valor nuevo).
+     * 
+     * Todos los valores son enteros: las relaciones (defensor, provocador)
+     * guardan el id del personaje enlazado (o SIN_ENLACE) y los ítems guardan
+     * el id de catálogo en indice. La entidad se resuelve por id en O(1).
+     */
+    public static class Cambio {
+
+        // Valor usado en relaciones cuando no hay personaje enlazado
+        public static final int SIN_ENLACE = -1;
+
+        public enum Campo {
+            HP, MP, ATAQUE, DEFENSA,
+            TURNOS_PARALISIS, TURNOS_SUENO, PARALIZADO, DURMIENDO,
+            DEFENSOR, PROVOCADOR,
+            ITEM, EQUIPO
+        }
+
+        private final int entidadId;
+        private final Campo campo;
+        private final int anterior;
+        private final int nuevo;
+        private final int indice;
+
+        /**
+         * Constructor de un cambio.
+         * 
+         * @param entidadId Id del personaje modificado
+         * @param campo Campo modificado
+         * @param anterior Valor antes del cambio
+         * @param nuevo Valor después del cambio
+         * @param indice Índice adicional (id de catálogo del ítem o ranura
+         *               de equipo), o SIN_ENLACE
+         */
+        public Cambio(int entidadId, Campo campo, int anterior, int nuevo, int indice) {
+            this.entidadId = entidadId;
+            this.campo = campo;
+            this.anterior = anterior;
+            this.nuevo = nuevo;
+            this.indice = indice;
+        }
+
+        /**
+         * Aplica el cambio sobre la entidad correspondiente.
+         * 
+         * @param entidades Personajes de la batalla
+         * @param rehacer true para aplicar el valor nuevo, false para el anterior
+         */
+        void aplicar(EntidadesBatalla entidades, boolean rehacer) {
+            Personaje entidad = entidades == null ? null : entidades.obtener(entidadId);
+            if (entidad != null) {
+                entidad.aplicarCambio(this, rehacer);
+            }
+        }
+
+        // Getters
+        public int getEntidadId() { return entidadId; }
+        public Campo getCampo() { return campo; }
+        public int getAnterior() { return anterior; }
+        public int getNuevo() { return nuevo; }
+        public int getIndice() { return indice; }
+
+        @Override
+        public String toString() {
+            String nombreCampo = indice == SIN_ENLACE ? campo.toString() : campo + "[" + indice + "]";
+            return "#" + entidadId + "." + nombreCampo + ": " + anterior + " -> " + nuevo;
+        }
+    }
+
     /**
      * Clase que representa una acción realizable/deshacible.
+     * Guarda la lista de cambios que la acción produjo en el estado del juego,
+     * de modo que deshacer y rehacer cuestan O(cambios) sin buscar personajes.
      */
     public static class Accion {
         private String descripcion;
-        private String personajeName;
-        private int hpAnterior;
-        private int mpAnterior;
+        private int actorId;
         private TipoAccion tipo;
-        
-        // Campos para guardar el estado del objetivo (enemigo/aliado afectado)
-        private String objetivoName;
-        private int hpAnteriorObjetivo;
-        private int mpAnteriorObjetivo;
+        private final List<Cambio> cambios;
 
         public enum TipoAccion {
             ATAQUE("Ataque"),
@@ -65,60 +147,74 @@ public class SistemaUndoRedo {
         }
 
         /**
-         * Constructor de una acción.
+         * Constructor de una acción sin cambios registrados.
          * 
          * @param descripcion Descripción de la acción
-         * @param personajeName Nombre del personaje que realizó la acción
-         * @param hpAnterior HP anterior del personaje afectado
-         * @param mpAnterior MP anterior del personaje afectado
+         * @param actorId Id del personaje que realizó la acción
          * @param tipo Tipo de acción
          */
-        public Accion(String descripcion, String personajeName, int hpAnterior, int mpAnterior, TipoAccion tipo) {
+        public Accion(String descripcion, int actorId, TipoAccion tipo) {
             this.descripcion = descripcion;
-            this.personajeName = personajeName;
-            this.hpAnterior = hpAnterior;
-            this.mpAnterior = mpAnterior;
+            this.actorId = actorId;
             this.tipo = tipo;
-            this.objetivoName = null;
-            this.hpAnteriorObjetivo = 0;
-            this.mpAnteriorObjetivo = 0;
+            this.cambios = new ArrayList<>();
         }
 
         /**
-         * Constructor de una acción con información del objetivo afectado.
+         * Añade un cambio producido por la acción.
          * 
-         * @param descripcion Descripción de la acción
-         * @param personajeName Nombre del personaje que realizó la acción
-         * @param hpAnterior HP anterior del actor
-         * @param mpAnterior MP anterior del actor
-         * @param tipo Tipo de acción
-         * @param objetivoName Nombre del personaje afectado (enemigo/aliado)
-         * @param hpAnteriorObjetivo HP anterior del objetivo
-         * @param mpAnteriorObjetivo MP anterior del objetivo
+         * @param cambio Cambio a añadir
          */
-        public Accion(String descripcion, String personajeName, int hpAnterior, int mpAnterior, TipoAccion tipo,
-                      String objetivoName, int hpAnteriorObjetivo, int mpAnteriorObjetivo) {
-            this.descripcion = descripcion;
-            this.personajeName = personajeName;
-            this.hpAnterior = hpAnterior;
-            this.mpAnterior = mpAnterior;
-            this.tipo = tipo;
-            this.objetivoName = objetivoName;
-            this.hpAnteriorObjetivo = hpAnteriorObjetivo;
-            this.mpAnteriorObjetivo = mpAnteriorObjetivo;
+        public void agregarCambio(Cambio cambio) {
+            cambios.add(cambio);
+        }
+
+        /**
+         * Revierte los cambios en orden inverso dejando el estado anterior a la acción.
+         * 
+         * @param entidades Personajes de la batalla
+         */
+        public void deshacerCambios(EntidadesBatalla entidades) {
+            for (int i = cambios.size() - 1; i >= 0; i--) {
+                cambios.get(i).aplicar(entidades, false);
+            }
+        }
+
+        /**
+         * Vuelve a aplicar los cambios en orden dejando el estado posterior a la acción.
+         * 
+         * @param entidades Personajes de la batalla
+         */
+        public void rehacerCambios(EntidadesBatalla entidades) {
+            for (Cambio c : cambios) {
+                c.aplicar(entidades, true);
+            }
         }
 
         // Getters
         public String getDescripcion() { return descripcion; }
-        public String getPersonajeName() { return personajeName; }
-        public int getHpAnterior() { return hpAnterior; }
-        public int getMpAnterior() { return mpAnterior; }
+        public int getActorId() { return actorId; }
+        public String getPersonajeName(EntidadesBatalla entidades) {
+            Personaje actor = entidades == null ? null : entidades.obtener(actorId);
+            return actor == null ? null : actor.getNombre();
+        }
         public TipoAccion getTipo() { return tipo; }
-        
-        // Getters para el objetivo
-        public String getObjetivoName() { return objetivoName; }
-        public int getHpAnteriorObjetivo() { return hpAnteriorObjetivo; }
-        public int getMpAnteriorObjetivo() { return mpAnteriorObjetivo; }
+        public List<Cambio> getCambios() { return Collections.unmodifiableList(cambios); }
+
+        /**
+         * Estima la memoria ocupada por la acción (cabecera del objeto,
+         * campos, cadenas referenciadas y cambios). Es una aproximación usada
+         * para respetar el límite de bytes del historial.
+         * 
+         * @return Bytes aproximados que ocupa la acción
+         */
+        public long estimarBytes() {
+            return 48 + bytesCadena(descripcion) + 40L * cambios.size();
+        }
+
+        private static long bytesCadena(String texto) {
+            return texto == null ? 0 : 40 + texto.length();
+        }
 
         @Override
         public String toString() {
@@ -126,120 +222,506 @@ public class SistemaUndoRedo {
         }
     }
 
-    // Dos pilas para undo/redo
-    private Stack<Accion> pilaUndo;  // Acciones que pueden deshacerse
-    private Stack<Accion> pilaRedo;  // Acciones deshacidas que pueden rehacerse
+    /**
+     * Nodo del árbol de acciones.
+     * La raíz no tiene acción: representa el estado más antiguo conservado.
+     */
+    public static class Nodo {
+        private Accion accion;           // Delta respecto al padre (null en la raíz)
+        private Nodo padre;
+        private final List<Nodo> hijos;
+        private Nodo hijoPreferido;      // Hijo al que baja rehacer()
+        private final int profundidad;
+        private long bytes;              // Memoria estimada del nodo
+        private long ultimoUso;          // Reloj lógico de la última visita
+        private int marca;               // Marca temporal usada al podar
+
+        private Nodo(Accion accion, Nodo padre) {
+            this.accion = accion;
+            this.padre = padre;
+            this.hijos = new ArrayList<>(1);
+            this.profundidad = padre == null ? 0 : padre.profundidad + 1;
+            this.bytes = accion == null ? 0 : 32 + accion.estimarBytes();
+        }
+
+        // Getters
+        public Accion getAccion() { return accion; }
+        public Nodo getPadre() { return padre; }
+        public List<Nodo> getHijos() { return Collections.unmodifiableList(hijos); }
+        public int getProfundidad() { return profundidad; }
+    }
+
+    // Límites por defecto del historial
+    public static final int MAX_ACCIONES_POR_DEFECTO = 200;
+    public static final long MAX_BYTES_POR_DEFECTO = 64 * 1024;
+
+    // Árbol de acciones
+    private Nodo raiz;               // Estado más antiguo conservado
+    private Nodo actual;             // Estado en el que se encuentra la batalla
+    private int numeroNodos;         // Nodos con acción (todos menos la raíz)
+    private long reloj;              // Reloj lógico para saber qué ramas están frías
+    private int epocaMarca;          // Contador para marcar la línea activa al podar
+
+    private final int maxAcciones;   // Límite de acciones en el árbol
+    private final long maxBytes;     // Límite de memoria estimada del árbol
+    private long bytesUsados;        // Memoria estimada usada actualmente
+    private int accionesDescartadas; // Acciones podadas por los límites
+
+    private Accion accionEnCurso;    // Acción que está agrupando cambios, o null
+
+    // Versiones persistentes del estado por turno (viaje en el tiempo y ramas)
+    private final HistoriaPersistente historiaTurnos = new HistoriaPersistente();
+
+    // Personajes de la batalla a los que se refieren los ids de los cambios
+    private EntidadesBatalla entidades;
 
     /**
-     * Constructor que inicializa ambas pilas.
+     * Constructor que inicializa el árbol vacío con los límites por defecto.
      */
     public SistemaUndoRedo() {
-        this.pilaUndo = new Stack<>();
-        this.pilaRedo = new Stack<>();
+        this(MAX_ACCIONES_POR_DEFECTO, MAX_BYTES_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor que inicializa el árbol vacío con límites configurables.
+     * 
+     * @param maxAcciones Número máximo de acciones guardadas (mínimo 1)
+     * @param maxBytes Memoria máxima estimada en bytes (mínimo 1)
+     */
+    public SistemaUndoRedo(int maxAcciones, long maxBytes) {
+        if (maxAcciones < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("Los límites del historial deben ser positivos");
+        }
+        this.maxAcciones = maxAcciones;
+        this.maxBytes = maxBytes;
+        reiniciarArbol();
     }
 
     /**
-     * Registra una acción realizada.
-     * Añade a la pila de undo y limpia la pila de redo.
-     * (Si realizas una acción después de deshacer, pierdes el historial de redo)
+     * Conecta el sistema a los personajes de una batalla: deshacer, rehacer
+     * y viajar entre turnos resuelven los ids de los cambios en esa tabla.
+     * 
+     * @param entidades Personajes de la batalla
+     */
+    public void setEntidades(EntidadesBatalla entidades) {
+        this.entidades = entidades;
+        historiaTurnos.setEntidades(entidades);
+    }
+
+    /**
+     * Registra una acción realizada como hijo del nodo actual.
+     * Si antes se había deshecho algo, la línea anterior se conserva como
+     * rama alternativa en lugar de borrarse.
      * 
      * @param accion La acción a registrar
      */
     public void registrarAccion(Accion accion) {
-        pilaUndo.push(accion);
-        // Limpiar redo cuando se realiza una nueva acción
-        pilaRedo.clear();
+        Nodo nodo = new Nodo(accion, actual);
+        actual.hijos.add(nodo);
+        actual.hijoPreferido = nodo;
+        actual = nodo;
+        nodo.ultimoUso = ++reloj;
+
+        numeroNodos++;
+        bytesUsados += nodo.bytes;
+        aplicarLimites();
+    }
+
+    /**
+     * Comienza a agrupar los cambios del motor en una nueva acción.
+     * Si había otra acción en curso sin confirmar, se descarta.
+     * 
+     * @param actor Personaje que realiza la acción
+     * @param tipo Tipo de acción
+     */
+    public void iniciarAccion(Personaje actor, Accion.TipoAccion tipo) {
+        accionEnCurso = new Accion("", actor.getId(), tipo);
+    }
+
+    /**
+     * Registra un cambio de estado producido por el motor.
+     * Solo se guarda si hay una acción en curso.
+     * 
+     * @param cambio Cambio producido
+     */
+    public void registrarCambio(Cambio cambio) {
+        if (accionEnCurso != null) {
+            accionEnCurso.agregarCambio(cambio);
+        }
+    }
+
+    /**
+     * Cierra la acción en curso y la registra en el historial.
+     * Si la acción no produjo cambios no se registra.
+     * 
+     * @param descripcion Descripción final de la acción
+     * @return La acción registrada, o null si no había cambios
+     */
+    public Accion confirmarAccion(String descripcion) {
+        Accion accion = accionEnCurso;
+        accionEnCurso = null;
+        if (accion == null || accion.cambios.isEmpty()) return null;
+
+        accion.descripcion = descripcion;
+        registrarAccion(accion);
+        return accion;
+    }
+
+    /**
+     * Cierra la acción en curso sin registrarla.
+     */
+    public void cancelarAccion() {
+        accionEnCurso = null;
     }
 
     /**
      * Deshace la última acción.
-     * Mueve de la pila undo a la pila redo.
+     * Revierte sus cambios y sube al nodo padre.
      * 
      * @return La acción deshecha, o null si no hay acciones para deshacer
      */
     public Accion deshacer() {
-        if (pilaUndo.isEmpty()) return null;
-        
-        Accion accion = pilaUndo.pop();
-        pilaRedo.push(accion);
+        if (actual == raiz) return null;
+
+        Accion accion = actual.accion;
+        accion.deshacerCambios(entidades);
+        actual.padre.hijoPreferido = actual;
+        actual = actual.padre;
+        actual.ultimoUso = ++reloj;
         return accion;
     }
 
     /**
-     * Rehace la última acción deshecha.
-     * Mueve de la pila redo a la pila undo.
+     * Rehace la última acción deshecha (baja al hijo preferido).
      * 
      * @return La acción rehecha, o null si no hay acciones para rehacer
      */
     public Accion rehacer() {
-        if (pilaRedo.isEmpty()) return null;
-        
-        Accion accion = pilaRedo.pop();
-        pilaUndo.push(accion);
-        return accion;
+        if (actual.hijoPreferido == null) return null;
+        return bajarA(actual.hijoPreferido);
+    }
+
+    /**
+     * Rehace siguiendo una rama concreta del nodo actual.
+     * 
+     * @param indiceRama Índice del hijo (0 = rama más antigua)
+     * @return La acción rehecha, o null si la rama no existe
+     */
+    public Accion rehacer(int indiceRama) {
+        if (indiceRama < 0 || indiceRama >= actual.hijos.size()) return null;
+        return bajarA(actual.hijos.get(indiceRama));
+    }
+
+    private Accion bajarA(Nodo hijo) {
+        hijo.accion.rehacerCambios(entidades);
+        actual.hijoPreferido = hijo;
+        actual = hijo;
+        actual.ultimoUso = ++reloj;
+        return hijo.accion;
+    }
+
+    /**
+     * Lleva la batalla al estado de cualquier nodo del árbol en O(profundidad):
+     * deshace hasta el ancestro común y rehace bajando hacia el destino.
+     * 
+     * @param destino Nodo al que se quiere ir (debe pertenecer a este árbol)
+     * @return true si se llegó al nodo, false si no pertenece al árbol
+     */
+    public boolean irANodo(Nodo destino) {
+        // Comprobar que el destino cuelga de la raíz actual (puede haberse podado)
+        Nodo n = destino;
+        while (n != null && n != raiz) n = n.padre;
+        if (n == null) return false;
+
+        // Camino desde el destino hasta el ancestro común con el nodo actual
+        List<Nodo> bajada = new ArrayList<>();
+        Nodo a = actual;
+        Nodo b = destino;
+        while (b.profundidad > a.profundidad) { bajada.add(b); b = b.padre; }
+        while (a.profundidad > b.profundidad) { deshacer(); a = actual; }
+        while (a != b) {
+            deshacer();
+            a = actual;
+            bajada.add(b);
+            b = b.padre;
+        }
+
+        for (int i = bajada.size() - 1; i >= 0; i--) {
+            bajarA(bajada.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * Poda el árbol hasta cumplir los límites de número de acciones y memoria:
+     * 1. Hojas de ramas frías (fuera de la línea activa), las menos usadas primero.
+     * 2. Acciones más antiguas de la línea activa (la raíz avanza).
+     * 3. Final de la línea de redo activa.
+     * Siempre conserva al menos la última acción realizada.
+     */
+    private void aplicarLimites() {
+        if (!excedeLimites()) return;
+
+        // Marcar la línea activa: raíz -> actual -> cadena de hijos preferidos
+        int marca = ++epocaMarca;
+        for (Nodo n = actual; n != null; n = n.padre) n.marca = marca;
+        for (Nodo n = actual.hijoPreferido; n != null; n = n.hijoPreferido) n.marca = marca;
+
+        // 1. Ramas frías: hojas no marcadas, de la menos a la más usada
+        PriorityQueue<Nodo> frias = new PriorityQueue<>(Comparator.comparingLong((Nodo n) -> n.ultimoUso));
+        List<Nodo> pendientes = new ArrayList<>();
+        pendientes.add(raiz);
+        while (!pendientes.isEmpty()) {
+            Nodo n = pendientes.remove(pendientes.size() - 1);
+            if (n.hijos.isEmpty() && n.marca != marca) frias.add(n);
+            pendientes.addAll(n.hijos);
+        }
+        while (excedeLimites() && !frias.isEmpty()) {
+            Nodo hoja = frias.poll();
+            Nodo padre = hoja.padre;
+            eliminarHoja(hoja);
+            if (padre.hijos.isEmpty() && padre.marca != marca) frias.add(padre);
+        }
+
+        // 2. Acciones más antiguas de la línea activa
+        while (excedeLimites() && actual.profundidad - raiz.profundidad > 1) {
+            Nodo siguiente = null;
+            // Copia: descartarSubarbol quita el hijo de raiz.hijos
+            for (Nodo h : new ArrayList<>(raiz.hijos)) {
+                if (h.marca == marca) siguiente = h;
+                else descartarSubarbol(h);
+            }
+            // La acción del nuevo nodo raíz pasa a ser el estado base
+            bytesUsados -= siguiente.bytes;
+            numeroNodos--;
+            accionesDescartadas++;
+            siguiente.accion = null;
+            siguiente.bytes = 0;
+            siguiente.padre = null;
+            raiz = siguiente;
+        }
+
+        // 3. Final de la línea de redo activa
+        while (excedeLimites() && actual.hijoPreferido != null) {
+            Nodo ultimo = actual.hijoPreferido;
+            while (ultimo.hijoPreferido != null) ultimo = ultimo.hijoPreferido;
+            for (Nodo h : new ArrayList<>(ultimo.padre.hijos)) {
+                if (h != ultimo) descartarSubarbol(h);
+            }
+            for (Nodo h : new ArrayList<>(ultimo.hijos)) descartarSubarbol(h);
+            eliminarHoja(ultimo);
+        }
+    }
+
+    private boolean excedeLimites() {
+        return numeroNodos > maxAcciones || bytesUsados > maxBytes;
+    }
+
+    private void eliminarHoja(Nodo hoja) {
+        Nodo padre = hoja.padre;
+        padre.hijos.remove(hoja);
+        if (padre.hijoPreferido == hoja) {
+            padre.hijoPreferido = padre.hijos.isEmpty() ? null : padre.hijos.get(padre.hijos.size() - 1);
+        }
+        hoja.padre = null;
+        bytesUsados -= hoja.bytes;
+        numeroNodos--;
+        accionesDescartadas++;
+    }
+
+    private void descartarSubarbol(Nodo nodo) {
+        for (Nodo h : new ArrayList<>(nodo.hijos)) descartarSubarbol(h);
+        eliminarHoja(nodo);
+    }
+
+    private void reiniciarArbol() {
+        raiz = new Nodo(null, null);
+        actual = raiz;
+        numeroNodos = 0;
+        bytesUsados = 0;
     }
 
     /**
      * Verifica si hay acciones para deshacer.
      * 
-     * @return true si la pila undo no está vacía
+     * @return true si el nodo actual no es la raíz
      */
     public boolean puedeDeshacer() {
-        return !pilaUndo.isEmpty();
+        return actual != raiz;
     }
 
     /**
      * Verifica si hay acciones para rehacer.
      * 
-     * @return true si la pila redo no está vacía
+     * @return true si el nodo actual tiene algún hijo
      */
     public boolean puedeRehacer() {
-        return !pilaRedo.isEmpty();
+        return actual.hijoPreferido != null;
     }
 
     /**
      * Obtiene la última acción sin consumirla.
      * 
-     * @return Última acción en undo, o null si está vacía
+     * @return Acción del nodo actual, o null si está en la raíz
      */
     public Accion obtenerUltimaAccion() {
-        return pilaUndo.isEmpty() ? null : pilaUndo.peek();
+        return actual.accion;
     }
 
     /**
-     * Obtiene el número de acciones en el historial de undo.
+     * Obtiene el número de acciones que pueden deshacerse.
      * 
-     * @return Tamaño de la pila undo
+     * @return Distancia del nodo actual a la raíz
      */
     public int obtenerNumeroDeshacer() {
-        return pilaUndo.size();
+        return actual.profundidad - raiz.profundidad;
     }
 
     /**
-     * Obtiene el número de acciones en el historial de redo.
+     * Obtiene el número de acciones que pueden rehacerse por la rama preferida.
      * 
-     * @return Tamaño de la pila redo
+     * @return Longitud de la cadena de hijos preferidos
      */
     public int obtenerNumeroRehacer() {
-        return pilaRedo.size();
+        int n = 0;
+        for (Nodo h = actual.hijoPreferido; h != null; h = h.hijoPreferido) n++;
+        return n;
+    }
+
+    /**
+     * Obtiene el nodo del árbol en el que se encuentra la batalla.
+     * 
+     * @return Nodo actual
+     */
+    public Nodo obtenerNodoActual() {
+        return actual;
+    }
+
+    /**
+     * Obtiene la raíz del árbol (estado más antiguo conservado).
+     * 
+     * @return Nodo raíz
+     */
+    public Nodo obtenerRaiz() {
+        return raiz;
+    }
+
+    /**
+     * Obtiene el número de acciones guardadas en todo el árbol.
+     * 
+     * @return Número de nodos con acción
+     */
+    public int obtenerNumeroAcciones() {
+        return numeroNodos;
     }
 
     /**
      * Limpia todo el historial.
      */
     public void limpiar() {
-        pilaUndo.clear();
-        pilaRedo.clear();
+        reiniciarArbol();
+        accionEnCurso = null;
+        historiaTurnos.limpiar();
+    }
+
+    /**
+     * Captura el estado de los equipos como una nueva versión persistente.
+     * Se llama al terminar cada ronda de la batalla.
+     * 
+     * @param equipos Equipos de la batalla (siempre en el mismo orden)
+     * @return Turno asignado a la versión
+     */
+    public int capturarTurno(Personaje[]... equipos) {
+        int total = 0;
+        for (Personaje[] equipo : equipos) total += equipo.length;
+
+        Personaje[] unidades = new Personaje[total];
+        int i = 0;
+        for (Personaje[] equipo : equipos) {
+            System.arraycopy(equipo, 0, unidades, i, equipo.length);
+            i += equipo.length;
+        }
+        return historiaTurnos.capturar(unidades);
+    }
+
+    /**
+     * Restaura el estado de un turno capturado previamente.
+     * El árbol de acciones se vacía porque sus cambios se refieren
+     * al estado desde el que se viajó.
+     * 
+     * @param turno Turno al que se quiere volver
+     * @return true si el turno existía
+     */
+    public boolean viajarATurno(int turno) {
+        if (!historiaTurnos.viajarA(turno)) return false;
+        reiniciarArbol();
+        accionEnCurso = null;
+        return true;
+    }
+
+    /**
+     * Obtiene la historia persistente por turnos.
+     * 
+     * @return Historia de versiones de la batalla
+     */
+    public HistoriaPersistente obtenerHistoriaTurnos() {
+        return historiaTurnos;
+    }
+
+    /**
+     * Obtiene el número máximo de acciones que guarda el historial.
+     * 
+     * @return Límite de acciones
+     */
+    public int obtenerMaxAcciones() {
+        return maxAcciones;
+    }
+
+    /**
+     * Obtiene la memoria máxima estimada que puede ocupar el historial.
+     * 
+     * @return Límite en bytes
+     */
+    public long obtenerMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Obtiene la memoria estimada que ocupan las acciones guardadas.
+     * 
+     * @return Bytes usados aproximados
+     */
+    public long obtenerBytesUsados() {
+        return bytesUsados;
+    }
+
+    /**
+     * Obtiene cuántas acciones antiguas se han descartado por los límites.
+     * 
+     * @return Número de acciones descartadas
+     */
+    public int obtenerAccionesDescartadas() {
+        return accionesDescartadas;
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("=== HISTORIAL UNDO/REDO ===\n");
-        sb.append("Acciones para deshacer: ").append(pilaUndo.size()).append("\n");
-        sb.append("Acciones para rehacer: ").append(pilaRedo.size()).append("\n");
+        sb.append("Acciones para deshacer: ").append(obtenerNumeroDeshacer()).append("\n");
+        sb.append("Acciones para rehacer: ").append(obtenerNumeroRehacer())
+          .append(" (ramas desde aquí: ").append(actual.hijos.size()).append(")\n");
+        sb.append("Turnos capturados: ").append(historiaTurnos.obtenerNumeroTurnos())
+          .append(" | Ramas: ").append(historiaTurnos.obtenerNumeroRamas()).append("\n");
+        sb.append("Capacidad: ").append(numeroNodos)
+          .append("/").append(maxAcciones).append(" acciones")
+          .append(" | Memoria: ").append(bytesUsados).append("/").append(maxBytes).append(" bytes")
+          .append(String.format(" (%.0f%%)", 100.0 * bytesUsados / maxBytes)).append("\n");
+        if (accionesDescartadas > 0) {
+            sb.append("Acciones podadas: ").append(accionesDescartadas).append("\n");
+        }
         
-        if (!pilaUndo.isEmpty()) {
-            sb.append("\nÚltima acción: ").append(pilaUndo.peek()).append("\n");
+        if (actual.accion != null) {
+            sb.append("\nÚltima acción: ").append(actual.accion).append("\n");
         }
         
         return sb.toString();
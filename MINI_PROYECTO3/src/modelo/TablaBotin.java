@@ -0,0 +1,280 @@
+package modelo;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tabla de botín: qué ítem suelta un enemigo al ser derrotado.
+ *
+ * ESTRUCTURA DE DATOS: tabla de alias de Walker/Vose (int[] ids, double[] prob, int[] alias)
+ *   Los n resultados con pesos arbitrarios se reparten en n columnas de
+ *   altura 1: la columna i se queda con el resultado i con probabilidad
+ *   prob[i] y con alias[i] en el resto.
+ *
+ * JUSTIFICACIÓN:
+ * - Cada sorteo es O(1) y no reserva memoria: un único número aleatorio
+ *   elige la columna (parte entera) y decide entre resultado y alias
+ *   (parte fraccionaria)
+ * - La tabla se construye una vez por tipo de enemigo, en O(n), y de nuevo
+ *   solo si se publica otro catálogo de ítems (los ids se resuelven por
+ *   nombre contra el catálogo vigente)
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - Recorrer los pesos acumulados: O(n) por sorteo
+ * - Búsqueda binaria sobre pesos acumulados: O(log n) por sorteo
+ * - Array con cada ítem repetido según su peso: solo admite pesos enteros
+ *   pequeños y ocupa memoria proporcional a la suma de pesos
+ *
+ * El resultado SIN_BOTIN (-1) representa que el enemigo no suelta nada.
+ * GestorObjetos rechaza cualquier catálogo al que le falte un ítem de botín
+ * (comprobarCatalogo), así que el catálogo vigente siempre los tiene todos
+ * y un nombre nunca se confunde con SIN_BOTIN.
+ */
+public final class TablaBotin {
+
+    public static final int SIN_BOTIN = -1;
+
+    private final int[] ids;        // Id de catálogo de cada columna (o SIN_BOTIN)
+    private final int[] alias;      // Id alternativo de cada columna
+    private final double[] prob;    // Probabilidad de quedarse con ids[i]
+
+    // Definición de cada tabla: pares (nombre de ítem o null para "sin botín", peso)
+    private static final Object[][] DEFINICION_ENEMIGO = new Object[Tipo_Enemigo.values().length][];
+    private static final Object[][] DEFINICION_JEFE = new Object[Tipo_JefeEnemigo.values().length][];
+
+    static {
+        DEFINICION_ENEMIGO[Tipo_Enemigo.GOLEM.ordinal()] = new Object[] {
+            null, 50, "Poción", 30, "Armadura Plateada", 10, "Escudo Magnífico", 10 };
+        DEFINICION_ENEMIGO[Tipo_Enemigo.ORCO.ordinal()] = new Object[] {
+            null, 50, "Poción", 35, "Bomba", 10, "Espada Sagrada", 5 };
+        DEFINICION_ENEMIGO[Tipo_Enemigo.TROLL.ordinal()] = new Object[] {
+            null, 45, "Poción", 25, "Poción Fuerte", 20, "Bomba", 10 };
+        DEFINICION_ENEMIGO[Tipo_Enemigo.NOMUERTO.ordinal()] = new Object[] {
+            null, 40, "Antídoto", 35, "Bola de Hielo", 20, "Elixir", 5 };
+        DEFINICION_ENEMIGO[Tipo_Enemigo.DRAGON.ordinal()] = new Object[] {
+            null, 20, "Poción Fuerte", 35, "Elixir", 15, "Espada Sagrada", 15, "Escudo Magnífico", 15 };
+
+        DEFINICION_JEFE[Tipo_JefeEnemigo.REY_DRAGON.ordinal()] = new Object[] {
+            "Elixir", 40, "Espada Sagrada", 30, "Escudo Magnífico", 30 };
+        DEFINICION_JEFE[Tipo_JefeEnemigo.NIGROMANTE.ordinal()] = new Object[] {
+            "Elixir", 40, "Bola de Hielo", 40, "Antídoto", 20 };
+        DEFINICION_JEFE[Tipo_JefeEnemigo.JEFE_ORCO.ordinal()] = new Object[] {
+            "Espada Sagrada", 40, "Poción Fuerte", 40, "Bomba", 20 };
+        DEFINICION_JEFE[Tipo_JefeEnemigo.GIGANTE.ordinal()] = new Object[] {
+            "Armadura Plateada", 40, "Escudo Magnífico", 30, "Poción Fuerte", 30 };
+        DEFINICION_JEFE[Tipo_JefeEnemigo.DEMONIO.ordinal()] = new Object[] {
+            "Elixir", 50, "Espada Sagrada", 25, "Armadura Plateada", 25 };
+    }
+
+    /**
+     * Tablas de todos los tipos resueltas contra una versión del catálogo.
+     */
+    private static final class Tablas {
+        final CatalogoItems catalogo;
+        final TablaBotin[] porEnemigo;
+        final TablaBotin[] porJefe;
+
+        Tablas(CatalogoItems catalogo) {
+            this.catalogo = catalogo;
+            this.porEnemigo = new TablaBotin[DEFINICION_ENEMIGO.length];
+            this.porJefe = new TablaBotin[DEFINICION_JEFE.length];
+            for (int i = 0; i < porEnemigo.length; i++) porEnemigo[i] = crear(catalogo, DEFINICION_ENEMIGO[i]);
+            for (int i = 0; i < porJefe.length; i++) porJefe[i] = crear(catalogo, DEFINICION_JEFE[i]);
+        }
+    }
+
+    // Se construyen la primera vez que se piden. No se leen de GestorObjetos al
+    // cargar la clase: GestorObjetos llama a comprobarCatalogo mientras se inicializa
+    private static volatile Tablas tablas;
+
+    // Tablas del catálogo vigente; se reconstruyen si se recargó el catálogo
+    private static Tablas tablasVigentes() {
+        CatalogoItems actual = GestorObjetos.obtenerCatalogoActual();
+        Tablas t = tablas;
+        if (t == null || t.catalogo != actual) {
+            // Dos hilos pueden reconstruirlas a la vez: ambos obtienen tablas equivalentes
+            t = new Tablas(actual);
+            tablas = t;
+        }
+        return t;
+    }
+
+    /**
+     * Comprueba que un catálogo tiene todos los ítems de las tablas de botín.
+     * GestorObjetos lo llama antes de aceptar un catálogo.
+     *
+     * @param catalogo Catálogo candidato
+     * @throws IllegalArgumentException Si le falta algún ítem de botín
+     */
+    static void comprobarCatalogo(CatalogoItems catalogo) {
+        for (Object[][] definiciones : new Object[][][] { DEFINICION_ENEMIGO, DEFINICION_JEFE }) {
+            for (Object[] pares : definiciones) {
+                for (int i = 0; i < pares.length; i += 2) {
+                    String nombre = (String) pares[i];
+                    if (nombre != null && catalogo.obtenerId(nombre) < 0) {
+                        throw new IllegalArgumentException("Falta el ítem de botín " + nombre);
+                    }
+                }
+            }
+        }
+    }
+
+    private static TablaBotin crear(CatalogoItems catalogo, Object[] pares) {
+        int n = pares.length / 2;
+        int[] ids = new int[n];
+        double[] pesos = new double[n];
+        for (int i = 0; i < n; i++) {
+            String nombre = (String) pares[2 * i];
+            if (nombre == null) {
+                ids[i] = SIN_BOTIN;
+            } else {
+                ids[i] = catalogo.obtenerId(nombre);
+                if (ids[i] < 0) {
+                    throw new IllegalStateException("Ítem de botín que no está en el catálogo: " + nombre);
+                }
+            }
+            pesos[i] = ((Number) pares[2 * i + 1]).doubleValue();
+        }
+        return new TablaBotin(ids, pesos);
+    }
+
+    /**
+     * Construye la tabla de alias (método de Vose).
+     *
+     * @param ids Id de catálogo de cada resultado (SIN_BOTIN para "nada")
+     * @param pesos Peso de cada resultado (no negativos, no todos cero)
+     * @throws IllegalArgumentException Si los pesos no son válidos
+     */
+    public TablaBotin(int[] ids, double[] pesos) {
+        int n = ids.length;
+        if (n == 0 || pesos.length != n) {
+            throw new IllegalArgumentException("Se necesita un peso por resultado");
+        }
+        double total = 0;
+        for (double peso : pesos) {
+            if (peso < 0 || Double.isNaN(peso)) throw new IllegalArgumentException("Peso no válido: " + peso);
+            total += peso;
+        }
+        if (total <= 0) throw new IllegalArgumentException("La suma de pesos debe ser positiva");
+
+        this.ids = ids.clone();
+        this.alias = new int[n];
+        this.prob = new double[n];
+
+        // Escalar para que la altura media de las columnas sea 1
+        double[] escalado = new double[n];
+        Deque<Integer> pequeños = new ArrayDeque<>();
+        Deque<Integer> grandes = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            escalado[i] = pesos[i] * n / total;
+            if (escalado[i] < 1.0) pequeños.push(i); else grandes.push(i);
+        }
+
+        // Cada columna pequeña se completa con parte de una grande
+        while (!pequeños.isEmpty() && !grandes.isEmpty()) {
+            int p = pequeños.pop();
+            int g = grandes.pop();
+            prob[p] = escalado[p];
+            alias[p] = this.ids[g];
+            escalado[g] = (escalado[g] + escalado[p]) - 1.0;
+            if (escalado[g] < 1.0) pequeños.push(g); else grandes.push(g);
+        }
+        // Las que quedan tienen altura 1 (salvo errores de redondeo)
+        while (!grandes.isEmpty()) {
+            int g = grandes.pop();
+            prob[g] = 1.0;
+            alias[g] = this.ids[g];
+        }
+        while (!pequeños.isEmpty()) {
+            int p = pequeños.pop();
+            prob[p] = 1.0;
+            alias[p] = this.ids[p];
+        }
+    }
+
+    /**
+     * Obtiene la tabla de botín de un tipo de enemigo.
+     *
+     * @param tipo Tipo de enemigo
+     * @return Tabla de botín con los ids del catálogo vigente
+     */
+    public static TablaBotin de(Tipo_Enemigo tipo) {
+        return tablasVigentes().porEnemigo[tipo.ordinal()];
+    }
+
+    /**
+     * Obtiene la tabla de botín de un tipo de jefe.
+     *
+     * @param tipo Tipo de jefe
+     * @return Tabla de botín con los ids del catálogo vigente
+     */
+    public static TablaBotin de(Tipo_JefeEnemigo tipo) {
+        return tablasVigentes().porJefe[tipo.ordinal()];
+    }
+
+    /**
+     * Sortea un resultado con el generador del hilo actual.
+     *
+     * @return Id de catálogo del ítem, o SIN_BOTIN
+     */
+    public int sortear() {
+        return sortear(ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * Sortea un resultado a partir de un número aleatorio dado.
+     * Permite usar un generador propio (simulaciones reproducibles).
+     *
+     * @param u Número uniforme en [0, 1)
+     * @return Id de catálogo del ítem, o SIN_BOTIN
+     */
+    public int sortear(double u) {
+        double x = u * ids.length;
+        int columna = (int) x;
+        return x - columna < prob[columna] ? ids[columna] : alias[columna];
+    }
+
+    /**
+     * Entrega un ítem al primer héroe vivo que tenga sitio en el inventario
+     * (respeta el máximo de ítems distintos y de cantidad por ítem).
+     *
+     * @param id Id de catálogo sorteado (SIN_BOTIN no entrega nada)
+     * @param heroes Héroes que pueden recibir el botín
+     * @return Héroe que lo recibió, o null si no hubo botín o nadie tenía sitio
+     */
+    public static Heroe entregar(int id, Heroe[] heroes) {
+        if (id == SIN_BOTIN) return null;
+        int[] ids = { id };
+        int[] uno = { 1 };
+        for (Heroe heroe : heroes) {
+            if (heroe == null || !heroe.esta_vivo()) continue;
+            Inventario inventario = heroe.getInventario();
+            // agregarItem recorta al máximo por ítem y aun así devuelve true:
+            // se comprueba antes que la unidad cabe entera
+            synchronized (inventario) {
+                if (inventario.admite(ids, uno) && inventario.agregarItem(id, 1)) return heroe;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Probabilidad total de un resultado (útil para verificar la tabla).
+     *
+     * @param id Id de catálogo o SIN_BOTIN
+     * @return Probabilidad de obtenerlo en un sorteo
+     */
+    public double probabilidad(int id) {
+        double suma = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) suma += prob[i];
+            if (alias[i] == id) suma += 1.0 - prob[i];
+        }
+        return suma / ids.length;
+    }
+
+    public int tamaño() {
+        return ids.length;
+    }
+}
@@ -0,0 +1,239 @@
+package modelo;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Evolución de hp y mp de cada unidad, turno a turno, comprimida.
+ *
+ * ESTRUCTURA DE DATOS: un único flujo de bits (long[]) con deltas de tamaño variable
+ *   Por cada turno y unidad se escriben hp y mp. El primer valor de cada
+ *   serie va completo (32 bits) y el resto como diferencia con el turno
+ *   anterior, con los prefijos de Gorilla:
+ *     0              → sin cambios
+ *     10   + 7 bits  → diferencia en [-64, 63]
+ *     110  + 10 bits → diferencia en [-512, 511]
+ *     1110 + 14 bits → diferencia en [-8192, 8191]
+ *     1111 + 32 bits → cualquier otra
+ *
+ * JUSTIFICACIÓN:
+ * - La vida y el maná de una unidad cambian en pocos turnos: la mayoría de
+ *   muestras ocupan 1 bit
+ * - Una batalla de 200 turnos con 20 unidades ocupa de cientos de bytes a
+ *   ~2 KB (según cuántos golpes haya) en lugar de los 32 KB de dos int[]
+ * - El decodificador recorre el flujo una vez, sin crear objetos por muestra
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - XOR de Gorilla: pensado para double; hp y mp son enteros
+ * - Delta de deltas: favorece rampas regulares, pero hp y mp son escalones
+ *   (cada golpe costaría dos diferencias distintas de cero)
+ * - int[][] por batalla: 8 bytes por unidad y turno
+ *
+ * Las instancias son inmutables; se construyen con TrazaBatalla.Grabador.
+ */
+public class TrazaBatalla implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Graba la traza de una batalla en curso: una muestra por turno de cada unidad.
+     */
+    public static class Grabador {
+        private final Personaje[] unidades;
+        private final long[] previo;         // Último valor de cada serie
+        private long[] bits = new long[16];
+        private int numeroBits;
+        private int turnos;
+
+        /**
+         * Constructor del grabador.
+         *
+         * @param equipos Equipos cuyas unidades se siguen (en el orden dado)
+         */
+        public Grabador(Personaje[]... equipos) {
+            int n = 0;
+            for (Personaje[] equipo : equipos) n += equipo.length;
+            this.unidades = new Personaje[n];
+            int i = 0;
+            for (Personaje[] equipo : equipos) {
+                for (Personaje p : equipo) unidades[i++] = p;
+            }
+            this.previo = new long[n * 2];
+        }
+
+        /**
+         * Toma una muestra de hp y mp de todas las unidades.
+         */
+        public void capturarTurno() {
+            for (int u = 0; u < unidades.length; u++) {
+                escribirMuestra(u * 2, unidades[u].getHp());
+                escribirMuestra(u * 2 + 1, unidades[u].getMp());
+            }
+            turnos++;
+        }
+
+        private void escribirMuestra(int serie, long valor) {
+            if (turnos == 0) {
+                escribir(valor, 32);
+            } else {
+                long delta = valor - previo[serie];
+                if (delta == 0) {
+                    escribir(0, 1);
+                } else if (delta >= -64 && delta <= 63) {
+                    escribir(0b10, 2);
+                    escribir(delta, 7);
+                } else if (delta >= -512 && delta <= 511) {
+                    escribir(0b110, 3);
+                    escribir(delta, 10);
+                } else if (delta >= -8192 && delta <= 8191) {
+                    escribir(0b1110, 4);
+                    escribir(delta, 14);
+                } else {
+                    escribir(0b1111, 4);
+                    escribir(delta, 32);
+                }
+            }
+            previo[serie] = valor;
+        }
+
+        // Escribe los n bits bajos de valor (más significativo primero)
+        private void escribir(long valor, int n) {
+            if (numeroBits + n > (long) bits.length * 64) {
+                bits = Arrays.copyOf(bits, bits.length * 2);
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                if (((valor >>> i) & 1) != 0) {
+                    bits[numeroBits >>> 6] |= 1L << (63 - (numeroBits & 63));
+                }
+                numeroBits++;
+            }
+        }
+
+        /**
+         * Cierra la grabación.
+         *
+         * @return Traza inmutable con todas las muestras tomadas
+         */
+        public TrazaBatalla finalizar() {
+            int[] ids = new int[unidades.length];
+            String[] nombres = new String[unidades.length];
+            for (int u = 0; u < unidades.length; u++) {
+                ids[u] = unidades[u].getId();
+                nombres[u] = unidades[u].getNombre();
+            }
+            return new TrazaBatalla(ids, nombres, turnos,
+                Arrays.copyOf(bits, (numeroBits + 63) >>> 6), numeroBits);
+        }
+    }
+
+    private final int[] ids;
+    private final String[] nombres;
+    private final int turnos;
+    private final long[] bits;
+    private final int numeroBits;
+
+    private TrazaBatalla(int[] ids, String[] nombres, int turnos, long[] bits, int numeroBits) {
+        this.ids = ids;
+        this.nombres = nombres;
+        this.turnos = turnos;
+        this.bits = bits;
+        this.numeroBits = numeroBits;
+    }
+
+    /**
+     * Decodifica todas las series en arrays proporcionados por el llamador.
+     *
+     * @param hp Destino [unidad][turno] de la vida, o null para descartarla
+     * @param mp Destino [unidad][turno] del maná, o null para descartarlo
+     */
+    public void decodificar(int[][] hp, int[][] mp) {
+        int n = ids.length;
+        long[] previo = new long[n * 2];
+        int posicion = 0;
+
+        for (int t = 0; t < turnos; t++) {
+            for (int serie = 0; serie < n * 2; serie++) {
+                long valor;
+                if (t == 0) {
+                    valor = leer(posicion, 32);
+                    posicion += 32;
+                } else {
+                    long delta;
+                    if (bit(posicion++) == 0) {
+                        delta = 0;
+                    } else if (bit(posicion++) == 0) {
+                        delta = leer(posicion, 7);  posicion += 7;
+                    } else if (bit(posicion++) == 0) {
+                        delta = leer(posicion, 10); posicion += 10;
+                    } else if (bit(posicion++) == 0) {
+                        delta = leer(posicion, 14); posicion += 14;
+                    } else {
+                        delta = leer(posicion, 32); posicion += 32;
+                    }
+                    valor = previo[serie] + delta;
+                }
+                previo[serie] = valor;
+
+                int[][] destino = (serie & 1) == 0 ? hp : mp;
+                if (destino != null) destino[serie >>> 1][t] = (int) valor;
+            }
+        }
+    }
+
+    private int bit(int posicion) {
+        return (int) (bits[posicion >>> 6] >>> (63 - (posicion & 63))) & 1;
+    }
+
+    // Lee n bits como entero con signo (complemento a dos de n bits)
+    private long leer(int posicion, int n) {
+        long valor = 0;
+        for (int i = 0; i < n; i++) {
+            valor = (valor << 1) | bit(posicion + i);
+        }
+        return (valor << (64 - n)) >> (64 - n);
+    }
+
+    /**
+     * Obtiene la vida de una unidad en cada turno.
+     *
+     * @param unidad Posición de la unidad en la traza (ver getIds)
+     * @return Vida por turno
+     */
+    public int[] obtenerSerieHp(int unidad) {
+        int[][] hp = new int[ids.length][turnos];
+        decodificar(hp, null);
+        return hp[unidad];
+    }
+
+    /**
+     * Obtiene el maná de una unidad en cada turno.
+     *
+     * @param unidad Posición de la unidad en la traza (ver getIds)
+     * @return Maná por turno
+     */
+    public int[] obtenerSerieMp(int unidad) {
+        int[][] mp = new int[ids.length][turnos];
+        decodificar(null, mp);
+        return mp[unidad];
+    }
+
+    // Getters
+    public int getNumeroUnidades() { return ids.length; }
+    public int getTurnos() { return turnos; }
+    public int[] getIds() { return ids.clone(); }
+    public String[] getNombres() { return nombres.clone(); }
+
+    /**
+     * Obtiene el tamaño comprimido de las series.
+     *
+     * @return Bytes ocupados por el flujo de bits
+     */
+    public int getBytesComprimidos() {
+        return (numeroBits + 7) >>> 3;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Traza: %d unidades x %d turnos en %d bytes",
+            ids.length, turnos, getBytesComprimidos());
+    }
+}
@@ -0,0 +1,123 @@
+package modelo;
+
+/**
+ * Vector inmutable con estructura compartida (persistent vector).
+ * 
+ * ESTRUCTURA DE DATOS: Trie de arrays con 16 hijos por nodo (bit-partitioned trie)
+ * 
+ * JUSTIFICACIÓN:
+ * - Cada versión es inmutable, por lo que puede guardarse y consultarse
+ *   en cualquier momento sin copiarla.
+ * - asignar() solo copia el camino desde la raíz hasta la hoja modificada
+ *   (O(log16 n) nodos); el resto de nodos se comparte con la versión anterior.
+ * - obtener() recorre O(log16 n) niveles: para equipos de batalla es 1 o 2.
+ * 
+ * ALTERNATIVAS RECHAZADAS:
+ * - Copiar el array completo en cada versión: O(n) memoria por versión
+ * - Lista enlazada persistente: acceso por índice O(n)
+ * - TreeMap: mutable, habría que copiarlo para conservar versiones
+ * 
+ * @param <T> Tipo de los elementos (deben ser inmutables para compartirse)
+ */
+public final class VectorPersistente<T> {
+
+    private static final int BITS = 4;
+    private static final int ANCHO = 1 << BITS;
+    private static final int MASCARA = ANCHO - 1;
+
+    private final int tamaño;
+    private final int desplazamiento;   // BITS * (niveles - 1)
+    private final Object[] raiz;
+
+    private VectorPersistente(int tamaño, int desplazamiento, Object[] raiz) {
+        this.tamaño = tamaño;
+        this.desplazamiento = desplazamiento;
+        this.raiz = raiz;
+    }
+
+    /**
+     * Crea un vector persistente con los elementos indicados.
+     * 
+     * @param elementos Elementos iniciales (se copian)
+     * @return Vector con los elementos en el mismo orden
+     */
+    public static <T> VectorPersistente<T> de(T[] elementos) {
+        int n = elementos.length;
+        Object[] nivel = new Object[Math.max(1, (n + MASCARA) >>> BITS)];
+        for (int i = 0; i < nivel.length; i++) {
+            Object[] hoja = new Object[ANCHO];
+            int inicio = i << BITS;
+            System.arraycopy(elementos, inicio, hoja, 0, Math.max(0, Math.min(ANCHO, n - inicio)));
+            nivel[i] = hoja;
+        }
+
+        // Agrupar nodos de 16 en 16 hasta quedar con una sola raíz
+        int desplazamiento = 0;
+        while (nivel.length > 1) {
+            Object[] superior = new Object[(nivel.length + MASCARA) >>> BITS];
+            for (int i = 0; i < superior.length; i++) {
+                Object[] nodo = new Object[ANCHO];
+                int inicio = i << BITS;
+                System.arraycopy(nivel, inicio, nodo, 0, Math.min(ANCHO, nivel.length - inicio));
+                superior[i] = nodo;
+            }
+            nivel = superior;
+            desplazamiento += BITS;
+        }
+        return new VectorPersistente<>(n, desplazamiento, (Object[]) nivel[0]);
+    }
+
+    /**
+     * Obtiene el elemento de una posición.
+     * 
+     * @param indice Posición (0 a tamaño-1)
+     * @return Elemento en esa posición
+     */
+    @SuppressWarnings("unchecked")
+    public T obtener(int indice) {
+        if (indice < 0 || indice >= tamaño) {
+            throw new IndexOutOfBoundsException("Índice fuera de rango: " + indice);
+        }
+        Object[] nodo = raiz;
+        for (int nivel = desplazamiento; nivel > 0; nivel -= BITS) {
+            nodo = (Object[]) nodo[(indice >>> nivel) & MASCARA];
+        }
+        return (T) nodo[indice & MASCARA];
+    }
+
+    /**
+     * Devuelve una nueva versión con el elemento de una posición reemplazado.
+     * La versión actual no cambia y comparte con la nueva todo salvo el camino copiado.
+     * 
+     * @param indice Posición a reemplazar
+     * @param valor Nuevo valor
+     * @return Nueva versión del vector (o esta misma si el valor no cambia)
+     */
+    public VectorPersistente<T> asignar(int indice, T valor) {
+        if (indice < 0 || indice >= tamaño) {
+            throw new IndexOutOfBoundsException("Índice fuera de rango: " + indice);
+        }
+        if (obtener(indice) == valor) return this;
+        return new VectorPersistente<>(tamaño, desplazamiento, asignar(raiz, desplazamiento, indice, valor));
+    }
+
+    private static Object[] asignar(Object[] nodo, int nivel, int indice, Object valor) {
+        Object[] copia = nodo.clone();
+        if (nivel == 0) {
+            copia[indice & MASCARA] = valor;
+        } else {
+            int hijo = (indice >>> nivel) & MASCARA;
+            copia[hijo] = asignar((Object[]) nodo[hijo], nivel - BITS, indice, valor);
+        }
+        return copia;
+    }
+
+    /**
+     * Obtiene el número de elementos.
+     * 
+     * @return Tamaño del vector
+     */
+    public int tamaño() {
+        return tamaño;
+    }
+}
@@ -0,0 +1,138 @@
+package red;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Anillo de hashing consistente que decide qué fragmento guarda cada nombre.
+ *
+ * ESTRUCTURA DE DATOS: TreeMap<Long, String> (posición en el anillo → fragmento)
+ *   Cada fragmento ocupa NODOS_VIRTUALES posiciones; el dueño de una clave es
+ *   el primer nodo virtual en sentido horario desde el hash de la clave.
+ *
+ * JUSTIFICACIÓN:
+ * - propietario() es un ceilingEntry: O(log(fragmentos · nodos virtuales))
+ * - Al añadir un fragmento solo cambian de dueño las claves que caen en los
+ *   arcos que ocupan sus nodos virtuales (~1/(n+1) del total); con hash
+ *   módulo n cambiarían casi todas
+ * - Con 128 nodos virtuales por fragmento el reparto queda equilibrado
+ *   aunque haya pocos fragmentos
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - hash(clave) % n: reasigna casi todas las claves al cambiar n
+ * - Un único nodo por fragmento: arcos muy desiguales con pocos fragmentos
+ * - Array ordenado + búsqueda binaria: igual de rápido, pero añadir un
+ *   fragmento obliga a reconstruirlo; el anillo cambia poco y el TreeMap basta
+ *
+ * No es seguro entre hilos para modificarlo: el cliente prepara cada cambio
+ * en una copia y la publica; un anillo publicado ya no se modifica y puede
+ * consultarse desde varios hilos a la vez.
+ */
+public class AnilloConsistente {
+
+    public static final int NODOS_VIRTUALES = 128;
+
+    private final TreeMap<Long, String> anillo = new TreeMap<>();
+    private final Set<String> fragmentos = new LinkedHashSet<>();
+    private final int nodosVirtuales;
+
+    /**
+     * Constructor con el número de nodos virtuales por defecto.
+     */
+    public AnilloConsistente() {
+        this(NODOS_VIRTUALES);
+    }
+
+    /**
+     * @param nodosVirtuales Posiciones que ocupa cada fragmento en el anillo
+     */
+    public AnilloConsistente(int nodosVirtuales) {
+        if (nodosVirtuales <= 0) throw new IllegalArgumentException("Se necesita al menos un nodo virtual");
+        this.nodosVirtuales = nodosVirtuales;
+    }
+
+    /**
+     * Copia un anillo (para preparar un cambio sin tocar el que está en uso).
+     *
+     * @param otro Anillo a copiar
+     */
+    public AnilloConsistente(AnilloConsistente otro) {
+        this.nodosVirtuales = otro.nodosVirtuales;
+        this.anillo.putAll(otro.anillo);
+        this.fragmentos.addAll(otro.fragmentos);
+    }
+
+    /**
+     * Añade un fragmento al anillo.
+     *
+     * @param fragmento Identificador del fragmento (por ejemplo "localhost:7070")
+     * @return false si ya estaba
+     */
+    public boolean agregar(String fragmento) {
+        if (!fragmentos.add(fragmento)) return false;
+        for (int i = 0; i < nodosVirtuales; i++) {
+            // Una colisión de 64 bits es despreciable; si ocurre, conserva el primero
+            anillo.putIfAbsent(hash(fragmento + "#" + i), fragmento);
+        }
+        return true;
+    }
+
+    /**
+     * Quita un fragmento del anillo.
+     *
+     * @param fragmento Identificador del fragmento
+     * @return false si no estaba
+     */
+    public boolean quitar(String fragmento) {
+        if (!fragmentos.remove(fragmento)) return false;
+        anillo.values().removeIf(fragmento::equals);
+        return true;
+    }
+
+    /**
+     * Obtiene el fragmento dueño de una clave.
+     *
+     * @param clave Nombre del aventurero
+     * @return Fragmento, o null si el anillo está vacío
+     */
+    public String propietario(String clave) {
+        if (anillo.isEmpty()) return null;
+        Map.Entry<Long, String> e = anillo.ceilingEntry(hash(clave));
+        return e != null ? e.getValue() : anillo.firstEntry().getValue();   // Vuelta al inicio
+    }
+
+    /**
+     * Obtiene los fragmentos del anillo, en orden de alta.
+     *
+     * @return Lista no modificable
+     */
+    public List<String> obtenerFragmentos() {
+        return Collections.unmodifiableList(new ArrayList<>(fragmentos));
+    }
+
+    public int tamaño() {
+        return fragmentos.size();
+    }
+
+    // FNV-1a de 64 bits sobre UTF-8 seguido de la mezcla final de MurmurHash3
+    static long hash(String clave) {
+        byte[] datos = clave.getBytes(StandardCharsets.UTF_8);
+        long h = 0xCBF29CE484222325L;
+        for (byte b : datos) {
+            h ^= b & 0xFF;
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,588 @@
+package red;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Cliente del registro de aventureros repartido entre varios procesos
+ * ServidorFragmento en localhost.
+ *
+ * ESTRUCTURA DE DATOS:
+ *   - Topologia inmutable en un campo volatile: época + AnilloConsistente +
+ *     HashMap<String, Pool> (fragmento → conexiones)
+ *   - Pool: ArrayBlockingQueue<Conexion> con las conexiones libres de un
+ *     fragmento, hasta CONEXIONES_POR_FRAGMENTO abiertas a la vez
+ *
+ * JUSTIFICACIÓN:
+ * - Cada nombre va directo a su fragmento: una petición por operación y
+ *   ningún proceso concentra todo el registro ni todo el tráfico
+ * - Encontrar el fragmento de un nombre es leer el campo volatile y
+ *   consultar un anillo que ya no cambia: ningún lock entre los hilos
+ * - Cada hilo toma una conexión libre del pool de su fragmento; el servidor
+ *   atiende cada conexión en su propio hilo, así que hasta
+ *   CONEXIONES_POR_FRAGMENTO peticiones por fragmento avanzan a la vez
+ * - Las conexiones se mantienen abiertas: sin coste de conexión por petición.
+ *   Una conexión que falla se cierra y el pool abre otra cuando hace falta
+ * - agregarFragmento solo mueve los nombres cuyo dueño cambia en el anillo
+ *   (~1/(n+1) del total). Los copia al nuevo fragmento con la topología
+ *   anterior todavía en uso, publica la nueva y solo entonces los borra de
+ *   los anteriores: ningún nombre queda sin un fragmento que lo tenga y al
+ *   que el anillo publicado envíe sus consultas
+ * - Cada anillo publicado tiene una época y se fija en todos los fragmentos
+ *   antes de borrar nada; cada petición lleva la época del anillo con que se
+ *   encaminó. Un fragmento que ya conoce uno más nuevo no la ejecuta y
+ *   devuelve el suyo: los demás clientes lo adoptan y repiten la petición en
+ *   el fragmento correcto, en lugar de no encontrar un nombre trasladado o
+ *   registrarlo por duplicado en su fragmento anterior
+ *
+ * ALTERNATIVAS RECHAZADAS:
+ * - Un socket por fragmento con synchronized: los hilos del cliente hacen
+ *   cola y cada fragmento atiende una petición suya a la vez
+ * - Leer el anillo bajo el monitor del cliente: todos los hilos compiten por
+ *   el mismo lock en cada operación
+ * - Abrir una conexión por petición: el coste de conectar supera al de la
+ *   propia petición
+ * - Un servicio central de configuración: otro proceso del que dependen
+ *   todos; los fragmentos ya reciben cada petición y pueden comprobar la época
+ *
+ * Varios clientes pueden usar los mismos fragmentos y sus operaciones son
+ * seguras entre hilos. Solo un cliente a la vez debe llamar a
+ * agregarFragmento, y mientras dura no deben registrarse nombres (desde
+ * ningún hilo ni cliente): un nombre registrado en el fragmento viejo
+ * durante la copia quedaría fuera de su sitio.
+ */
+public class ClienteRegistroDistribuido implements Closeable {
+
+    /** Conexiones abiertas como máximo con cada fragmento. */
+    public static final int CONEXIONES_POR_FRAGMENTO = 4;
+
+    // Se reemplaza entera al cambiar; nunca se modifica después de publicarla
+    private volatile Topologia topologia;
+
+    // Se asigna bajo el monitor del cliente; impide que adoptar() reabra un cliente cerrado
+    private boolean cerrado;
+
+    /**
+     * Anillo y pools de un momento dado. Inmutable una vez publicada.
+     */
+    private static final class Topologia {
+        final long epoca;
+        final AnilloConsistente anillo;
+        final Map<String, Pool> pools;
+
+        Topologia(long epoca, AnilloConsistente anillo, Map<String, Pool> pools) {
+            this.epoca = epoca;
+            this.anillo = anillo;
+            this.pools = pools;
+        }
+
+        Pool poolDe(String nombre) {
+            String fragmento = anillo.propietario(nombre);
+            if (fragmento == null) throw new IllegalStateException("No hay fragmentos en el registro");
+            return pools.get(fragmento);
+        }
+
+        // Puertos de los fragmentos en orden de alta, como se envían en FIJAR_ANILLO
+        int[] puertos() {
+            List<String> fragmentos = anillo.obtenerFragmentos();
+            int[] puertos = new int[fragmentos.size()];
+            for (int i = 0; i < puertos.length; i++) puertos[i] = pools.get(fragmentos.get(i)).puerto;
+            return puertos;
+        }
+    }
+
+    /**
+     * Respuesta de un fragmento que conoce un anillo más nuevo que el de la
+     * petición. La conexión queda lista para la siguiente petición.
+     */
+    private static final class AnilloObsoleto extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        final long epoca;
+        final int[] puertos;
+
+        AnilloObsoleto(long epoca, int[] puertos) {
+            super("El fragmento tiene un anillo más nuevo (época " + epoca + ")");
+            this.epoca = epoca;
+            this.puertos = puertos;
+        }
+    }
+
+    /**
+     * Conexión persistente con un fragmento. La usa un solo hilo a la vez
+     * (el que la ha tomado del pool).
+     */
+    private static final class Conexion implements Closeable {
+        private final Socket socket;
+        private final DataInputStream entrada;
+        private final DataOutputStream salida;
+
+        Conexion(int puerto) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), puerto);
+            socket.setTcpNoDelay(true);
+            entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            salida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        boolean pedir(byte operacion, long epoca, String nombre) throws IOException {
+            salida.writeByte(operacion);
+            salida.writeLong(epoca);
+            salida.writeUTF(nombre);
+            salida.flush();
+            return leerEstado() == ProtocoloRegistro.RESPUESTA_SI;
+        }
+
+        long total(long epoca) throws IOException {
+            salida.writeByte(ProtocoloRegistro.TOTAL);
+            salida.writeLong(epoca);
+            salida.flush();
+            leerEstado();
+            return entrada.readLong();
+        }
+
+        void listar(long epoca, Consumer<String> destino) throws IOException {
+            salida.writeByte(ProtocoloRegistro.LISTAR);
+            salida.writeLong(epoca);
+            salida.flush();
+            leerEstado();
+            while (entrada.readBoolean()) destino.accept(entrada.readUTF());
+        }
+
+        void fijar(long epoca, int[] puertos) throws IOException {
+            salida.writeByte(ProtocoloRegistro.FIJAR_ANILLO);
+            salida.writeLong(epoca);
+            salida.writeInt(puertos.length);
+            for (int puerto : puertos) salida.writeInt(puerto);
+            salida.flush();
+            leerEstado();
+        }
+
+        // Lee el byte de estado; si el fragmento respondió con su anillo, lo lanza
+        private byte leerEstado() throws IOException {
+            byte estado = entrada.readByte();
+            if (estado != ProtocoloRegistro.ANILLO_OBSOLETO) return estado;
+            long epoca = entrada.readLong();
+            int[] puertos = new int[entrada.readInt()];
+            for (int i = 0; i < puertos.length; i++) puertos[i] = entrada.readInt();
+            throw new AnilloObsoleto(epoca, puertos);
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * Petición que se hace con una conexión prestada por un pool.
+     */
+    private interface Peticion<T> {
+        T enviar(Conexion conexion) throws IOException;
+    }
+
+    /**
+     * Conexiones con un fragmento. Abre conexiones según las pide la
+     * concurrencia, sin pasar de CONEXIONES_POR_FRAGMENTO; con todas
+     * ocupadas, el hilo espera a que se libere una.
+     */
+    private static final class Pool implements Closeable {
+        private final int puerto;
+        private final ArrayBlockingQueue<Conexion> libres = new ArrayBlockingQueue<>(CONEXIONES_POR_FRAGMENTO);
+        private final AtomicInteger abiertas = new AtomicInteger();
+        private volatile boolean cerrado;
+
+        // Abre la primera conexión para comprobar que el fragmento responde
+        Pool(int puerto) throws IOException {
+            this.puerto = puerto;
+            abiertas.set(1);
+            libres.add(new Conexion(puerto));
+        }
+
+        <T> T usar(Peticion<T> peticion) throws IOException {
+            Conexion conexion = tomar();
+            T resultado;
+            try {
+                resultado = peticion.enviar(conexion);
+            } catch (AnilloObsoleto e) {
+                // Respuesta completa: la conexión sigue sincronizada
+                devolver(conexion);
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                // El flujo puede haber quedado a mitad de una respuesta: no se reutiliza
+                descartar(conexion);
+                throw e;
+            }
+            devolver(conexion);
+            return resultado;
+        }
+
+        private Conexion tomar() throws IOException {
+            while (true) {
+                if (cerrado) throw new IOException("Cliente cerrado");
+                Conexion conexion = libres.poll();
+                if (conexion != null) return conexion;
+
+                int n = abiertas.get();
+                if (n < CONEXIONES_POR_FRAGMENTO && abiertas.compareAndSet(n, n + 1)) {
+                    try {
+                        return new Conexion(puerto);
+                    } catch (IOException e) {
+                        abiertas.decrementAndGet();
+                        throw e;
+                    }
+                }
+
+                // Espera acotada: si otro hilo descarta su conexión, se vuelve a intentar abrir
+                try {
+                    conexion = libres.poll(10, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrumpido esperando una conexión");
+                }
+                if (conexion != null) return conexion;
+            }
+        }
+
+        private void devolver(Conexion conexion) {
+            libres.offer(conexion);
+            // close() pudo vaciar la cola antes de esta devolución
+            if (cerrado && libres.remove(conexion)) descartar(conexion);
+        }
+
+        private void descartar(Conexion conexion) {
+            abiertas.decrementAndGet();
+            try {
+                conexion.close();
+            } catch (IOException e) {
+                // Ya no se usa
+            }
+        }
+
+        /**
+         * Cierra las conexiones libres; las prestadas se cierran al devolverse.
+         */
+        @Override
+        public void close() throws IOException {
+            cerrado = true;
+            IOException primero = null;
+            Conexion conexion;
+            while ((conexion = libres.poll()) != null) {
+                abiertas.decrementAndGet();
+                try {
+                    conexion.close();
+                } catch (IOException e) {
+                    if (primero == null) primero = e;
+                }
+            }
+            if (primero != null) throw primero;
+        }
+    }
+
+    /**
+     * Conecta con un conjunto inicial de fragmentos (vacíos o ya repartidos
+     * con este mismo anillo).
+     *
+     * @param puertos Puertos de localhost donde escuchan los fragmentos
+     * @throws IOException Si algún fragmento no responde
+     */
+    public ClienteRegistroDistribuido(int... puertos) throws IOException {
+        AnilloConsistente anillo = new AnilloConsistente();
+        Map<String, Pool> pools = new HashMap<>();
+        try {
+            for (int puerto : puertos) {
+                String id = identificador(puerto);
+                if (pools.containsKey(id)) continue;
+                pools.put(id, new Pool(puerto));
+                anillo.agregar(id);
+            }
+        } catch (IOException e) {
+            cerrarTodos(pools.values(), e);
+            throw e;
+        }
+        topologia = new Topologia(0, anillo, pools);
+    }
+
+    private static String identificador(int puerto) {
+        return "localhost:" + puerto;
+    }
+
+    // Petición de un nombre a su fragmento; se repite si el anillo estaba obsoleto
+    private boolean pedir(String nombre, byte operacion) throws IOException {
+        while (true) {
+            Topologia t = topologia;
+            Pool pool = t.poolDe(nombre);
+            try {
+                return pool.usar(c -> c.pedir(operacion, t.epoca, nombre));
+            } catch (AnilloObsoleto e) {
+                adoptar(e);
+            }
+        }
+    }
+
+    /**
+     * Adopta el anillo que devolvió un fragmento, si es más nuevo que el propio.
+     * Conserva los pools de los fragmentos que siguen y conecta con los nuevos.
+     */
+    private synchronized void adoptar(AnilloObsoleto obsoleto) throws IOException {
+        if (cerrado) throw new IOException("Cliente cerrado");
+        Topologia actual = topologia;
+        if (obsoleto.epoca <= actual.epoca) return;     // Otro hilo ya lo adoptó
+
+        AnilloConsistente anillo = new AnilloConsistente();
+        Map<String, Pool> pools = new HashMap<>();
+        List<Pool> abiertos = new ArrayList<>();
+        try {
+            for (int puerto : obsoleto.puertos) {
+                String id = identificador(puerto);
+                Pool pool = actual.pools.get(id);
+                if (pool == null) {
+                    pool = new Pool(puerto);
+                    abiertos.add(pool);
+                }
+                pools.put(id, pool);
+                anillo.agregar(id);
+            }
+        } catch (IOException e) {
+            cerrarTodos(abiertos, e);
+            throw e;
+        }
+        topologia = new Topologia(obsoleto.epoca, anillo, pools);
+
+        // Fragmentos que ya no están en el anillo (este cliente se creó con otros puertos)
+        for (Map.Entry<String, Pool> e : actual.pools.entrySet()) {
+            if (!pools.containsKey(e.getKey())) {
+                try {
+                    e.getValue().close();
+                } catch (IOException ignorada) {
+                    // Ya no se usa
+                }
+            }
+        }
+    }
+
+    /**
+     * Registra un aventurero en su fragmento.
+     *
+     * @param nombre Nombre del aventurero
+     * @return true si se registró (no existía antes)
+     * @throws IOException Si falla la comunicación con el fragmento
+     */
+    public boolean registrar(String nombre) throws IOException {
+        if (nombre == null || nombre.isEmpty()) return false;
+        return pedir(nombre, ProtocoloRegistro.REGISTRAR);
+    }
+
+    /**
+     * Verifica si un aventurero está registrado.
+     *
+     * @param nombre Nombre del aventurero
+     * @return true si está en el registro
+     * @throws IOException Si falla la comunicación con el fragmento
+     */
+    public boolean estaRegistrado(String nombre) throws IOException {
+        if (nombre == null || nombre.isEmpty()) return false;
+        return pedir(nombre, ProtocoloRegistro.ESTA_REGISTRADO);
+    }
+
+    /**
+     * Elimina un aventurero del registro.
+     *
+     * @param nombre Nombre del aventurero
+     * @return true si fue eliminado
+     * @throws IOException Si falla la comunicación con el fragmento
+     */
+    public boolean eliminar(String nombre) throws IOException {
+        if (nombre == null || nombre.isEmpty()) return false;
+        return pedir(nombre, ProtocoloRegistro.ELIMINAR);
+    }
+
+    /**
+     * Suma los aventureros de todos los fragmentos.
+     *
+     * @return Total registrado
+     * @throws IOException Si falla la comunicación con algún fragmento
+     */
+    public long obtenerTotal() throws IOException {
+        while (true) {
+            Topologia t = topologia;
+            long total = 0;
+            try {
+                for (Pool pool : t.pools.values()) total += pool.usar(c -> c.total(t.epoca));
+                return total;
+            } catch (AnilloObsoleto e) {
+                adoptar(e);
+            }
+        }
+    }
+
+    /**
+     * Añade un fragmento y le traslada los nombres que el anillo le asigna.
+     *
+     * 1. Copia al nuevo fragmento los nombres que cambian de dueño; el anillo
+     *    vigente sigue enviando todas las peticiones a los fragmentos viejos.
+     *    Si la copia falla, se borran del nuevo fragmento los nombres que se
+     *    le añadieron y el anillo no cambia. Si algún fragmento ya tenía un
+     *    anillo más nuevo, se adopta y se vuelve a empezar con él.
+     * 2. Fija el anillo nuevo (época siguiente) en todos los fragmentos y lo
+     *    publica en este cliente. Desde ese momento cualquier cliente con el
+     *    anillo anterior lo recibe en su siguiente petición. Si solo se fija
+     *    en una parte, el anillo nuevo queda publicado pero no se borra nada:
+     *    los nombres siguen en los dos fragmentos y se lanza IOException.
+     * 3. Borra los nombres copiados de sus fragmentos anteriores. Si uno ya no
+     *    estaba (otro cliente lo eliminó durante la copia), se elimina también
+     *    del nuevo. Si esta fase falla, los nombres ya están en su nuevo
+     *    dueño; en el fragmento anterior quedan copias que el anillo nunca
+     *    consulta (obtenerTotal las contaría).
+     *
+     * @param puerto Puerto de localhost del nuevo fragmento (vacío)
+     * @return Número de nombres trasladados
+     * @throws IOException Si falla la comunicación con algún fragmento
+     */
+    public synchronized int agregarFragmento(int puerto) throws IOException {
+        Topologia actual = topologia;
+        String nuevo = identificador(puerto);
+        if (actual.pools.containsKey(nuevo)) return 0;
+        AnilloConsistente siguiente = new AnilloConsistente(actual.anillo);
+        siguiente.agregar(nuevo);
+        long epoca = actual.epoca;
+        Pool destino = new Pool(puerto);
+
+        // 1. Copiar. Solo se guardan en memoria los nombres que cambian de dueño
+        Map<Pool, List<String>> trasladosPorOrigen = new LinkedHashMap<>();
+        List<String> añadidos = new ArrayList<>();      // Los que no estaban ya en el destino
+        try {
+            for (Pool origen : actual.pools.values()) {
+                List<String> mover = new ArrayList<>();
+                origen.usar(c -> {
+                    c.listar(epoca, nombre -> {
+                        if (nuevo.equals(siguiente.propietario(nombre))) mover.add(nombre);
+                    });
+                    return null;
+                });
+                for (String nombre : mover) {
+                    if (destino.usar(c -> c.pedir(ProtocoloRegistro.REGISTRAR, epoca, nombre))) añadidos.add(nombre);
+                }
+                trasladosPorOrigen.put(origen, mover);
+            }
+        } catch (AnilloObsoleto e) {
+            // Otro cliente cambió el anillo: se deshace la copia y se repite con el suyo
+            deshacerCopia(destino, epoca, añadidos, e);
+            adoptar(e);
+            return agregarFragmento(puerto);
+        } catch (IOException e) {
+            deshacerCopia(destino, epoca, añadidos, e);
+            throw e;
+        }
+
+        // 2. Fijar en todos los fragmentos y publicar
+        Map<String, Pool> pools = new HashMap<>(actual.pools);
+        pools.put(nuevo, destino);
+        Topologia publicada = new Topologia(epoca + 1, siguiente, pools);
+        int[] puertos = publicada.puertos();
+        int fijados = 0;
+        try {
+            for (Pool pool : pools.values()) {
+                pool.usar(c -> {
+                    c.fijar(epoca + 1, puertos);
+                    return null;
+                });
+                fijados++;
+            }
+        } catch (IOException e) {
+            if (fijados == 0) {
+                deshacerCopia(destino, epoca, añadidos, e);
+                if (e instanceof AnilloObsoleto) adoptar((AnilloObsoleto) e);
+                throw e;
+            }
+            // Algún fragmento ya lo entrega a otros clientes: no se puede retirar
+            topologia = publicada;
+            throw new IOException("Anillo fijado en " + fijados + " de " + pools.size()
+                + " fragmentos; los nombres trasladados siguen también en su fragmento anterior", e);
+        }
+        topologia = publicada;
+
+        // 3. Borrar de los fragmentos anteriores
+        int trasladados = 0;
+        for (Map.Entry<Pool, List<String>> e : trasladosPorOrigen.entrySet()) {
+            Pool origen = e.getKey();
+            for (String nombre : e.getValue()) {
+                if (origen.usar(c -> c.pedir(ProtocoloRegistro.ELIMINAR, epoca + 1, nombre))) {
+                    trasladados++;
+                } else {
+                    destino.usar(c -> c.pedir(ProtocoloRegistro.ELIMINAR, epoca + 1, nombre));
+                }
+            }
+        }
+        return trasladados;
+    }
+
+    // Deja el nuevo fragmento como estaba y lo desconecta; los errores se añaden a la causa
+    private static void deshacerCopia(Pool destino, long epoca, List<String> añadidos, IOException causa) {
+        try {
+            for (String nombre : añadidos) destino.usar(c -> c.pedir(ProtocoloRegistro.ELIMINAR, epoca, nombre));
+        } catch (IOException e) {
+            causa.addSuppressed(e);
+        }
+        try {
+            destino.close();
+        } catch (IOException e) {
+            causa.addSuppressed(e);
+        }
+    }
+
+    // Cierra los pools tras un fallo al conectar; los errores se añaden a la causa
+    private static void cerrarTodos(Iterable<Pool> pools, IOException causa) {
+        for (Pool pool : pools) {
+            try {
+                pool.close();
+            } catch (IOException e) {
+                causa.addSuppressed(e);
+            }
+        }
+    }
+
+    /**
+     * Obtiene los fragmentos conectados.
+     *
+     * @return Identificadores "localhost:puerto"
+     */
+    public List<String> obtenerFragmentos() {
+        return topologia.anillo.obtenerFragmentos();
+    }
+
+    /**
+     * Cierra las conexiones con todos los fragmentos. Las operaciones
+     * posteriores fallan con IllegalStateException.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        cerrado = true;
+        Topologia actual = topologia;
+        topologia = new Topologia(actual.epoca, new AnilloConsistente(), new HashMap<>());
+        IOException primero = null;
+        for (Pool pool : actual.pools.values()) {
+            try {
+                pool.close();
+            } catch (IOException e) {
+                if (primero == null) primero = e;
+            }
+        }
+        if (primero != null) throw primero;
+    }
+}
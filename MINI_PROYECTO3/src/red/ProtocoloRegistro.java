@@ -0,0 +1,37 @@
+package red;
+
+/**
+ * Protocolo binario entre ClienteRegistroDistribuido y ServidorFragmento.
+ *
+ * Cada petición es un byte de operación, la época del anillo que usa el
+ * cliente (writeLong) y los argumentos, escritos con DataOutputStream.
+ * Cada respuesta empieza con un byte de estado:
+ *   REGISTRAR, ESTA_REGISTRADO, ELIMINAR: nombre (writeUTF) → RESPUESTA_SI / RESPUESTA_NO
+ *   TOTAL: (sin argumentos) → RESPUESTA_SI, long
+ *   LISTAR: (sin argumentos) → RESPUESTA_SI, secuencia de (true, nombre) terminada en false
+ *   FIJAR_ANILLO: número de fragmentos (int) y sus puertos (int) → RESPUESTA_SI
+ *     si el fragmento adopta ese anillo (su época es mayor que la que tenía)
+ *
+ * Si la época de la petición es menor que la del último anillo fijado en el
+ * fragmento, no se ejecuta y la respuesta es ANILLO_OBSOLETO seguido de ese
+ * anillo: época (long), número de fragmentos (int) y sus puertos (int).
+ * El cliente lo adopta y repite la petición.
+ *
+ * Una conexión admite cualquier número de peticiones seguidas.
+ */
+final class ProtocoloRegistro {
+
+    static final byte REGISTRAR = 1;
+    static final byte ESTA_REGISTRADO = 2;
+    static final byte ELIMINAR = 3;
+    static final byte TOTAL = 4;
+    static final byte LISTAR = 5;
+    static final byte FIJAR_ANILLO = 6;
+
+    static final byte RESPUESTA_NO = 0;
+    static final byte RESPUESTA_SI = 1;
+    static final byte ANILLO_OBSOLETO = 2;
+
+    private ProtocoloRegistro() {
+    }
+}
@@ -0,0 +1,206 @@
+package red;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import modelo.RegistroAventurerosConcurrente;
+
+/**
+ * Fragmento del registro distribuido: un proceso que guarda los nombres que
+ * el anillo le asigna y atiende peticiones por localhost.
+ *
+ * ESTRUCTURA DE DATOS: RegistroAventurerosConcurrente + un hilo por conexión
+ *
+ * JUSTIFICACIÓN:
+ * - Cada conexión tiene su hilo y el registro no toma locks al registrar,
+ *   así que los clientes no se esperan entre sí
+ * - LISTAR recorre una instantánea: envía el estado de un instante sin
+ *   bloquear los registros que lleguen mientras tanto
+ * - Guarda el último anillo que le ha fijado un cliente (época y puertos) en
+ *   un objeto inmutable: comprobar la época de cada petición es leer un
+ *   campo volatile. Un cliente con un anillo más antiguo recibe el vigente
+ *   en lugar de leer o escribir en un fragmento que ya no es el dueño
+ *
+ * Uso: java red.ServidorFragmento [puerto]   (por defecto 7070)
+ */
+public class ServidorFragmento implements Closeable {
+
+    public static final int PUERTO_POR_DEFECTO = 7070;
+
+    private final RegistroAventurerosConcurrente registro = new RegistroAventurerosConcurrente();
+    private final ServerSocket servidor;
+    private final AtomicInteger conexiones = new AtomicInteger();
+
+    // Último anillo fijado (época 0: ninguno, se aceptan todas las peticiones)
+    private volatile AnilloFijado anillo = new AnilloFijado(0, new int[0]);
+
+    /**
+     * Anillo que un cliente publicó en este fragmento. Inmutable.
+     */
+    private static final class AnilloFijado {
+        final long epoca;
+        final int[] puertos;
+
+        AnilloFijado(long epoca, int[] puertos) {
+            this.epoca = epoca;
+            this.puertos = puertos;
+        }
+    }
+
+    /**
+     * Abre el puerto en localhost. Las conexiones se atienden tras iniciar().
+     *
+     * @param puerto Puerto TCP (0 = uno libre cualquiera)
+     * @throws IOException Si no se puede abrir el puerto
+     */
+    public ServidorFragmento(int puerto) throws IOException {
+        this.servidor = new ServerSocket(puerto, 50, InetAddress.getLoopbackAddress());
+    }
+
+    public int getPuerto() {
+        return servidor.getLocalPort();
+    }
+
+    public RegistroAventurerosConcurrente getRegistro() {
+        return registro;
+    }
+
+    /**
+     * Acepta conexiones en un hilo propio hasta que se cierre el servidor.
+     */
+    public void iniciar() {
+        Thread aceptador = new Thread(this::aceptar, "fragmento-" + getPuerto());
+        aceptador.start();
+    }
+
+    private void aceptar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket socket = servidor.accept();
+                socket.setTcpNoDelay(true);
+                Thread hilo = new Thread(() -> atender(socket),
+                    "fragmento-" + getPuerto() + "-conexion-" + conexiones.incrementAndGet());
+                hilo.setDaemon(true);
+                hilo.start();
+            } catch (SocketException e) {
+                return;     // Servidor cerrado
+            } catch (IOException e) {
+                System.err.println("Error aceptando conexión: " + e.getMessage());
+            }
+        }
+    }
+
+    private void atender(Socket socket) {
+        try (Socket s = socket;
+             DataInputStream entrada = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+             DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+            while (true) {
+                byte operacion;
+                try {
+                    operacion = entrada.readByte();
+                } catch (EOFException e) {
+                    return;     // El cliente cerró la conexión
+                }
+                long epoca = entrada.readLong();
+                switch (operacion) {
+                    case ProtocoloRegistro.REGISTRAR:
+                    case ProtocoloRegistro.ESTA_REGISTRADO:
+                    case ProtocoloRegistro.ELIMINAR:
+                        String nombre = entrada.readUTF();
+                        if (vigente(epoca, salida)) salida.writeByte(responder(operacion, nombre));
+                        break;
+                    case ProtocoloRegistro.TOTAL:
+                        if (vigente(epoca, salida)) {
+                            salida.writeByte(ProtocoloRegistro.RESPUESTA_SI);
+                            salida.writeLong(registro.obtenerTotal());
+                        }
+                        break;
+                    case ProtocoloRegistro.LISTAR:
+                        if (!vigente(epoca, salida)) break;
+                        salida.writeByte(ProtocoloRegistro.RESPUESTA_SI);
+                        try (RegistroAventurerosConcurrente.Instantanea instantanea = registro.obtenerInstantanea()) {
+                            for (String n : instantanea) {
+                                salida.writeBoolean(true);
+                                salida.writeUTF(n);
+                            }
+                        }
+                        salida.writeBoolean(false);
+                        break;
+                    case ProtocoloRegistro.FIJAR_ANILLO:
+                        int[] puertos = new int[entrada.readInt()];
+                        for (int i = 0; i < puertos.length; i++) puertos[i] = entrada.readInt();
+                        if (fijar(epoca, puertos)) {
+                            salida.writeByte(ProtocoloRegistro.RESPUESTA_SI);
+                        } else {
+                            escribirObsoleto(salida);
+                        }
+                        break;
+                    default:
+                        throw new IOException("Operación desconocida: " + operacion);
+                }
+                salida.flush();
+            }
+        } catch (IOException e) {
+            if (!servidor.isClosed()) System.err.println("Conexión cerrada con error: " + e.getMessage());
+        }
+    }
+
+    private byte responder(byte operacion, String nombre) {
+        boolean resultado;
+        if (operacion == ProtocoloRegistro.REGISTRAR) {
+            resultado = registro.registrar(nombre);
+        } else if (operacion == ProtocoloRegistro.ESTA_REGISTRADO) {
+            resultado = registro.estaRegistrado(nombre);
+        } else {
+            resultado = registro.eliminar(nombre);
+        }
+        return resultado ? ProtocoloRegistro.RESPUESTA_SI : ProtocoloRegistro.RESPUESTA_NO;
+    }
+
+    // Si la petición usa un anillo anterior al fijado, responde con el fijado
+    private boolean vigente(long epoca, DataOutputStream salida) throws IOException {
+        if (epoca >= anillo.epoca) return true;
+        escribirObsoleto(salida);
+        return false;
+    }
+
+    private void escribirObsoleto(DataOutputStream salida) throws IOException {
+        AnilloFijado actual = anillo;
+        salida.writeByte(ProtocoloRegistro.ANILLO_OBSOLETO);
+        salida.writeLong(actual.epoca);
+        salida.writeInt(actual.puertos.length);
+        for (int puerto : actual.puertos) salida.writeInt(puerto);
+    }
+
+    // Las épocas solo avanzan: de dos clientes que fijan a la vez gana la mayor
+    private synchronized boolean fijar(long epoca, int[] puertos) {
+        if (epoca <= anillo.epoca) return false;
+        anillo = new AnilloFijado(epoca, puertos);
+        return true;
+    }
+
+    /**
+     * Deja de aceptar conexiones. Las ya abiertas terminan cuando su cliente cierra.
+     */
+    @Override
+    public void close() throws IOException {
+        servidor.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int puerto = args.length > 0 ? Integer.parseInt(args[0]) : PUERTO_POR_DEFECTO;
+        ServidorFragmento fragmento = new ServidorFragmento(puerto);
+        fragmento.iniciar();
+        System.out.println("Fragmento del registro escuchando en localhost:" + fragmento.getPuerto());
+    }
+}
@@ -8,8 +8,7 @@ import javax.swing.*;
 import controlador.ControladorBatalla;
 
 import java.awt.event.*;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Implementación de la vista con interfaz gráfica de usuario (GUI).
@@ -24,8 +23,10 @@ import java.util.Map;
  * - Interfaz responsiva con listeners de eventos
  * - Organización en paneles (héroes a la izquierda, enemigos al centro, log a la derecha)
  * 
+ * Las barras se indexan por el id entero de cada personaje, por lo que
+ * siguen siendo válidas después de cargar una partida.
+ * 
  * Limitaciones conocidas:
- * - Las barras de HP no se actualizan correctamente después de cargar una partida
  * - La sincronización entre GUI y lógica de batalla requiere el uso de locks
  */
 public class VistaGUI extends JFrame implements VistaJuego{
@@ -33,11 +34,12 @@ public class VistaGUI extends JFrame implements VistaJuego{
     // Componentes principales de la GUI
     private ControladorBatalla controlador;
 
-    // Mapas para rastrear HP máximo y barras de progreso de cada personaje
-    private Map<Heroe, Integer> hpMaxHeroes = new HashMap<>();
-    private Map<Enemigo, Integer> hpMaxEnemigos = new HashMap<>();
-    private Map<Heroe, JProgressBar> barrasHeroes = new HashMap<>();
-    private Map<Enemigo, JProgressBar> barrasEnemigos = new HashMap<>();
+    // Barras de progreso indexadas por id de personaje
+    private JProgressBar[] barrasPorId = new JProgressBar[0];
+    // Equipos mostrados actualmente (los arrays de la batalla: tras cargar
+    // una partida contienen los personajes restaurados)
+    private Personaje[] heroesMostrados = new Personaje[0];
+    private Personaje[] enemigosMostrados = new Personaje[0];
 
     // Paneles y componentes de la interfaz
     private JPanel panelHeroes;
@@ -181,14 +183,11 @@ public class VistaGUI extends JFrame implements VistaJuego{
         nombre.setForeground(Color.WHITE);
         nombre.setFont(new Font("Arial", Font.BOLD, 12));
 
-        hpMaxHeroes.putIfAbsent(h, h.getHp());
-        int hpMax = hpMaxHeroes.get(h);
-
-        JProgressBar vida = new JProgressBar(0, hpMax);
+        JProgressBar vida = new JProgressBar(0, h.getHp());
         vida.setValue(h.getHp());
         vida.setStringPainted(true);
 
-        barrasHeroes.put(h, vida);
+        asignarBarra(h.getId(), vida);
 
         card.add(nombre, BorderLayout.NORTH);
         card.add(vida, BorderLayout.CENTER);
@@ -206,14 +205,11 @@ public class VistaGUI extends JFrame implements VistaJuego{
         nombre.setForeground(Color.WHITE);
         nombre.setFont(new Font("Arial", Font.BOLD, 14));
         
-        hpMaxEnemigos.putIfAbsent(e, e.getHp());
-        int hpMax = hpMaxEnemigos.get(e);
-
-        JProgressBar vida = new JProgressBar(0, hpMax);
+        JProgressBar vida = new JProgressBar(0, e.getHp());
         vida.setValue(e.getHp());
         vida.setStringPainted(true);
     
-        barrasEnemigos.put(e, vida);
+        asignarBarra(e.getId(), vida);
 
         card.add(nombre, BorderLayout.NORTH);
         card.add(vida, BorderLayout.CENTER);
@@ -231,14 +227,27 @@ public class VistaGUI extends JFrame implements VistaJuego{
         return card;
     }
 
+    // guarda la barra de un personaje en la posición de su id
+    private void asignarBarra(int id, JProgressBar barra){
+        if (id < 0) return;     // Personaje fuera de una batalla
+        if (id >= barrasPorId.length) {
+            barrasPorId = Arrays.copyOf(barrasPorId, Math.max(id + 1, barrasPorId.length * 2));
+        }
+        barrasPorId[id] = barra;
+    }
+
     // funcion que actualiza las barras segun la vida del personaje 
     public void actualizarBarras(){
-        for (Heroe h : barrasHeroes.keySet()){
-            barrasHeroes.get(h).setValue(h.getHp());
-        }
+        actualizarBarras(heroesMostrados);
+        actualizarBarras(enemigosMostrados);
+    }
 
-        for (Enemigo e : barrasEnemigos.keySet()){
-            barrasEnemigos.get(e).setValue(e.getHp());
+    private void actualizarBarras(Personaje[] personajes){
+        for (Personaje p : personajes){
+            int id = p == null ? -1 : p.getId();
+            if (id >= 0 && id < barrasPorId.length && barrasPorId[id] != null) {
+                barrasPorId[id].setValue(p.getHp());
+            }
         }
     }
 
@@ -268,13 +277,11 @@ public class VistaGUI extends JFrame implements VistaJuego{
     @Override
     public void mostrarHeroes(Heroe[] heroe) {
 
-        barrasHeroes.clear();
-        hpMaxHeroes.clear();
+        heroesMostrados = heroe;
 
         panelHeroes.removeAll();
-        for(Heroe h : heroe){
-            hpMaxHeroes.put(h, h.getHp());
-            panelHeroes.add(generarHeroe(h));
+        for(int i = 0; i < heroe.length; i++){
+            panelHeroes.add(generarHeroe(heroe[i]));
         }
 
         panelHeroes.revalidate();
@@ -283,14 +290,11 @@ public class VistaGUI extends JFrame implements VistaJuego{
 
     @Override
     public void mostrarEnemigos(Enemigo[] enemigo) {
-        barrasEnemigos.clear();
-        hpMaxEnemigos.clear();
+        enemigosMostrados = enemigo;
 
         panelEnemigos.removeAll();
 
         for(int i = 0 ; i < enemigo.length; i++){
-            Enemigo e = enemigo[i];
-            hpMaxEnemigos.put(e, e.getHp());
             panelEnemigos.add(generarEnemigo(enemigo[i], i));
         }
 
@@ -392,19 +396,16 @@ public class VistaGUI extends JFrame implements VistaJuego{
         sb.append("INVENTARIO DE ").append(heroe.getNombre().toUpperCase()).append("\n");
         sb.append("======================================\n");
         
-        Inventario inv = heroe.getInventario();
+        Inventario.Instantanea inv = heroe.getInventario().obtenerInstantanea();
         
-        if (inv.obtenerEspacios() == 0) {
+        if (inv.tamaño() == 0) {
             sb.append("  ✗ Inventario vacío\n");
         } else {
-            int contador = 1;
-            for (String nombreItem : inv.obtenerItems()) {
-                int cantidad = inv.obtenerCantidad(nombreItem);
-                sb.append("  ").append(contador).append(". ").append(nombreItem)
-                  .append(" x").append(cantidad).append("\n");
-                contador++;
+            for (int i = 0; i < inv.tamaño(); i++) {
+                sb.append("  ").append(i + 1).append(". ").append(inv.getNombre(i))
+                  .append(" x").append(inv.getCantidad(i)).append("\n");
             }
-            sb.append("\n  Espacios usados: ").append(inv.obtenerEspacios()).append("/5\n");
+            sb.append("\n  Espacios usados: ").append(inv.tamaño()).append("/5\n");
         }
         sb.append("======================================\n");
         
@@ -420,15 +421,15 @@ public class VistaGUI extends JFrame implements VistaJuego{
      */
     @Override
     public String seleccionarItem(Heroe heroe) {
-        Inventario inv = heroe.getInventario();
+        Inventario.Instantanea inv = heroe.getInventario().obtenerInstantanea();
         
-        if (inv.obtenerEspacios() == 0) {
+        if (inv.tamaño() == 0) {
             areaLog.append("\n  Tu inventario está vacío.\n");
             return null;
         }
         
         // Convertir items a array para diálogo
-        Object[] listaItems = inv.obtenerItems().toArray();
+        Object[] listaItems = inv.nombres().toArray();
         
         // Mostrar diálogo de selección
         Object seleccion = JOptionPane.showInputDialog(
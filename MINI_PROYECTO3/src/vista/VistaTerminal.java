@@ -239,18 +239,15 @@ public class VistaTerminal implements VistaJuego {
         System.out.println(" INVENTARIO DE " + heroe.getNombre().toUpperCase());
         System.out.println("========================================");
         
-        Inventario inv = heroe.getInventario();
+        Inventario.Instantanea inv = heroe.getInventario().obtenerInstantanea();
         
-        if (inv.obtenerEspacios() == 0) {
+        if (inv.tamaño() == 0) {
             System.out.println("  ✗ Inventario vacío");
         } else {
-            int contador = 1;
-            for (String nombreItem : inv.obtenerItems()) {
-                int cantidad = inv.obtenerCantidad(nombreItem);
-                System.out.println("  " + contador + ". " + nombreItem + " x" + cantidad);
-                contador++;
+            for (int i = 0; i < inv.tamaño(); i++) {
+                System.out.println("  " + (i + 1) + ". " + inv.getNombre(i) + " x" + inv.getCantidad(i));
             }
-            System.out.println("\n  Espacios usados: " + inv.obtenerEspacios() + "/5");
+            System.out.println("\n  Espacios usados: " + inv.tamaño() + "/5");
         }
         System.out.println("========================================");
     }
@@ -263,21 +260,17 @@ public class VistaTerminal implements VistaJuego {
      */
     @Override
     public String seleccionarItem(Heroe heroe) {
-        Inventario inv = heroe.getInventario();
+        // Instantánea inmutable: acceso por índice sin copiar los ítems
+        Inventario.Instantanea inv = heroe.getInventario().obtenerInstantanea();
         
-        if (inv.obtenerEspacios() == 0) {
+        if (inv.tamaño() == 0) {
             System.out.println("\n Tu inventario está vacío.");
             return null;
         }
         
-        // Convertir items a lista para poder acceder por índice
-        ArrayList<String> listaItems = new ArrayList<>(inv.obtenerItems());
-        
         System.out.println("\n Selecciona un item para usar:");
-        for (int i = 0; i < listaItems.size(); i++) {
-            String item = listaItems.get(i);
-            int cantidad = inv.obtenerCantidad(item);
-            System.out.println("  " + (i + 1) + ". " + item + " x" + cantidad);
+        for (int i = 0; i < inv.tamaño(); i++) {
+            System.out.println("  " + (i + 1) + ". " + inv.getNombre(i) + " x" + inv.getCantidad(i));
         }
         System.out.println("  0. Cancelar");
         System.out.print("  Tu elección: ");
@@ -291,12 +284,12 @@ public class VistaTerminal implements VistaJuego {
         }
         
         // Validar que la opción esté en rango
-        if (opcion < 1 || opcion > listaItems.size()) {
+        if (opcion < 1 || opcion > inv.tamaño()) {
             System.out.println(" Opción inválida.");
             return seleccionarItem(heroe); // Reintentar
         }
         
-        return listaItems.get(opcion - 1);
+        return inv.getNombre(opcion - 1);
     }
 
     /**